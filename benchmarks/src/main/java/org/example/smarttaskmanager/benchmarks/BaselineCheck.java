@@ -0,0 +1,106 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result with a stored baseline.
+ *
+ *   BaselineCheck <baseline.json> <jmh-result.json> [tolerance, default 0.20]
+ *
+ * A benchmark regresses when its score is worse than the baseline by more than the
+ * tolerance (lower is better for time modes, higher for throughput) and by more than
+ * the two scoreErrors (JMH's 99.9% confidence half-widths) together: a difference the
+ * runs' own noise can explain is not a regression. A result without an error (one
+ * iteration) counts as exact. Prints one line per benchmark and exits with 1 if anything
+ * regressed, so CI can fail the build. Benchmarks missing from the baseline are reported
+ * as new and never fail; a baseline noisier than the tolerance is flagged, it can hide
+ * regressions and should be recorded again.
+ *
+ * To accept new numbers: copy target/jmh-result.json over baseline.json.
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck <baseline.json> <jmh-result.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.20;
+
+        Map<String, JsonNode> baseline = index(new File(args[0]));
+        Map<String, JsonNode> current = index(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double score = now.at("/primaryMetric/score").asDouble();
+            double error = scoreError(now);
+            String unit = now.at("/primaryMetric/scoreUnit").asText();
+
+            if (before == null) {
+                System.out.printf("NEW        %-70s %12.3f +- %.3f %s%n", entry.getKey(), score, error, unit);
+                continue;
+            }
+
+            double baseScore = before.at("/primaryMetric/score").asDouble();
+            double baseError = scoreError(before);
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            // > 0 means worse than the baseline
+            double worse = higherIsBetter ? baseScore - score : score - baseScore;
+            double change = worse / baseScore;
+            boolean regressed = change > tolerance && worse > error + baseError;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-70s %12.3f +- %.3f %s (baseline %.3f +- %.3f, %+.1f%%)%s%n",
+                    regressed ? "REGRESSED" : "OK", entry.getKey(), score, error, unit, baseScore, baseError,
+                    -change * 100, baseError / baseScore > tolerance ? " noisy baseline" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    // NaN when JMH could not compute one (a single iteration)
+    private static double scoreError(JsonNode result) {
+        double error = result.at("/primaryMetric/scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    // "Class.method{param=value,...}" → result
+    private static Map<String, JsonNode> index(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("org.example.smarttaskmanager.benchmarks.", ""));
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                key.append('{');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append('}');
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import org.example.smarttaskmanager.SmartTaskManagerApplication;
+import org.example.smarttaskmanager.model.Role;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.repository.UserRepository;
+import org.example.smarttaskmanager.service.TaskService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Boots the application on an in-memory H2 database (PostgreSQL mode) and seeds it.
+ * No Flyway (the migrations are PostgreSQL-only): Hibernate creates the schema,
+ * including the task indexes declared on the entities.
+ */
+final class BenchmarkApp {
+
+    // 64 zero bytes, base64: HS512 needs a 512-bit key
+    static final String JWT_SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private static final String[] WORDS = {
+            "report", "review", "deploy", "invoice", "meeting", "budget", "release", "customer",
+            "design", "backlog", "migration", "security", "audit", "roadmap", "hiring", "support"
+    };
+
+    private BenchmarkApp() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.flyway.enabled", "false");
+        properties.put("jwt.secret", JWT_SECRET);
+        properties.put("spring.security.oauth2.client.registration.google.client-id", "benchmark");
+        properties.put("spring.security.oauth2.client.registration.google.client-secret", "benchmark");
+        properties.put("app.outbox.sink", "memory");
+        properties.put("app.outbox.relay.enabled", "false");
+        properties.put("app.ratelimit.enabled", "false");
+
+        // As command-line arguments: they override application.properties (builder defaults would not)
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SmartTaskManagerApplication.class).run(args);
+    }
+
+    static User createUser(ConfigurableApplicationContext context, String name) {
+        User user = User.builder()
+                .username(name)
+                .email(name + "@bench.local")
+                .password("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchma")
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .build();
+        return context.getBean(UserRepository.class).save(user);
+    }
+
+    /**
+     * Insert {@code count} tasks for the user through the bulk API (JDBC batches).
+     * Titles, statuses, priorities, due dates and update times vary like real data.
+     */
+    static void seedTasks(ConfigurableApplicationContext context, Long userId, int count, long seed) {
+        TaskService taskService = context.getBean(TaskService.class);
+        Random random = new Random(seed);
+        Task.Status[] statuses = Task.Status.values();
+        Task.Priority[] priorities = Task.Priority.values();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTitle(word(random) + " " + word(random) + " #" + i);
+            task.setDescription("Follow up on the " + word(random) + " and the " + word(random) + " with the team");
+            task.setStatus(statuses[random.nextInt(statuses.length)]);
+            task.setPriority(priorities[random.nextInt(priorities.length)]);
+            task.setDueDate(random.nextInt(4) == 0 ? null : now.plusHours(random.nextInt(24 * 90)));
+            batch.add(task);
+
+            if (batch.size() == 1000 || i == count - 1) {
+                taskService.createTasks(batch, userId);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
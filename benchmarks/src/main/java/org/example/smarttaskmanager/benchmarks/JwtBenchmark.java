@@ -0,0 +1,77 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.smarttaskmanager.model.Role;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.security.JwtClaims;
+import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.Key;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT issue and verification.
+ *
+ * - perRequestFilterPath: what JwtAuthFilter costs per request now (verified-token cache hit)
+ * - cacheMissParse: one signature check with the shared parser (first request of a token)
+ * - previousFilterPath: the filter before the cache, three full parses per request
+ *   (validateToken, getEmailFromToken, getRolesFromToken), each with a new parser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class JwtBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private User user;
+    private String token;
+    private Key key;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(BenchmarkApp.JWT_SECRET, 3_600_000, 10_000, new SimpleMeterRegistry());
+        user = User.builder()
+                .id(42L)
+                .username("bench")
+                .email("bench@bench.local")
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .build();
+        token = tokenProvider.generateToken(user);
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkApp.JWT_SECRET));
+        tokenProvider.parseToken(token); // warm the verified-token cache
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<JwtClaims> perRequestFilterPath() {
+        return tokenProvider.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims cacheMissParse() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public void previousFilterPath(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import org.example.smarttaskmanager.security.LocalRateLimiter;
+import org.example.smarttaskmanager.security.RateLimitRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate-limit check (LocalRateLimiter), which every request pays.
+ * The rule never runs dry, so every call takes the full "allowed" path (CAS included).
+ *
+ * - hotKey: one user hammering
+ * - manyKeys: 10,000 distinct users
+ * - contendedKey: 4 threads on the same bucket (CAS retries)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private LocalRateLimiter rateLimiter;
+    private RateLimitRule rule;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new LocalRateLimiter(100_000, Duration.ofMinutes(10));
+        rule = new RateLimitRule("bench", 1_000_000_000L, 1e9);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user:" + i;
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return rateLimiter.tryAcquire("user:1", rule);
+    }
+
+    @Benchmark
+    public long manyKeys() {
+        return rateLimiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)], rule);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long contendedKey() {
+        return rateLimiter.tryAcquire("user:1", rule);
+    }
+}
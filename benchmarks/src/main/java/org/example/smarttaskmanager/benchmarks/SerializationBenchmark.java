@@ -0,0 +1,83 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Role;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a task page, configured like Spring Boot's ObjectMapper.
+ *
+ * - responsePage: Page<TaskResponse>, what the API returns now
+ * - entityPage: Page<Task> with the owner User embedded, what it returned before
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<TaskResponse> responsePage;
+    private Page<Task> entityPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        User owner = User.builder()
+                .id(7L)
+                .username("bench")
+                .email("bench@bench.local")
+                .password("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchma")
+                .lastLogin(LocalDateTime.now())
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .build();
+
+        List<Task> tasks = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Prepare the quarterly budget review #" + i);
+            task.setDescription("Collect the numbers from every team and send the draft to finance");
+            task.setPriority(Task.Priority.values()[i % 3]);
+            task.setStatus(Task.Status.values()[i % 3]);
+            task.setDueDate(now.plusDays(i));
+            task.setAssignedTo(owner);
+            tasks.add(task);
+        }
+
+        PageRequest pageable = PageRequest.of(0, pageSize);
+        entityPage = new PageImpl<>(tasks, pageable, 5_000);
+        responsePage = new PageImpl<>(tasks.stream().map(TaskResponse::from).toList(), pageable, 5_000);
+    }
+
+    @Benchmark
+    public byte[] responsePage() throws Exception {
+        return objectMapper.writeValueAsBytes(responsePage);
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws Exception {
+        return objectMapper.writeValueAsBytes(entityPage);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.smarttaskmanager.benchmarks;
+
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.dto.TaskSlice;
+import org.example.smarttaskmanager.repository.TaskCursor;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.search.TaskSearchEngine;
+import org.example.smarttaskmanager.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task listing paths on a seeded H2 database: one user with {@code tasksPerUser} tasks,
+ * next to other users' data.
+ *
+ * - cachedPage: TaskService.getTasksByUser when the page is cached
+ * - databasePage: the same page straight from the database (what a cache miss costs)
+ * - offsetPageDeep / keysetPageDeep: page {@code deepPage} (row 200,000 by default), offset vs keyset
+ * - keysetFirstPage: first keyset slice
+ * - search: in-memory index search, loading the ranked page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class TaskQueryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"200100"})
+    public int tasksPerUser;
+
+    // Page number of the deep pages; tasksPerUser must reach past it
+    @Param({"10000"})
+    public int deepPage;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TaskSearchEngine searchEngine;
+    private Long userId;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int deepRow = deepPage * PAGE_SIZE;
+        if (deepRow + PAGE_SIZE > tasksPerUser) {
+            throw new IllegalArgumentException("deepPage " + deepPage + " needs more than " + tasksPerUser + " tasks");
+        }
+        context = BenchmarkApp.start("tasks");
+        for (int i = 0; i < 4; i++) {
+            Long other = BenchmarkApp.createUser(context, "other" + i).getId();
+            BenchmarkApp.seedTasks(context, other, 2_000, i);
+        }
+        userId = BenchmarkApp.createUser(context, "bench").getId();
+        BenchmarkApp.seedTasks(context, userId, tasksPerUser, 42);
+
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        searchEngine = context.getBean(TaskSearchEngine.class);
+
+        // Walk to the deep page once to get its cursor
+        String cursor = null;
+        for (int row = 0; row < deepRow; row += 1_000) {
+            int step = Math.min(1_000, deepRow - row);
+            cursor = taskService.scrollTasks(userId, cursor, step, TaskCursor.Sort.UPDATED_AT, null, false)
+                    .getNextCursor();
+        }
+        deepCursor = cursor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<TaskResponse> cachedPage() {
+        return taskService.getTasksByUser(userId, 0, PAGE_SIZE, null, null);
+    }
+
+    @Benchmark
+    public Page<TaskResponse> databasePage() {
+        return taskRepository.findPageByUser(userId, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<TaskResponse> offsetPageDeep() {
+        return taskRepository.findPageByUser(userId, PageRequest.of(deepPage, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public TaskSlice keysetFirstPage() {
+        return taskService.scrollTasks(userId, null, PAGE_SIZE, TaskCursor.Sort.UPDATED_AT, null, false);
+    }
+
+    @Benchmark
+    public TaskSlice keysetPageDeep() {
+        return taskService.scrollTasks(userId, deepCursor, PAGE_SIZE, TaskCursor.Sort.UPDATED_AT, null, false);
+    }
+
+    @Benchmark
+    public Page<TaskResponse> search() {
+        return searchEngine.search(userId, "budget rev", null, false, PageRequest.of(0, PAGE_SIZE));
+    }
+}
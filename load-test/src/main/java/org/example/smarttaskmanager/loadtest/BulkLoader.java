@@ -0,0 +1,178 @@
+package org.example.smarttaskmanager.loadtest;
+
+import org.example.smarttaskmanager.model.Role;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.shard.TaskIds;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+/**
+ * Seeds users and tasks with plain JDBC batches, straight into the tables.
+ *
+ * Going around TaskService is deliberate: the bulk API would also write an outbox row
+ * and evict caches for every task, which is minutes of work for a data set nobody
+ * subscribes to. The PostgreSQL driver folds each batch into one multi-row INSERT
+ * (reWriteBatchedInserts, set in application.properties).
+ *
+ * Task ids come from the application's TaskIds, so seeded ids never collide with ids
+ * it hands out. Seeded users stay on shard 0 (users.shard defaults to it).
+ */
+final class BulkLoader {
+
+    static final String PASSWORD = "load-test-password";
+
+    static final String[] STATUSES = {"OPEN", "OPEN", "IN_PROGRESS", "CLOSED", "CLOSED"};
+    static final String[] PRIORITIES = {"LOW", "MEDIUM", "MEDIUM", "HIGH"};
+
+    private static final String[] WORDS = {
+            "report", "review", "deploy", "invoice", "meeting", "budget", "release", "customer",
+            "design", "backlog", "migration", "security", "audit", "roadmap", "hiring", "support"
+    };
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_USER =
+            "insert into users (username, email, password, token_version) values (?, ?, ?, 0)";
+    private static final String INSERT_ROLE =
+            "insert into user_roles (user_id, role) values (?, ?)";
+    private static final String INSERT_TASK =
+            "insert into tasks (id, title, description, status, priority, due_date, due_notified, assigned_to_id, created_at, updated_at)"
+                    + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TaskIds taskIdGenerator;
+
+    BulkLoader(ConfigurableApplicationContext context) {
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+        this.taskIdGenerator = context.getBean(TaskIds.class);
+    }
+
+    /**
+     * Insert {@code users} users with {@code tasksPerUser} tasks each and return them with
+     * a valid token. Emails carry a run id, so repeated runs on one database don't clash.
+     */
+    List<VirtualUser> load(int users, int tasksPerUser, long seed) {
+        Random random = new Random(seed);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        // One hash for everyone: bcrypt per seeded user would dominate the load time
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        long start = System.nanoTime();
+        Map<String, Long> ids = insertUsers(run, users, passwordHash);
+
+        List<VirtualUser> result = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String email = email(run, i);
+            Long userId = ids.get(email);
+            long[] taskIds = insertTasks(userId, tasksPerUser, random);
+            result.add(new VirtualUser(userId, email, token(userId, email), taskIds));
+
+            if ((i + 1) % 50 == 0 || i == users - 1) {
+                System.out.printf("  seeded %d/%d users%n", i + 1, users);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long rows = (long) users * tasksPerUser;
+        System.out.printf("Loaded %,d tasks for %,d users in %.1f s (%,.0f rows/s)%n",
+                rows, users, seconds, rows / seconds);
+        return result;
+    }
+
+    static String word(RandomGenerator random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    // ================= USERS =================
+
+    private Map<String, Long> insertUsers(String run, int users, String passwordHash) {
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[]{"load-test-" + i, email(run, i), passwordHash});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, rows);
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("select id, email from users where email like ?",
+                rs -> {
+                    ids.put(rs.getString("email"), rs.getLong("id"));
+                },
+                "load-test-" + run + "-%");
+
+        List<Object[]> roles = ids.values().stream()
+                .map(id -> new Object[]{id, Role.ROLE_USER.name()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_ROLE, roles);
+        return ids;
+    }
+
+    private static String email(String run, int i) {
+        return "load-test-" + run + "-" + i + "@load.local";
+    }
+
+    private String token(Long userId, String email) {
+        User user = User.builder()
+                .id(userId)
+                .email(email)
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .build();
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    // ================= TASKS =================
+
+    /**
+     * Spread like real accounts: created over the last half year, mostly open or closed,
+     * a quarter without a due date and some of the rest already overdue.
+     */
+    private long[] insertTasks(Long userId, int count, Random random) {
+        long[] taskIds = new long[count];
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < count; i++) {
+            long id = taskIdGenerator.next();
+            taskIds[i] = id;
+
+            LocalDateTime createdAt = now.minusMinutes(random.nextInt(60 * 24 * 180));
+            LocalDateTime updatedAt = createdAt.plusMinutes(random.nextInt(60 * 24 * 7));
+            LocalDateTime dueDate = random.nextInt(4) == 0 ? null : now.plusHours(random.nextInt(24 * 120) - 24 * 30);
+            batch.add(new Object[]{
+                    id,
+                    word(random) + " " + word(random) + " #" + i,
+                    "Follow up on the " + word(random) + " and the " + word(random) + " with the team",
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    PRIORITIES[random.nextInt(PRIORITIES.length)],
+                    dueDate != null ? Timestamp.valueOf(dueDate) : null,
+                    // Past due dates count as notified, as V9 marks them: no notice burst at start
+                    dueDate != null && dueDate.isBefore(now) ? 2 : 0,
+                    userId,
+                    Timestamp.valueOf(createdAt),
+                    Timestamp.valueOf(updatedAt.isAfter(now) ? now : updatedAt)
+            });
+
+            if (batch.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate(INSERT_TASK, batch);
+                batch.clear();
+            }
+        }
+        return taskIds;
+    }
+}
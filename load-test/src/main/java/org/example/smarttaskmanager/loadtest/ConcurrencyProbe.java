@@ -0,0 +1,154 @@
+package org.example.smarttaskmanager.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop concurrency probe: N clients, each with its own connection, send
+ * GET requests back to back for a fixed time. Prints throughput, p50/p99 latency
+ * and errors for each concurrency level.
+ *
+ * Compare platform threads with virtual threads on the same database:
+ *
+ *   mvn spring-boot:run                       (platform threads, baseline)
+ *   mvn -Pjava21 spring-boot:run              (virtual threads, Java 21)
+ *
+ *   mvn -f load-test/pom.xml package exec:exec@concurrency-probe \
+ *       -Dprobe.email=user@example.com -Dprobe.password=secret -Dprobe.levels=1000,2500,5000,10000
+ *
+ * Against a running application, unlike LoadTest. 10k connections need a matching file
+ * descriptor limit on both sides (ulimit -n 65536).
+ */
+public final class ConcurrencyProbe {
+
+    private static final int MAX_LATENCY_MS = 60_000;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private ConcurrencyProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("usage: ConcurrencyProbe <baseUrl> <email> <password> <path> <c1,c2,...> [seconds]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        String path = args[3];
+        int seconds = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, baseUrl, args[1], args[2]);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        System.out.printf("%-12s %10s %10s %10s %10s %10s%n",
+                "concurrency", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String level : args[4].split(",")) {
+            Result result = run(client, request, Integer.parseInt(level.trim()), seconds);
+            System.out.printf("%-12s %10.0f %10d %10d %10d %10d%n",
+                    level.trim(), result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                    result.maxMs.get(), result.errors.get());
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds)
+            throws InterruptedException {
+        Result result = new Result(seconds);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch stopped = new CountDownLatch(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            loop(client, request, result, running, stopped);
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        stopped.await();
+        return result;
+    }
+
+    // One client: next request as soon as the previous one completes
+    private static void loop(HttpClient client, HttpRequest request, Result result,
+                             AtomicBoolean running, CountDownLatch stopped) {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (running.get()) {
+                        result.record((System.nanoTime() - start) / 1_000_000,
+                                error == null && response.statusCode() < 400);
+                        loop(client, request, result, running, stopped);
+                    } else {
+                        stopped.countDown();
+                    }
+                });
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password)
+            throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = client.send(login, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Latency histogram with 1 ms buckets.
+     */
+    private static class Result {
+
+        final AtomicLongArray buckets = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        final AtomicLong count = new AtomicLong();
+        final int seconds;
+        final AtomicLong maxMs = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        Result(int seconds) {
+            this.seconds = seconds;
+        }
+
+        void record(long latencyMs, boolean ok) {
+            buckets.incrementAndGet((int) Math.min(latencyMs, MAX_LATENCY_MS));
+            count.incrementAndGet();
+            maxMs.accumulateAndGet(latencyMs, Math::max);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        double throughput() {
+            return (double) count.get() / seconds;
+        }
+
+        long percentile(double p) {
+            long rank = (long) Math.ceil(p * count.get());
+            long seen = 0;
+            for (int ms = 0; ms <= MAX_LATENCY_MS; ms++) {
+                seen += buckets.get(ms);
+                if (seen >= rank && rank > 0) {
+                    return ms;
+                }
+            }
+            return 0;
+        }
+    }
+}
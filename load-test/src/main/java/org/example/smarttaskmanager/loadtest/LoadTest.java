@@ -0,0 +1,102 @@
+package org.example.smarttaskmanager.loadtest;
+
+import org.example.smarttaskmanager.SmartTaskManagerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test.
+ *
+ *   LoadTest <load-test.properties> [report.json]
+ *
+ * 1. boots the application on a free port (in-memory H2, or the PostgreSQL in db.url)
+ * 2. bulk-loads seed.users users with seed.tasks-per-user tasks each
+ * 3. runs every traffic profile over real HTTP, warm-up first
+ * 4. prints and writes the report; exits with 1 if an SLO was breached
+ *
+ * Client and server share this JVM (and its CPUs): compare runs on the same machine,
+ * and read absolute numbers as a lower bound of what a dedicated node does.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: LoadTest <load-test.properties> [report.json]");
+            System.exit(2);
+        }
+        LoadTestConfig config = LoadTestConfig.load(Path.of(args[0]));
+        File reportFile = new File(args.length > 1 ? args[1] : "load-test-report.json");
+
+        boolean passed;
+        try (ConfigurableApplicationContext context = start(config)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            System.out.println("Application up at " + baseUrl);
+
+            List<VirtualUser> users = new BulkLoader(context)
+                    .load(config.users(), config.tasksPerUser(), config.randomSeed());
+
+            TrafficDriver driver = new TrafficDriver(baseUrl, users);
+            SloReport report = new SloReport(config::slo);
+            for (TrafficProfile profile : config.profiles()) {
+                report.add(driver.run(profile));
+            }
+
+            report.write(reportFile);
+            passed = report.passed();
+            System.out.println((passed ? "All SLOs met" : "SLO BREACHED") + " → " + reportFile);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Without db.url: in-memory H2 in PostgreSQL mode, schema from the entities (the Flyway
+     * migrations are PostgreSQL-only). With db.url: that database, migrated by Flyway.
+     */
+    static ConfigurableApplicationContext start(LoadTestConfig config) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+
+        if (config.databaseUrl().isEmpty()) {
+            properties.put("spring.datasource.url",
+                    "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create");
+            properties.put("spring.flyway.enabled", "false");
+        } else {
+            properties.put("spring.datasource.url", config.databaseUrl());
+            properties.put("spring.datasource.username", config.databaseUsername());
+            properties.put("spring.datasource.password", config.databasePassword());
+        }
+
+        // Fresh key per run: the tokens are minted in-process and never leave it
+        byte[] key = new byte[64];
+        new SecureRandom().nextBytes(key);
+        properties.put("jwt.secret", Base64.getEncoder().encodeToString(key));
+        properties.put("spring.security.oauth2.client.registration.google.client-id", "load-test");
+        properties.put("spring.security.oauth2.client.registration.google.client-secret", "load-test");
+
+        // Application keys from the config file win
+        properties.putAll(config.applicationProperties());
+
+        // As command-line arguments: they override application.properties (builder defaults would not)
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SmartTaskManagerApplication.class).run(args);
+    }
+}
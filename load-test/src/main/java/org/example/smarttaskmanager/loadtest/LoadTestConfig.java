@@ -0,0 +1,168 @@
+package org.example.smarttaskmanager.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Typed view of load-test.properties (see the file for every key).
+ */
+final class LoadTestConfig {
+
+    // Keys under these prefixes belong to the application
+    private static final List<String> APPLICATION_PREFIXES =
+            List.of("app.", "spring.", "server.", "management.", "jwt.", "logging.");
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestConfig load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    int users() {
+        return getInt("seed.users", 200);
+    }
+
+    int tasksPerUser() {
+        return getInt("seed.tasks-per-user", 2000);
+    }
+
+    long randomSeed() {
+        return Long.parseLong(get("seed.random-seed", "42"));
+    }
+
+    // Empty → in-memory H2
+    String databaseUrl() {
+        return get("db.url", "");
+    }
+
+    String databaseUsername() {
+        return get("db.username", "postgres");
+    }
+
+    String databasePassword() {
+        return get("db.password", "");
+    }
+
+    // stream.* keys: StreamCapacity
+
+    int streamConnections() {
+        return getInt("stream.connections", 10_000);
+    }
+
+    // Opened per second; a burst of handshakes measures the accept queue, not the streams
+    int streamConnectRate() {
+        return getInt("stream.connect-rate", 1_000);
+    }
+
+    int streamWarmupProbes() {
+        return getInt("stream.warmup-probes", 20);
+    }
+
+    int streamProbes() {
+        return getInt("stream.probes", 50);
+    }
+
+    Duration streamProbeInterval() {
+        return getDuration("stream.probe-interval", Duration.ofMillis(200));
+    }
+
+    // Delivery latency bound, ms; 0 → not checked
+    double streamSloP99() {
+        return Double.parseDouble(get("stream.slo.p99", "0"));
+    }
+
+    List<TrafficProfile> profiles() {
+        List<TrafficProfile> profiles = new ArrayList<>();
+        for (String name : get("profiles", "").split(",")) {
+            if (!name.isBlank()) {
+                profiles.add(profile(name.trim()));
+            }
+        }
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("No traffic profiles: set profiles=name,...");
+        }
+        return profiles;
+    }
+
+    // Operation's own SLO, each missing bound taken from slo.default.*
+    Slo slo(Operation operation) {
+        return new Slo(
+                sloBound(operation, "p50"),
+                sloBound(operation, "p99"),
+                sloBound(operation, "p999"),
+                sloBound(operation, "error-rate")
+        );
+    }
+
+    Map<String, String> applicationProperties() {
+        Map<String, String> application = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (APPLICATION_PREFIXES.stream().anyMatch(key::startsWith)) {
+                application.put(key, properties.getProperty(key).trim());
+            }
+        }
+        return application;
+    }
+
+    // ================= HELPERS =================
+
+    private TrafficProfile profile(String name) {
+        String prefix = "profile." + name + ".";
+        String mix = get(prefix + "mix", "");
+        if (mix.isBlank()) {
+            throw new IllegalArgumentException("Profile " + name + " has no mix: set " + prefix + "mix");
+        }
+
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.fromKey(parts[0]), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+
+        return new TrafficProfile(
+                name,
+                weights,
+                getInt(prefix + "concurrency", 16),
+                Double.parseDouble(get(prefix + "rate", "0")),
+                getDuration(prefix + "warmup", Duration.ofSeconds(10)),
+                getDuration(prefix + "duration", Duration.ofSeconds(30))
+        );
+    }
+
+    private double sloBound(Operation operation, String bound) {
+        String value = get("slo." + operation.key() + "." + bound, get("slo.default." + bound, "0"));
+        return Double.parseDouble(value);
+    }
+
+    private String get(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    private int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    private Duration getDuration(String key, Duration defaultValue) {
+        String value = get(key, "");
+        return value.isEmpty() ? defaultValue : DurationStyle.detectAndParse(value);
+    }
+}
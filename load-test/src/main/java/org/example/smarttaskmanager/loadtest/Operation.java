@@ -0,0 +1,113 @@
+package org.example.smarttaskmanager.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * The requests a traffic profile can mix, named as in load-test.properties.
+ * Each one builds a request for a random seeded user, shaped like the Angular client's.
+ */
+enum Operation {
+
+    // First pages of the default list, a third of them filtered by status
+    LIST {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            String status = random.nextInt(3) == 0 ? "&status=" + randomStatus(random) : "";
+            return get(baseUrl + "/api/tasks?page=" + random.nextInt(5) + "&size=20" + status, user);
+        }
+    },
+
+    SEARCH {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            return get(baseUrl + "/api/tasks?size=20&search=" + BulkLoader.word(random), user);
+        }
+    },
+
+    SCROLL {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            return get(baseUrl + "/api/tasks/scroll?size=20", user);
+        }
+    },
+
+    // Dashboard load
+    STATS {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            return get(baseUrl + "/api/tasks/stats", user);
+        }
+    },
+
+    CREATE {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            String body = "{\"title\":\"" + BulkLoader.word(random) + " " + BulkLoader.word(random) + "\","
+                    + "\"description\":\"Created by the load test\","
+                    + "\"priority\":\"" + BulkLoader.PRIORITIES[random.nextInt(BulkLoader.PRIORITIES.length)] + "\","
+                    + "\"dueDate\":\"" + LocalDateTime.now().plusDays(1 + random.nextInt(30)).withNano(0) + "\"}";
+            return json(baseUrl + "/api/tasks", user).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+    },
+
+    // Status change on one of the user's seeded tasks
+    UPDATE {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            long id = user.getTaskIds()[random.nextInt(user.getTaskIds().length)];
+            String body = "{\"status\":\"" + randomStatus(random) + "\"}";
+            return json(baseUrl + "/api/tasks/" + id, user).PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+    },
+
+    // Full bcrypt login (hashing pool, 503 when it is saturated)
+    LOGIN {
+        @Override
+        HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random) {
+            String body = "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + BulkLoader.PASSWORD + "\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    abstract HttpRequest request(String baseUrl, VirtualUser user, RandomGenerator random);
+
+    // Name used in the config and the report
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation fromKey(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+
+    // ================= HELPERS =================
+
+    private static HttpRequest get(String uri, VirtualUser user) {
+        return authorized(uri, user).GET().build();
+    }
+
+    private static HttpRequest.Builder json(String uri, VirtualUser user) {
+        return authorized(uri, user).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.Builder authorized(String uri, VirtualUser user) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + user.getToken());
+    }
+
+    private static String randomStatus(RandomGenerator random) {
+        return BulkLoader.STATUSES[random.nextInt(BulkLoader.STATUSES.length)];
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.smarttaskmanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of one operation during one measured run.
+ * Latencies go to an HdrHistogram in microseconds (3 significant digits, up to 5 min),
+ * so p999 is exact enough without keeping every sample.
+ */
+class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    // "HTTP 503", "HttpTimeoutException", ... → count
+    private final Map<String, LongAdder> errorCauses = new ConcurrentHashMap<>();
+
+    void record(long latencyNanos, String errorCause) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (errorCause != null) {
+            errors.increment();
+            errorCauses.computeIfAbsent(errorCause, cause -> new LongAdder()).increment();
+        }
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double errorRate() {
+        return count() == 0 ? 0 : (double) errors() / count();
+    }
+
+    // Percentile (0..100) in milliseconds
+    double percentileMs(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMs() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+
+    Map<String, LongAdder> errorCauses() {
+        return errorCauses;
+    }
+}
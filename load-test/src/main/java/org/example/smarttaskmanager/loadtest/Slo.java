@@ -0,0 +1,15 @@
+package org.example.smarttaskmanager.loadtest;
+
+import lombok.Value;
+
+/**
+ * Service level objective of one operation. Latencies in milliseconds, 0 = not checked.
+ */
+@Value
+class Slo {
+
+    double p50Ms;
+    double p99Ms;
+    double p999Ms;
+    double maxErrorRate;
+}
@@ -0,0 +1,106 @@
+package org.example.smarttaskmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per-operation throughput, latency percentiles and error rate of every measured
+ * profile, checked against the declared SLOs. Printed as a table and written as JSON
+ * for CI; {@link #passed()} is false if any operation of any profile breached its SLO.
+ */
+class SloReport {
+
+    private final Function<Operation, Slo> slos;
+    private final ObjectNode json = new ObjectMapper().createObjectNode();
+    private final ArrayNode profiles = json.putArray("profiles");
+    private int breaches;
+
+    SloReport(Function<Operation, Slo> slos) {
+        this.slos = slos;
+    }
+
+    void add(TrafficDriver.Result result) {
+        ObjectNode profileJson = profiles.addObject()
+                .put("name", result.getProfile().getName())
+                .put("seconds", result.getSeconds());
+        ObjectNode operationsJson = profileJson.putObject("operations");
+
+        System.out.printf("%n%-10s %10s %9s %9s %9s %9s %9s %8s  %s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "SLO");
+
+        List<String> notes = new ArrayList<>();
+        for (Map.Entry<Operation, OperationStats> entry : result.getStats().entrySet()) {
+            Operation operation = entry.getKey();
+            OperationStats stats = entry.getValue();
+            Slo slo = slos.apply(operation);
+            List<String> breached = check(stats, slo);
+            breaches += breached.size();
+
+            System.out.printf("%-10s %,10d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%  %s%n",
+                    operation.key(), stats.count(), stats.count() / result.getSeconds(),
+                    stats.percentileMs(50), stats.percentileMs(99), stats.percentileMs(99.9), stats.maxMs(),
+                    stats.errorRate() * 100, breached.isEmpty() ? "OK" : "BREACH");
+
+            breached.forEach(breach -> notes.add(operation.key() + ": " + breach));
+            stats.errorCauses().forEach((cause, count) ->
+                    notes.add(operation.key() + ": " + count.sum() + " × " + cause));
+
+            ObjectNode operationJson = operationsJson.putObject(operation.key())
+                    .put("requests", stats.count())
+                    .put("throughput", stats.count() / result.getSeconds())
+                    .put("p50Ms", stats.percentileMs(50))
+                    .put("p99Ms", stats.percentileMs(99))
+                    .put("p999Ms", stats.percentileMs(99.9))
+                    .put("maxMs", stats.maxMs())
+                    .put("errors", stats.errors())
+                    .put("errorRate", stats.errorRate());
+            ObjectNode causesJson = operationJson.putObject("errorCauses");
+            stats.errorCauses().forEach((cause, count) -> causesJson.put(cause, count.sum()));
+            operationJson.putObject("slo")
+                    .put("p50Ms", slo.getP50Ms())
+                    .put("p99Ms", slo.getP99Ms())
+                    .put("p999Ms", slo.getP999Ms())
+                    .put("errorRate", slo.getMaxErrorRate());
+            ArrayNode breachesJson = operationJson.putArray("breaches");
+            breached.forEach(breachesJson::add);
+        }
+        notes.forEach(note -> System.out.println("  " + note));
+        System.out.println();
+    }
+
+    boolean passed() {
+        return breaches == 0;
+    }
+
+    void write(File file) throws IOException {
+        json.put("passed", passed());
+        file.getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, json);
+    }
+
+    // Bounds of 0 are not checked
+    private static List<String> check(OperationStats stats, Slo slo) {
+        List<String> breached = new ArrayList<>();
+        checkLatency(breached, "p50", stats.percentileMs(50), slo.getP50Ms());
+        checkLatency(breached, "p99", stats.percentileMs(99), slo.getP99Ms());
+        checkLatency(breached, "p999", stats.percentileMs(99.9), slo.getP999Ms());
+        if (slo.getMaxErrorRate() > 0 && stats.errorRate() > slo.getMaxErrorRate()) {
+            breached.add(String.format("error rate %.3f%% > %.3f%%", stats.errorRate() * 100, slo.getMaxErrorRate() * 100));
+        }
+        return breached;
+    }
+
+    private static void checkLatency(List<String> breached, String name, double actualMs, double boundMs) {
+        if (boundMs > 0 && actualMs > boundMs) {
+            breached.add(String.format("%s %.2f ms > %.0f ms", name, actualMs, boundMs));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.smarttaskmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Capacity of the task streams (GET /api/tasks/stream).
+ *
+ *   StreamCapacity <stream-capacity.properties> [report.json]
+ *
+ * 1. boots the application and bulk-loads seed.users users with one task each
+ * 2. opens stream.connections streams, spread evenly over the users
+ * 3. measures heap (after GC) and threads before and after: the cost of an idle stream
+ * 4. after stream.warmup-probes, updates stream.probes tasks and times each change until every stream of its owner
+ *    received it (write to delivery)
+ * 5. prints and writes the report; exits with 1 if a stream was refused or dropped, a
+ *    change was not delivered, or stream.slo.p99 was breached
+ *
+ * The clients live in this JVM too, but on one thread and a few hundred bytes each.
+ */
+public final class StreamCapacity {
+
+    private static final Duration SETTLE_TIMEOUT = Duration.ofMinutes(2);
+
+    private StreamCapacity() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: StreamCapacity <stream-capacity.properties> [report.json]");
+            System.exit(2);
+        }
+        LoadTestConfig config = LoadTestConfig.load(Path.of(args[0]));
+        File reportFile = new File(args.length > 1 ? args[1] : "stream-capacity-report.json");
+        int connections = config.streamConnections();
+
+        boolean passed;
+        try (ConfigurableApplicationContext context = LoadTest.start(config)) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            String baseUrl = "http://localhost:" + port;
+            System.out.println("Application up at " + baseUrl);
+
+            List<VirtualUser> users = new BulkLoader(context).load(config.users(), 1, config.randomSeed());
+            int[] streamsPerUser = new int[users.size()];
+
+            Footprint before = Footprint.measure();
+            try (StreamClients clients = new StreamClients("localhost", port)) {
+                // 1️⃣ Open the streams at the configured rate
+                long start = System.nanoTime();
+                long pause = 1_000_000_000L / config.streamConnectRate();
+                for (int i = 0; i < connections; i++) {
+                    int user = i % users.size();
+                    clients.open(users.get(user).getToken());
+                    streamsPerUser[user]++;
+                    sleepUntil(start + (i + 1) * pause);
+                }
+                awaitUntil(() -> clients.opened.get() + clients.rejected.get() >= connections);
+                double openSeconds = (System.nanoTime() - start) / 1e9;
+                Footprint after = Footprint.measure();
+
+                System.out.printf("%nStreams: %,d open, %,d refused in %.1f s%n",
+                        clients.opened.get(), clients.rejected.get(), openSeconds);
+                System.out.printf("Heap:    %,d → %,d KB (%,.1f KB per stream)%n",
+                        before.heapBytes / 1024, after.heapBytes / 1024,
+                        (after.heapBytes - before.heapBytes) / 1024.0 / Math.max(1, clients.opened.get()));
+                System.out.printf("Threads: %d → %d%n", before.threads, after.threads);
+
+                // 2️⃣ Probe: change a task, every stream of its owner must receive it. Warm-up first:
+                //    the first changes run cold code and would be the p99 of a few hundred samples
+                HttpClient http = HttpClient.newHttpClient();
+                long warmupDeliveries = probe(http, baseUrl, users, streamsPerUser, config.streamWarmupProbes(),
+                        config.streamProbeInterval()).expected;
+                awaitUntil(() -> clients.delivered.get() >= warmupDeliveries);
+                clients.delivered.set(0);
+                clients.latencyMicros.reset();
+
+                Probes probes = probe(http, baseUrl, users, streamsPerUser, config.streamProbes(),
+                        config.streamProbeInterval());
+                long expected = probes.expected;
+                int failedProbes = probes.failed;
+                awaitUntil(() -> clients.delivered.get() >= expected);
+
+                double p50 = clients.latencyMicros.getValueAtPercentile(50) / 1000.0;
+                double p99 = clients.latencyMicros.getValueAtPercentile(99) / 1000.0;
+                double max = clients.latencyMicros.getMaxValue() / 1000.0;
+                System.out.printf("Probes:  %d changes, %,d of %,d deliveries, %d failed writes%n",
+                        config.streamProbes(), clients.delivered.get(), expected, failedProbes);
+                double writeP50 = probes.writeMicros.getValueAtPercentile(50) / 1000.0;
+                double writeP99 = probes.writeMicros.getValueAtPercentile(99) / 1000.0;
+                System.out.printf("Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms (the PUT alone: p50 %.2f ms, p99 %.2f ms)%n",
+                        p50, p99, max, writeP50, writeP99);
+                System.out.printf("Dropped: %,d streams ended by the server%n", clients.closed.get());
+
+                double sloP99 = config.streamSloP99();
+                passed = clients.rejected.get() == 0
+                        && clients.closed.get() == 0
+                        && failedProbes == 0
+                        && clients.delivered.get() == expected
+                        && (sloP99 <= 0 || p99 <= sloP99);
+
+                ObjectNode json = new ObjectMapper().createObjectNode();
+                json.putObject("streams")
+                        .put("requested", connections)
+                        .put("opened", clients.opened.get())
+                        .put("refused", clients.rejected.get())
+                        .put("dropped", clients.closed.get())
+                        .put("openSeconds", openSeconds);
+                json.putObject("footprint")
+                        .put("heapBytesBefore", before.heapBytes)
+                        .put("heapBytesAfter", after.heapBytes)
+                        .put("heapBytesPerStream", (after.heapBytes - before.heapBytes) / Math.max(1, clients.opened.get()))
+                        .put("threadsBefore", before.threads)
+                        .put("threadsAfter", after.threads);
+                json.putObject("delivery")
+                        .put("probes", config.streamProbes())
+                        .put("failedProbes", failedProbes)
+                        .put("expected", expected)
+                        .put("delivered", clients.delivered.get())
+                        .put("p50Ms", p50)
+                        .put("p99Ms", p99)
+                        .put("maxMs", max)
+                        .put("writeP50Ms", writeP50)
+                        .put("writeP99Ms", writeP99)
+                        .put("sloP99Ms", sloP99);
+                json.put("passed", passed);
+                new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, json);
+            }
+            System.out.println((passed ? "Stream capacity OK" : "STREAM CAPACITY FAILED") + " → " + reportFile);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    // ================= HELPERS =================
+
+    // Each probe renames the first task of the next user; returns the deliveries to expect
+    private static Probes probe(HttpClient http, String baseUrl, List<VirtualUser> users, int[] streamsPerUser,
+                                int count, Duration interval) throws Exception {
+        Histogram writeMicros = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long expected = 0;
+        int failed = 0;
+        for (int i = 0; i < count; i++) {
+            VirtualUser user = users.get(i % users.size());
+            String body = "{\"title\":\"" + StreamClients.PROBE + System.nanoTime() + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/tasks/" + user.getTaskIds()[0]))
+                    .timeout(Operation.TIMEOUT)
+                    .header("Authorization", "Bearer " + user.getToken())
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                writeMicros.recordValue((System.nanoTime() - start) / 1_000);
+                expected += streamsPerUser[i % users.size()];
+            } else {
+                failed++;
+            }
+            Thread.sleep(interval.toMillis());
+        }
+        return new Probes(expected, failed, writeMicros);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + SETTLE_TIMEOUT.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long wait = nanoTime - System.nanoTime();
+        if (wait > 0) {
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        }
+    }
+
+    private record Probes(long expected, int failed, Histogram writeMicros) {
+    }
+
+    /**
+     * Live heap and thread count at one point in time.
+     */
+    private record Footprint(long heapBytes, int threads) {
+
+        static Footprint measure() throws InterruptedException {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            // A few rounds: what the streams hold survives, garbage of the set-up does not
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+                Thread.sleep(200);
+            }
+            return new Footprint(memory.getHeapMemoryUsage().getUsed(), ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.smarttaskmanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many GET /api/tasks/stream connections on one selector thread.
+ *
+ * A connection costs the client a socket and a few hundred bytes of heap (no thread, no
+ * HTTP client state), so what the harness measures is mostly the server's share.
+ * The bytes are only scanned for what the harness needs: the status line, the "sync"
+ * event, and probe titles ("probe-<nanoTime>") whose delivery latency is recorded.
+ */
+final class StreamClients implements Closeable {
+
+    static final String PROBE = "probe-";
+
+    private final InetSocketAddress address;
+    private final Selector selector;
+    private final Thread loop;
+    private final Queue<Connection> toRegister = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    final AtomicInteger opened = new AtomicInteger();     // got the "sync" event
+    final AtomicInteger rejected = new AtomicInteger();   // non-200 answer or connect failure
+    final AtomicInteger closed = new AtomicInteger();     // ended by the server after opening
+    final AtomicLong delivered = new AtomicLong();
+    final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+
+    private volatile boolean running = true;
+
+    StreamClients(String host, int port) throws IOException {
+        this.address = new InetSocketAddress(host, port);
+        this.selector = Selector.open();
+        this.loop = new Thread(this::run, "stream-clients");
+        this.loop.setDaemon(true);
+        this.loop.start();
+    }
+
+    void open(String token) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(address);
+        String request = "GET /api/tasks/stream HTTP/1.1\r\n"
+                + "Host: " + address.getHostString() + ":" + address.getPort() + "\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + "Accept: text/event-stream\r\n\r\n";
+        toRegister.add(new Connection(channel, ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII))));
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    // ================= SELECTOR LOOP =================
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(100);
+                Connection connection;
+                while ((connection = toRegister.poll()) != null) {
+                    connection.channel.register(selector, SelectionKey.OP_CONNECT, connection);
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handle(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Stream client loop failed", e);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isConnectable()) {
+                connection.channel.finishConnect();
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (key.isWritable()) {
+                connection.channel.write(connection.request);
+                if (!connection.request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } else if (key.isReadable()) {
+                readBuffer.clear();
+                int read = connection.channel.read(readBuffer);
+                if (read < 0) {
+                    end(key, connection);
+                    return;
+                }
+                readBuffer.flip();
+                connection.receive(StandardCharsets.ISO_8859_1.decode(readBuffer).toString());
+            }
+        } catch (IOException e) {
+            end(key, connection);
+        }
+    }
+
+    private void end(SelectionKey key, Connection connection) {
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+        if (connection.open) {
+            closed.incrementAndGet();
+        } else if (!connection.rejected) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * One stream; only the selector thread touches it.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer request;
+        private boolean statusSeen;
+        private boolean open;
+        private boolean rejected;
+        // End of the previous read: a marker can be split across two reads
+        private String tail = "";
+
+        Connection(SocketChannel channel, ByteBuffer request) {
+            this.channel = channel;
+            this.request = request;
+        }
+
+        void receive(String chunk) {
+            long now = System.nanoTime();
+            String text = tail + chunk;
+
+            if (!statusSeen && text.startsWith("HTTP/1.1 ")) {
+                statusSeen = true;
+                if (!text.startsWith("HTTP/1.1 200")) {
+                    rejected = true;
+                    StreamClients.this.rejected.incrementAndGet();
+                }
+            }
+            if (!open && !rejected && text.contains("event:sync")) {
+                open = true;
+                opened.incrementAndGet();
+            }
+
+            int from = tail.length() > PROBE.length() ? tail.length() - PROBE.length() : 0;
+            int at;
+            while ((at = text.indexOf(PROBE, from)) >= 0) {
+                int end = at + PROBE.length();
+                while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                    end++;
+                }
+                if (end == text.length()) {
+                    break; // number may continue in the next read
+                }
+                long sentAt = Long.parseLong(text.substring(at + PROBE.length(), end));
+                latencyMicros.recordValue(Math.max(0, (now - sentAt) / 1_000));
+                delivered.incrementAndGet();
+                from = end;
+            }
+
+            int keep = Math.min(text.length() - from, 64);
+            tail = text.substring(text.length() - keep);
+        }
+    }
+}
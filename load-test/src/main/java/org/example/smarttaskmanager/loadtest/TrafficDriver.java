@@ -0,0 +1,170 @@
+package org.example.smarttaskmanager.loadtest;
+
+import lombok.Value;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives one traffic profile against the running application: a warm-up whose numbers
+ * are thrown away, then the measured run.
+ *
+ * Closed loop: {@code concurrency} clients, each sending its next request as soon as the
+ * previous one completes. Shows capacity, but a slow server also slows the clients down.
+ * Open loop: requests are due at a fixed rate whatever the server does, and latency is
+ * counted from the time a request was due. If the server stalls, the requests queued
+ * behind the stall are charged for it instead of never being sent.
+ */
+class TrafficDriver {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<VirtualUser> users;
+
+    TrafficDriver(String baseUrl, List<VirtualUser> users) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl;
+        this.users = users;
+    }
+
+    Result run(TrafficProfile profile) throws InterruptedException {
+        System.out.printf("Profile %s: %s, %s, warm-up %ds, measured %ds%n",
+                profile.getName(), profile.getMix(),
+                profile.isOpenLoop()
+                        ? String.format("open loop %.0f req/s (max %d in flight)", profile.getRate(), profile.getConcurrency())
+                        : "closed loop " + profile.getConcurrency() + " clients",
+                profile.getWarmup().toSeconds(), profile.getDuration().toSeconds());
+
+        drive(profile, profile.getWarmup(), newStats(profile));
+
+        Map<Operation, OperationStats> stats = newStats(profile);
+        long start = System.nanoTime();
+        drive(profile, profile.getDuration(), stats);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(profile, seconds, stats);
+    }
+
+    private void drive(TrafficProfile profile, Duration length, Map<Operation, OperationStats> stats)
+            throws InterruptedException {
+        if (length.isZero()) {
+            return;
+        }
+        if (profile.isOpenLoop()) {
+            openLoop(profile, length, stats);
+        } else {
+            closedLoop(profile, length, stats);
+        }
+    }
+
+    // ================= CLOSED LOOP =================
+
+    private void closedLoop(TrafficProfile profile, Duration length, Map<Operation, OperationStats> stats)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch stopped = new CountDownLatch(profile.getConcurrency());
+
+        for (int i = 0; i < profile.getConcurrency(); i++) {
+            loop(profile, stats, running, stopped);
+        }
+        Thread.sleep(length.toMillis());
+        running.set(false);
+        stopped.await();
+    }
+
+    // One client: next request as soon as the previous one completes
+    private void loop(TrafficProfile profile, Map<Operation, OperationStats> stats,
+                      AtomicBoolean running, CountDownLatch stopped) {
+        if (!running.get()) {
+            stopped.countDown();
+            return;
+        }
+        send(profile, stats, System.nanoTime())
+                .whenComplete((ignored, error) -> loop(profile, stats, running, stopped));
+    }
+
+    // ================= OPEN LOOP =================
+
+    private void openLoop(TrafficProfile profile, Duration length, Map<Operation, OperationStats> stats)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(profile.getConcurrency());
+        long intervalNanos = (long) (1_000_000_000L / profile.getRate());
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocks when the server holds every slot; the wait still counts for this request
+            inFlight.acquire();
+            send(profile, stats, due).whenComplete((ignored, error) -> inFlight.release());
+        }
+
+        // Wait for the stragglers
+        inFlight.acquire(profile.getConcurrency());
+    }
+
+    // ================= REQUESTS =================
+
+    /**
+     * Send one request of a random operation for a random user and record it.
+     * Latency runs from {@code dueNanos} to the last byte of the response.
+     */
+    private CompletableFuture<Void> send(TrafficProfile profile, Map<Operation, OperationStats> stats, long dueNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = profile.nextOperation(random);
+        VirtualUser user = users.get(random.nextInt(users.size()));
+        HttpRequest request = operation.request(baseUrl, user, random);
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    stats.get(operation).record(System.nanoTime() - dueNanos, errorCause(response, error));
+                    return null;
+                });
+    }
+
+    private static String errorCause(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return cause.getClass().getSimpleName();
+        }
+        return response.statusCode() >= 400 ? "HTTP " + response.statusCode() : null;
+    }
+
+    private static Map<Operation, OperationStats> newStats(TrafficProfile profile) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        profile.getMix().keySet().forEach(operation -> stats.put(operation, new OperationStats()));
+        return stats;
+    }
+
+    /**
+     * Measured run of one profile.
+     */
+    @Value
+    static class Result {
+
+        TrafficProfile profile;
+        double seconds;
+        Map<Operation, OperationStats> stats;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.smarttaskmanager.loadtest;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * One traffic profile from load-test.properties: which operations, how often, how hard.
+ * rate = 0 is a closed loop ({@code concurrency} clients back to back); rate > 0 is an
+ * open loop at that many requests per second with at most {@code concurrency} in flight.
+ */
+@Value
+class TrafficProfile {
+
+    String name;
+    Map<Operation, Integer> mix;     // operation → weight
+    int concurrency;
+    double rate;                     // requests/s, 0 = closed loop
+    Duration warmup;
+    Duration duration;
+
+    boolean isOpenLoop() {
+        return rate > 0;
+    }
+
+    // Weighted pick
+    Operation nextOperation(RandomGenerator random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix in profile " + name);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.smarttaskmanager.loadtest;
+
+import lombok.Value;
+
+/**
+ * A seeded user as seen by the traffic driver: credentials, a valid JWT and the ids of
+ * the tasks loaded for it (update targets).
+ */
+@Value
+class VirtualUser {
+
+    Long id;
+    String email;
+    String token;
+    long[] taskIds;
+}
@@ -0,0 +1,34 @@
+package org.example.smarttaskmanager.config;
+
+import org.example.smarttaskmanager.service.TaskListVersions;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache setup.
+ * The cache manager itself (Caffeine or Redis, sizes, TTL, stats) comes from spring.cache.* properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Key for TaskService.getTasksByUser(userId, page, size, search, status).
+     * It embeds the user's current list version: a mutation bumps the version,
+     * so all of that user's cached pages stop matching at once and age out.
+     */
+    @Bean
+    public KeyGenerator taskPageKeyGenerator(TaskListVersions taskListVersions) {
+        return (target, method, params) -> {
+            Long userId = (Long) params[0];
+            return "u" + userId
+                    + ":v" + taskListVersions.current(userId)
+                    + ":p" + params[1]
+                    + ":s" + params[2]
+                    + ":q" + params[3]
+                    + ":st" + params[4];
+        };
+    }
+}
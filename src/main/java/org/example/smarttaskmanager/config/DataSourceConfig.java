@@ -0,0 +1,141 @@
+package org.example.smarttaskmanager.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.smarttaskmanager.shard.ShardRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas (app.datasource.replicas.enabled=true): the application's DataSource
+ * becomes the primary plus app.datasource.replicas.urls, routed by ReplicaRoutingDataSource.
+ * Task shards (app.shards.enabled=true): that DataSource is shard 0, the home database, and
+ * app.shards.urls are shards 1..N, routed by ShardRoutingDataSource. Replicas serve the home
+ * database only.
+ * The primary is still configured with spring.datasource.* (pool: spring.datasource.hikari.*);
+ * replica and shard pools copy its settings, with their own credentials when they are set.
+ * Without either property Spring Boot's single DataSource is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.replicas.enabled:false} or ${app.shards.enabled:false}")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replicas.urls}") List<String> urls,
+            @Value("${app.datasource.replicas.username:}") String username,
+            @Value("${app.datasource.replicas.password:}") String password,
+            @Value("${app.datasource.replicas.lag-query:" + ReplicaRoutingDataSource.POSTGRES_LAG_QUERY + "}") String lagQuery,
+            @Value("${app.datasource.replicas.max-lag:2s}") Duration maxLag,
+            @Value("${app.datasource.replicas.sticky-window:5s}") Duration stickyWindow,
+            @Value("${app.datasource.replicas.check-interval-ms:1000}") long checkIntervalMs
+    ) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("app.datasource.replicas.enabled=true but app.datasource.replicas.urls is empty");
+        }
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariConfig config = poolConfig(primaryDataSource, properties, meterRegistry,
+                    name, urls.get(i), username, password);
+            config.setReadOnly(true);
+
+            // Started on first use: a replica that is down keeps the application from nothing
+            HikariDataSource pool = new HikariDataSource();
+            config.copyStateTo(pool);
+            replicas.put(name, pool);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, meterRegistry,
+                lagQuery, maxLag, stickyWindow, Duration.ofMillis(checkIntervalMs));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.shards.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${app.shards.urls}") List<String> urls,
+            @Value("${app.shards.username:}") String username,
+            @Value("${app.shards.password:}") String password
+    ) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("app.shards.enabled=true but app.shards.urls is empty");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(home(primaryDataSource, replicaRoutingDataSource));
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = poolConfig(primaryDataSource, properties, meterRegistry,
+                    "shard-" + (i + 1), urls.get(i), username, password);
+            shards.add(new HikariDataSource(config));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * The DataSource everything uses (JPA, JdbcTemplate, Flyway). Connections are fetched on
+     * the first statement, once the transaction is known to be read-only or not and bound to
+     * its shard.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                 ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) {
+        DataSource shards = shardRoutingDataSource.getIfAvailable();
+        return new LazyConnectionDataSourceProxy(shards != null ? shards : home(primaryDataSource, replicaRoutingDataSource));
+    }
+
+    // ================= HELPERS =================
+
+    // The home database, behind its replicas when there are any
+    private static DataSource home(HikariDataSource primaryDataSource,
+                                   ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        DataSource replicas = replicaRoutingDataSource.getIfAvailable();
+        return replicas != null ? replicas : primaryDataSource;
+    }
+
+    // The primary's pool settings, another database
+    private static HikariConfig poolConfig(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                           MeterRegistry meterRegistry, String name, String url,
+                                           String username, String password) {
+        HikariConfig config = new HikariConfig();
+        primaryDataSource.copyStateTo(config);
+        config.setPoolName(name);
+        config.setJdbcUrl(url.trim());
+        config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return config;
+    }
+}
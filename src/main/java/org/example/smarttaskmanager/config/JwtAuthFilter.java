@@ -4,24 +4,38 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.example.smarttaskmanager.security.CustomUserDetailsService;
+import org.example.smarttaskmanager.security.JwtClaims;
 import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.security.TokenVersionRegistry;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import java.util.Optional;
+
 /**
  * Custom JWT Authentication Filter
  * Runs **once per request** to validate JWT token if present in the Authorization header
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor // Lombok: generates constructor for final fields
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;      // Handles JWT creation & validation
     private final CustomUserDetailsService userDetailsService; // Loads user details from DB
+    private final TokenVersionRegistry tokenVersionRegistry;   // Latest known token version per user
+
+    // Opt-in: authenticate from JWT claims only, without a per-request user lookup
+    @Value("${jwt.stateless-auth:false}")
+    private boolean statelessAuth;
 
     @Override
     protected void doFilterInternal(
@@ -44,23 +58,69 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7); // Remove "Bearer " prefix
 
-            // 3️⃣ Validate the token
-            if (jwtTokenProvider.validateToken(token)) {
+            // 3️⃣ Verify the token once (signature + expiry) and read its claims
+            Optional<JwtClaims> claims = jwtTokenProvider.parseToken(token);
 
-                // 4️⃣ Extract username from JWT
-                String username = jwtTokenProvider.getEmailFromToken(token);
+            if (claims.isPresent()) {
 
-                // 5️⃣ Load full user details from database
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                System.out.println("Authorities: " + userDetails.getAuthorities());
-                // 6️⃣ Create an Authentication object and set it in SecurityContext
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                // 4️⃣ Build the principal (from the token alone, or from the database)
+                UserDetails userDetails = resolvePrincipal(claims.get());
+
+                if (userDetails != null) {
+                    log.debug("Authenticated {} with authorities {}", userDetails.getUsername(), userDetails.getAuthorities());
+                    // 5️⃣ Create an Authentication object and set it in SecurityContext
+                    UsernamePasswordAuthenticationToken auth =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
             }
         }
 
-        // 7️⃣ Continue the filter chain
+        // 6️⃣ Continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * In stateless mode a token whose version this node saw current within
+     * jwt.version-recheck is trusted as-is: subject, roles and user id come from
+     * its claims and no query is made.
+     * Otherwise (stateless mode off, token without user id, or a possibly stale
+     * version) the user is loaded from the database and the version re-checked.
+     *
+     * @return the principal, or null if the token has been revoked
+     */
+    private UserDetails resolvePrincipal(JwtClaims claims) {
+
+        if (statelessAuth
+                && claims.getUserId() != null
+                && tokenVersionRegistry.isCurrent(claims.getUserId(), claims.getTokenVersion())) {
+            return UserPrincipal.fromClaims(claims);
+        }
+
+        UserPrincipal principal = loadPrincipal(claims);
+        tokenVersionRegistry.record(principal.getId(), principal.getTokenVersion());
+
+        // Tokens carrying a user id also carry a version; older ones are revoked
+        // (also when this node saw a revocation a lagging replica does not have yet)
+        if (claims.getUserId() != null && !tokenVersionRegistry.isCurrent(principal.getId(), claims.getTokenVersion())) {
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * The user as a replica sees it, or as the primary does when the replica is behind:
+     * it does not know the user yet, or the token is newer than its copy.
+     */
+    private UserPrincipal loadPrincipal(JwtClaims claims) {
+        try {
+            UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsername(claims.getSubject());
+            if (claims.getUserId() == null || claims.getTokenVersion() <= principal.getTokenVersion()) {
+                return principal;
+            }
+        } catch (UsernameNotFoundException e) {
+            // maybe not replicated yet
+        }
+        return (UserPrincipal) userDetailsService.loadUserFromPrimary(claims.getSubject());
+    }
 }
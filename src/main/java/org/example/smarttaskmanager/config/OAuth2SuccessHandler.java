@@ -6,6 +6,9 @@ import org.example.smarttaskmanager.model.Role;
 import org.example.smarttaskmanager.model.User;
 import org.example.smarttaskmanager.repository.UserRepository;
 import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.security.LastLoginBuffer;
+import org.example.smarttaskmanager.service.UserService;
+import org.example.smarttaskmanager.shard.TaskShards;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -13,17 +16,28 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.Set;
 
 @Component
 public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
     private final UserRepository userRepository;
+    private final UserService userService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TaskShards taskShards;
+    private final LastLoginBuffer lastLogins;
 
-    public OAuth2SuccessHandler(UserRepository userRepository, JwtTokenProvider jwtTokenProvider) {
+    public OAuth2SuccessHandler(UserRepository userRepository,
+                                UserService userService,
+                                JwtTokenProvider jwtTokenProvider,
+                                TaskShards taskShards,
+                                LastLoginBuffer lastLogins) {
         this.userRepository = userRepository;
+        this.userService = userService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.taskShards = taskShards;
+        this.lastLogins = lastLogins;
     }
 
     @Override
@@ -36,23 +50,15 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
         String email = oAuth2User.getAttribute("email");
         String name = oAuth2User.getAttribute("name");
 
-        // Find existing user or create new one
-        User user = userRepository.findByEmail(email).orElseGet(() -> {
-            User newUser = new User();
-            newUser.setEmail(email);
-            newUser.setUsername(name != null ? name : email.split("@")[0]);
-            newUser.setPassword(""); // empty → must set password
-            newUser.setRoles(Set.of(Role.ROLE_USER)); // keep Role type
-            newUser.setLastLogin(LocalDateTime.now());
-            return userRepository.save(newUser);
-        });
-
-        // Capture previous login before updating
-        LocalDateTime previousLastLogin = user.getLastLogin();
-
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // Existing user: record the login (written behind), keep the previous one.
+        // New user: created with this login as the last one, there is no previous
+        User user = userService.findByEmailOnPrimary(email).orElse(null);
+        LocalDateTime previousLastLogin = null;
+        if (user != null) {
+            previousLastLogin = lastLogins.record(user);
+        } else {
+            user = createUser(email, name);
+        }
 
         // Redirect to set-password page if password is empty
         if (user.getPassword() == null || user.getPassword().isEmpty()) {
@@ -63,7 +69,7 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
         }
 
         // Generate JWT token
-        String token = jwtTokenProvider.generateToken(user.getEmail(), user.getRoles());
+        String token = jwtTokenProvider.generateToken(user);
 
         // Redirect to Angular frontend with token
         String redirectUrl = String.format(
@@ -75,4 +81,17 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
         response.sendRedirect(redirectUrl);
     }
+
+    private User createUser(String email, String name) {
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setUsername(name != null ? name : email.split("@")[0]);
+        newUser.setPassword(""); // empty → must set password
+        newUser.setRoles(new HashSet<>(Set.of(Role.ROLE_USER))); // mutable: Hibernate replaces it on merge
+        newUser.setLastLogin(LocalDateTime.now());
+        User saved = userRepository.save(newUser);
+        // The shard of the user's tasks hashes the id, known only now
+        saved.setShard(taskShards.place(saved.getId()));
+        return saved.getShard() != 0 ? userRepository.save(saved) : saved;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.example.smarttaskmanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.smarttaskmanager.event.AmqpTaskEventSink;
+import org.example.smarttaskmanager.event.InMemoryTaskEventSink;
+import org.example.smarttaskmanager.event.TaskEventSink;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Picks the sink the outbox relay delivers task events to.
+ * app.outbox.sink = auto (default) | amqp | memory
+ * "auto" uses RabbitMQ when it is configured (RabbitAutoConfiguration not excluded),
+ * and in-process listeners otherwise.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    public TaskEventSink taskEventSink(
+            ObjectProvider<RabbitTemplate> rabbitTemplate,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.outbox.sink:auto}") String sink,
+            @Value("${app.outbox.amqp.queue:task_notifications}") String queue,
+            @Value("${app.outbox.amqp.confirm-timeout-ms:5000}") long confirmTimeoutMs
+    ) {
+        RabbitTemplate template = rabbitTemplate.getIfAvailable();
+
+        boolean amqp = switch (sink) {
+            case "amqp" -> true;
+            case "memory" -> false;
+            default -> template != null;
+        };
+        if (amqp && template == null) {
+            throw new IllegalStateException("app.outbox.sink=amqp but RabbitMQ is not configured");
+        }
+
+        return amqp
+                ? new AmqpTaskEventSink(template, objectMapper, queue, confirmTimeoutMs)
+                : new InMemoryTaskEventSink(eventPublisher);
+    }
+}
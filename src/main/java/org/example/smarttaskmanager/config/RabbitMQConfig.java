@@ -1,13 +1,16 @@
-//package org.example.smarttaskmanager.config;
-//
-//import org.springframework.amqp.core.Queue;
-//import org.springframework.context.annotation.Bean;
-//import org.springframework.context.annotation.Configuration;
-//
-//@Configuration
-//public class RabbitMQConfig {
-//    @Bean
-//    public Queue taskQueue() {
-//        return new Queue("task_notifications", false);
-//    }
-//}
+package org.example.smarttaskmanager.config;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    // Durable: the outbox only deletes an event once the broker confirmed it
+    @Bean
+    public Queue taskQueue(@Value("${app.outbox.amqp.queue:task_notifications}") String queue) {
+        return new Queue(queue, true);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.smarttaskmanager.config;
+
+import org.example.smarttaskmanager.security.LocalRateLimiter;
+import org.example.smarttaskmanager.security.RateLimiter;
+import org.example.smarttaskmanager.security.RedisRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Picks where the rate-limit buckets live.
+ * app.ratelimit.backend = memory (default, per node) | redis (shared by all nodes)
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            @Value("${app.ratelimit.backend:memory}") String backend,
+            @Value("${app.ratelimit.max-buckets:100000}") long maxBuckets,
+            @Value("${app.ratelimit.redis.key-prefix:smart-task-manager:ratelimit:}") String keyPrefix
+    ) {
+        // A bucket idle this long is full again anyway
+        LocalRateLimiter local = new LocalRateLimiter(maxBuckets, Duration.ofMinutes(10));
+
+        if (!"redis".equals(backend)) {
+            return local;
+        }
+        return new RedisRateLimiter(redisTemplate.getObject(), keyPrefix, local);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.smarttaskmanager.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.smarttaskmanager.security.RateLimitRule;
+import org.example.smarttaskmanager.security.RateLimiter;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rate limiting, right after JwtAuthFilter.
+ *
+ * - /api/auth/**: per client IP (login / register brute force)
+ * - authenticated calls: per user id
+ * - anything else: per client IP, with the user limits
+ * - then one global bucket for the whole node (or cluster, with the Redis backend); a request
+ *   it rejects gets its token of the caller's bucket back
+ *
+ * Over the limit → 429 with Retry-After (seconds).
+ * Counted in the "ratelimit.requests" metric, tagged with rule and outcome.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final Rule user;
+    private final Rule auth;
+    private final Rule global;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${app.ratelimit.enabled:true}") boolean enabled,
+            @Value("${app.ratelimit.user.capacity:100}") long userCapacity,
+            @Value("${app.ratelimit.user.refill-per-second:50}") double userRefill,
+            @Value("${app.ratelimit.auth.capacity:10}") long authCapacity,
+            @Value("${app.ratelimit.auth.refill-per-second:1}") double authRefill,
+            @Value("${app.ratelimit.global.capacity:2000}") long globalCapacity,
+            @Value("${app.ratelimit.global.refill-per-second:1000}") double globalRefill
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.user = new Rule(new RateLimitRule("user", userCapacity, userRefill), meterRegistry);
+        this.auth = new Rule(new RateLimitRule("auth", authCapacity, authRefill), meterRegistry);
+        this.global = new Rule(new RateLimitRule("global", globalCapacity, globalRefill), meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Rule caller;
+        String key;
+        if (request.getServletPath().startsWith("/api/auth/")) {
+            caller = auth;
+            key = "auth:" + request.getRemoteAddr();
+        } else {
+            Long userId = currentUserId();
+            caller = user;
+            key = userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+        }
+
+        // The caller's bucket first: a caller over its own limit takes nothing from the others
+        long waitNanos = caller.check(rateLimiter, key);
+        if (waitNanos == 0) {
+            waitNanos = global.check(rateLimiter, "global");
+            if (waitNanos > 0) {
+                caller.release(rateLimiter, key); // not let through: no token of the caller's spent
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // ================= HELPERS =================
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UserPrincipal principal
+                ? principal.getId()
+                : null;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write("Too many requests, retry in " + retryAfterSeconds + "s");
+    }
+
+    /**
+     * A rule with its counters, registered once (no meter lookup per request).
+     */
+    private static class Rule {
+
+        private final RateLimitRule rule;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        Rule(RateLimitRule rule, MeterRegistry meterRegistry) {
+            this.rule = rule;
+            this.allowed = Counter.builder("ratelimit.requests")
+                    .tag("rule", rule.getName())
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("ratelimit.requests")
+                    .tag("rule", rule.getName())
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry);
+        }
+
+        long check(RateLimiter rateLimiter, String key) {
+            long waitNanos = rateLimiter.tryAcquire(key, rule);
+            (waitNanos == 0 ? allowed : rejected).increment();
+            return waitNanos;
+        }
+
+        void release(RateLimiter rateLimiter, String key) {
+            rateLimiter.release(key, rule);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.smarttaskmanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only transactions on a replica, everything else on the primary.
+ *
+ * - Read-only: @Transactional(readOnly = true), and Spring Data's read-only repository
+ *   methods called outside a transaction. The choice is made when the transaction's first
+ *   statement fetches a connection, so this sits behind a LazyConnectionDataSourceProxy
+ *   (see DataSourceConfig). Replicas take turns.
+ * - Read-your-writes: once a task change of a user commits on this node, that user's reads
+ *   stay on the primary for sticky-window. Keep it above max-lag + check interval: by the
+ *   time a user leaves the primary, a replica still in use has the change. Pins are per
+ *   node; without session affinity another node may serve up to max-lag old data.
+ * - Lag: each replica runs lag-query every check interval. Past max-lag, or failing, it
+ *   gets no reads until it is back; with none left reads go to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    // Replay lag as the standby sees it; 0 when it has replayed all it received
+    static final String POSTGRES_LAG_QUERY = """
+            select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end
+            """;
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final int queryTimeoutSeconds;
+    private final Cache<Long, Boolean> pinnedUsers;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    Map<String, DataSource> replicas,
+                                    MeterRegistry meterRegistry,
+                                    String lagQuery,
+                                    Duration maxLag,
+                                    Duration stickyWindow,
+                                    Duration checkInterval) {
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.queryTimeoutSeconds = (int) Math.max(1, checkInterval.toSeconds());
+        this.pinnedUsers = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        if (stickyWindow.compareTo(maxLag.plus(checkInterval)) < 0) {
+            log.warn("sticky-window {} is below max-lag + check interval ({}): users may not read their own writes",
+                    stickyWindow, maxLag.plus(checkInterval));
+        }
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the replica, NaN when it cannot be checked")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.primaryReads = readCounter(meterRegistry, PRIMARY);
+        this.replicaReads = readCounter(meterRegistry, "replica");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Long userId = currentUserId();
+        Replica replica = userId != null && pinnedUsers.getIfPresent(userId) != null ? null : pick();
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.name;
+    }
+
+    // After commit: the user reads the primary until the replicas have the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        pinnedUsers.put(event.getUserId(), Boolean.TRUE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            double lag;
+            String failure = null;
+            try {
+                lag = lagSeconds(replica.dataSource);
+            } catch (SQLException e) {
+                lag = Double.NaN;
+                failure = e.getMessage();
+            }
+            boolean healthy = lag <= maxLagSeconds; // false for NaN
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} in use (lag {}s)", replica.name, lag);
+                } else {
+                    log.warn("Replica {} out of use: {}", replica.name,
+                            failure != null ? failure : "lag " + lag + "s over " + maxLagSeconds + "s");
+                }
+            }
+            replica.lagSeconds = lag;
+            replica.healthy = healthy;
+        }
+    }
+
+    // Spring calls it on shutdown (inferred destroy method); the primary pool is a bean of its own
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private Replica pick() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private double lagSeconds(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet result = statement.executeQuery(lagQuery)) {
+                return result.next() ? result.getDouble(1) : 0; // NULL: not a standby, nothing to replay
+            }
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UserPrincipal principal ? principal.getId() : null;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("db.reads")
+                .description("Read-only transactions by the database they ran on")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * One replica pool and its last check; unused until the first check passes.
+     */
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile double lagSeconds = Double.NaN;
+        private volatile boolean healthy;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
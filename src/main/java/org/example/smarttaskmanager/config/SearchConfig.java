@@ -0,0 +1,48 @@
+package org.example.smarttaskmanager.config;
+
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.search.InMemoryTaskSearchEngine;
+import org.example.smarttaskmanager.search.PostgresTaskSearchEngine;
+import org.example.smarttaskmanager.search.TaskSearchEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Picks the task search engine.
+ * app.search.engine = auto (default) | postgres | memory
+ * "auto" uses the indexed PostgreSQL search when the database is PostgreSQL,
+ * and the in-process inverted index otherwise.
+ */
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public TaskSearchEngine taskSearchEngine(
+            TaskRepository taskRepository,
+            DataSource dataSource,
+            @Value("${app.search.engine:auto}") String engine,
+            @Value("${app.search.memory.max-users:1000}") long maxIndexedUsers
+    ) throws SQLException {
+
+        boolean postgres = switch (engine) {
+            case "postgres" -> true;
+            case "memory" -> false;
+            default -> isPostgres(dataSource);
+        };
+
+        return postgres
+                ? new PostgresTaskSearchEngine(taskRepository)
+                : new InMemoryTaskSearchEngine(taskRepository, maxIndexedUsers);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package org.example.smarttaskmanager.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.example.smarttaskmanager.security.CustomUserDetailsService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
@@ -18,6 +22,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -35,9 +42,19 @@ public class SecurityConfig {
     // Custom JWT filter that validates JWT on every request
     private final JwtAuthFilter jwtAuthFilter;
 
+    // Token-bucket rate limiting per user / IP (runs after the JWT filter)
+    private final RateLimitFilter rateLimitFilter;
+
     // Custom handler that runs after successful Google login
     private final OAuth2SuccessHandler oAuth2SuccessHandler;
 
+    // Ports the application listens on (local.management.port: the separate actuator port)
+    private final Environment environment;
+
+    // bcrypt cost factor; existing hashes with another cost are re-hashed on login
+    @Value("${app.auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     /**
      * Password encoder bean
      * Used to hash passwords when users register
@@ -45,7 +62,7 @@ public class SecurityConfig {
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     /**
@@ -81,13 +98,28 @@ public class SecurityConfig {
 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of an async request (task streams, exports, async logins):
+                        // the original request was authorized, the JWT filter does not run again
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Allow Google OAuth2 endpoints
                         .requestMatchers(
                                 "/oauth2/**",
                                 "/login/**",
-                                "/api/auth/**" // manual login/register endpoints
+                                "/api/auth/**", // manual login/register endpoints
+                                "/error"        // error responses (400/404/...) must not redirect to login
                         ).permitAll()
 
+                        // Probes carry no JWT
+                        .requestMatchers("/actuator/health").permitAll()
+
+                        // Neither does the Prometheus scraper: anonymous on the internal management port only
+                        .requestMatchers(new AndRequestMatcher(
+                                onManagementPort(), new AntPathRequestMatcher("/actuator/prometheus"))).permitAll()
+
+                        // Operations endpoints: metrics, cache evictions, task shards
+                        .requestMatchers("/actuator/**", "/api/admin/**").hasRole("ADMIN")
+
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
                 )
@@ -112,9 +144,18 @@ public class SecurityConfig {
          */
         http.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // Rate limits need the user id resolved by the JWT filter
+        http.addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
+
         return http.build();
     }
 
+    // Requests to the actuator's own port (management.server.port); none when it shares the API port
+    private RequestMatcher onManagementPort() {
+        return request -> String.valueOf(request.getLocalPort())
+                .equals(environment.getProperty("local.management.port"));
+    }
+
     /**
      * CORS Configuration
      * Needed because:
@@ -144,6 +185,9 @@ public class SecurityConfig {
         // Allow credentials (important for cookies if used later)
         config.setAllowCredentials(true);
 
+        // Let the browser app read list versions (If-None-Match) and back-off hints (429/503)
+        config.setExposedHeaders(List.of(HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER));
+
         // Apply this CORS config to all endpoints
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
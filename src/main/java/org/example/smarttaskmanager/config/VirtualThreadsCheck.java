@@ -0,0 +1,60 @@
+package org.example.smarttaskmanager.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup checks for spring.threads.virtual.enabled.
+ *
+ * - Below Java 21 Spring Boot silently keeps platform threads: say so.
+ * - A virtual thread blocked inside a synchronized block pins its carrier thread.
+ *   The PostgreSQL driver only guards its I/O with locks instead of synchronized
+ *   from 42.6.0 on; older drivers would pin on every query.
+ *
+ * Pinning left in other code shows up with -Djdk.tracePinnedThreads=short
+ * (set by the java21 Maven profile for spring-boot:run).
+ */
+@Slf4j
+@Component
+public class VirtualThreadsCheck {
+
+    private static final int MIN_PG_MAJOR = 42;
+    private static final int MIN_PG_MINOR = 6;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!virtualThreads) {
+            return;
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("Virtual threads are enabled but need Java 21 (running {}): requests stay on platform threads",
+                    javaVersion);
+            return;
+        }
+
+        if (!pinFreePostgresDriver()) {
+            log.warn("PostgreSQL driver older than {}.{} pins virtual threads on every query, upgrade it",
+                    MIN_PG_MAJOR, MIN_PG_MINOR);
+        }
+        log.info("Serving requests on virtual threads");
+    }
+
+    private static boolean pinFreePostgresDriver() {
+        try {
+            Class<?> driverInfo = Class.forName("org.postgresql.util.DriverInfo");
+            int major = driverInfo.getField("MAJOR_VERSION").getInt(null);
+            int minor = driverInfo.getField("MINOR_VERSION").getInt(null);
+            return major > MIN_PG_MAJOR || (major == MIN_PG_MAJOR && minor >= MIN_PG_MINOR);
+        } catch (ReflectiveOperationException e) {
+            return true; // not on PostgreSQL
+        }
+    }
+}
@@ -3,169 +3,189 @@ package org.example.smarttaskmanager.controller;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.exception.UserAlreadyExistsException;
 import org.example.smarttaskmanager.model.User;
-import org.example.smarttaskmanager.repository.UserRepository;
 import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.security.LastLoginBuffer;
+import org.example.smarttaskmanager.security.PasswordHasher;
 import org.example.smarttaskmanager.service.UserService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserService userService;
-    private final AuthenticationManager authManager;
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
+    private final LastLoginBuffer lastLogins;
+
+    // Spring Boot's task executor (matched by name): DB work after a hash completes
+    // runs here, so the hashing threads only ever run bcrypt
+    private final Executor applicationTaskExecutor;
 
     // ================= LOGIN =================
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        try {
-
-            User user = userRepository.findByEmail(request.email)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            // If Google user and password not set
-            if (user.getPassword() == null || user.getPassword().isEmpty()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body("Please login using Google or set a password first.");
-            }
-
-            authenticateUser(request.email, request.password);
-
-            LocalDateTime previousLastLogin = user.getLastLogin();
-
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-
-            String token = generateTokenForUser(user);
-
-            return ResponseEntity.ok(
-                    new LoginResponse(
-                            token,
-                            user.getUsername(),
-                            previousLastLogin
-                    )
-            );
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
+        User user = userService.findByEmailOnPrimary(request.email).orElse(null);
+        if (user == null) {
+            return done(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found"));
+        }
 
-        } catch (UsernameNotFoundException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-        } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        // If Google user and password not set
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return done(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Please login using Google or set a password first."));
         }
+
+        String storedHash = user.getPassword();
+        return passwordHasher.matches(request.password, storedHash)
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+                    }
+
+                    // Cost factor changed since this hash was made → re-hash in the background
+                    if (passwordHasher.needsRehash(storedHash)) {
+                        rehash(user.getId(), storedHash, request.password);
+                    }
+
+                    // Written behind: no UPDATE of the user per login
+                    LocalDateTime previousLastLogin = lastLogins.record(user);
+
+                    String token = generateTokenForUser(user);
+
+                    return ResponseEntity.ok(
+                            new LoginResponse(
+                                    token,
+                                    user.getUsername(),
+                                    previousLastLogin
+                            )
+                    );
+                }, applicationTaskExecutor)
+                .exceptionally(AuthController::failure);
     }
 
-    // ================= SET PASSWORD =================
     // ================= SET PASSWORD =================
     @PostMapping("/set-password")
-    public ResponseEntity<?> setPassword(@RequestBody SetPasswordRequest request) {
-
-        try {
+    public CompletableFuture<ResponseEntity<?>> setPassword(@RequestBody SetPasswordRequest request) {
 
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            // If password already exists → block
-            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-                return ResponseEntity
-                        .status(HttpStatus.BAD_REQUEST)
-                        .body("Password already set");
-            }
-
-            // Save previous last login
-            LocalDateTime previousLastLogin = user.getLastLogin();
-
-            // Encode and save password
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+        User user = userService.findByEmailOnPrimary(request.getEmail()).orElse(null);
+        if (user == null) {
+            return done(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found"));
+        }
 
-            // Update last login (because user is completing auth flow)
-            user.setLastLogin(LocalDateTime.now());
+        // If password already exists → block
+        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            return done(ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body("Password already set"));
+        }
 
-            userRepository.save(user);
+        return passwordHasher.encode(request.getPassword())
+                .<ResponseEntity<?>>thenApplyAsync(encodedPassword -> {
+                    // Record the login (the user is completing the auth flow), get the previous one
+                    LocalDateTime previousLastLogin = lastLogins.record(user);
 
-            // Authenticate immediately
-            authenticateUser(request.getEmail(), request.getPassword());
+                    user.setPassword(encodedPassword);
 
-            // Generate JWT
-            String token = generateTokenForUser(user);
+                    // Credentials changed → tokens issued before this point are revoked
+                    User saved = userService.revokeTokens(user);
 
-            return ResponseEntity.ok(
-                    new LoginResponse(
-                            token,
-                            user.getUsername(),
-                            previousLastLogin
-                    )
-            );
+                    // The password was just set: no need to verify it again
+                    String token = generateTokenForUser(saved);
 
-        } catch (UsernameNotFoundException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Something went wrong");
-        }
+                    return ResponseEntity.ok(
+                            new LoginResponse(
+                                    token,
+                                    saved.getUsername(),
+                                    previousLastLogin
+                            )
+                    );
+                }, applicationTaskExecutor)
+                .exceptionally(AuthController::failure);
     }
-    
+
     // ================= REGISTER =================
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        try {
-            // 1️⃣ Create user with email + username + password
-            User user = userService.registerUser(
-                    request.username,
-                    request.email,
-                    request.password
-            );
-
-            // 2️⃣ Authenticate immediately using EMAIL
-            authenticateUser(request.email, request.password);
-
-            // 3️⃣ Update last login
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-
-            // 4️⃣ Generate JWT using EMAIL
-            String token = generateTokenForUser(user);
-
-            return ResponseEntity.ok(
-                    new LoginResponse(
-                            token,
-                            user.getUsername(),
-                            null
-                    )
-            );
-
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("User already exists");
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequest request) {
+        // Cheap check first: don't spend a bcrypt round on a taken email
+        if (userService.findByEmailOnPrimary(request.email).isPresent()) {
+            return done(ResponseEntity.status(HttpStatus.CONFLICT).body("User already exists"));
         }
+
+        // 1️⃣ Hash the password off the request thread
+        return passwordHasher.encode(request.password)
+                .<ResponseEntity<?>>thenApplyAsync(encodedPassword -> {
+                    // 2️⃣ Create user with email + username + hash (last login = now)
+                    User user = userService.registerUser(
+                            request.username,
+                            request.email,
+                            encodedPassword
+                    );
+
+                    // 3️⃣ Generate JWT using EMAIL (no re-authentication: we just set the password)
+                    String token = generateTokenForUser(user);
+
+                    return ResponseEntity.ok(
+                            new LoginResponse(
+                                    token,
+                                    user.getUsername(),
+                                    null
+                            )
+                    );
+                }, applicationTaskExecutor)
+                .exceptionally(AuthController::failure);
     }
 
     // ================= COMMON METHODS =================
 
-    private void authenticateUser(String email, String password) {
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(email, password)
-        );
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    private String generateTokenForUser(User user) {
+        // EMAIL goes inside JWT, together with the user id and token version
+        return jwtTokenProvider.generateToken(user);
     }
 
-    private String generateTokenForUser(User user) {
-        // EMAIL goes inside JWT
-        return jwtTokenProvider.generateToken(
-                user.getEmail(),
-                user.getRoles()
-        );
+    private void rehash(Long userId, String oldHash, String rawPassword) {
+        passwordHasher.encode(rawPassword)
+                .thenAcceptAsync(newHash -> userService.replacePasswordHash(userId, oldHash, newHash),
+                        applicationTaskExecutor);
+        // Rejected or failed → the next login tries again
+    }
+
+    private static CompletableFuture<ResponseEntity<?>> done(ResponseEntity<?> response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    // Bad credentials never get here (they complete with 401). Hashing pool or task executor
+    // full → 503 so clients back off; a registration that lost the race for its email → 409;
+    // anything else is a bug or an outage → 500, logged
+    private static ResponseEntity<?> failure(Throwable ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof PasswordHasher.OverloadedException || cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many requests, retry shortly");
+        }
+        if (cause instanceof UserAlreadyExistsException || cause instanceof DataIntegrityViolationException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("User already exists");
+        }
+        log.error("Auth request failed", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Something went wrong");
     }
 
     // ================= REQUEST / RESPONSE CLASSES =================
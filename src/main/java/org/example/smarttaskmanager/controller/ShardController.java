@@ -0,0 +1,41 @@
+package org.example.smarttaskmanager.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.dto.ShardMove;
+import org.example.smarttaskmanager.shard.TaskRebalancer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Task shard administration (ROLE_ADMIN, see SecurityConfig).
+ */
+@RestController
+@RequestMapping("/api/admin/shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.shards.enabled", havingValue = "true")
+public class ShardController {
+
+    private final TaskRebalancer taskRebalancer;
+
+    // ================= USERS PER SHARD =================
+    @GetMapping
+    public Map<Integer, Long> usersPerShard() {
+        return taskRebalancer.usersPerShard();
+    }
+
+    // ================= MOVE ONE USER =================
+    @PostMapping("/users/{userId}/move")
+    public ShardMove move(@PathVariable Long userId, @RequestParam int to) {
+        return taskRebalancer.move(userId, to);
+    }
+
+    // ================= MOVE MISPLACED USERS =================
+    // Users the hash ring puts elsewhere, e.g. after adding a shard; call again until it returns []
+    @PostMapping("/rebalance")
+    public List<ShardMove> rebalance(@RequestParam(defaultValue = "100") int limit) {
+        return taskRebalancer.rebalance(limit);
+    }
+}
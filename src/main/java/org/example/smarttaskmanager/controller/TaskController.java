@@ -1,115 +1,260 @@
 package org.example.smarttaskmanager.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.dto.TaskChanges;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.dto.TaskSlice;
+import org.example.smarttaskmanager.dto.TaskStats;
+import org.example.smarttaskmanager.event.TaskStreamHub;
+import org.example.smarttaskmanager.exception.TaskConflictException;
 import org.example.smarttaskmanager.model.Task;
-import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.repository.TaskCursor;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.example.smarttaskmanager.service.TaskExportService;
+import org.example.smarttaskmanager.service.TaskListVersions;
 import org.example.smarttaskmanager.service.TaskService;
-import org.example.smarttaskmanager.service.UserService;
+import org.example.smarttaskmanager.service.TaskStatsService;
+import org.example.smarttaskmanager.service.TaskSyncService;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Task endpoints.
+ * The current user is the {@link UserPrincipal} resolved once per request by JwtAuthFilter;
+ * its id is all we need, so no handler looks the user up again.
+ *
+ * List reads carry an ETag made of the user's task list version (see TaskListVersions):
+ * a matching If-None-Match is answered 304 from memory, before any query runs.
+ */
 @RestController
 @RequestMapping("/api/tasks")
 @RequiredArgsConstructor
 public class TaskController {
 
     private final TaskService taskService;
-    private final UserService userService;
-
-    // ================= GET CURRENT USER =================
-    private User getCurrentUser() {
-
-        Authentication authentication =
-                SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new RuntimeException("No authenticated user");
-        }
-
-        // Since JWT subject = email
-        String email = authentication.getName();
-
-        return userService.getUserByEmail(email);
-    }
+    private final TaskExportService taskExportService;
+    private final TaskStatsService taskStatsService;
+    private final TaskSyncService taskSyncService;
+    private final TaskListVersions taskListVersions;
+    private final TaskStreamHub taskStreamHub;
 
     // ================= CREATE TASK =================
     @PostMapping
-    public Task addTask(@RequestBody Task task) {
-
-        User user = getCurrentUser();
-
-        task.setAssignedTo(user);
+    public TaskResponse addTask(@AuthenticationPrincipal UserPrincipal currentUser,
+                        @RequestBody Task task) {
 
         if (task.getStatus() == null) {
             task.setStatus(Task.Status.OPEN);
         }
 
-        return taskService.createTask(task);
+        return taskService.createTask(task, currentUser.getId());
     }
 
     // ================= UPDATE TASK =================
     @PutMapping("/{id}")
-    public Task updateTask(@PathVariable Long id, @RequestBody Task task) {
+    public TaskResponse updateTask(@AuthenticationPrincipal UserPrincipal currentUser,
+                           @PathVariable Long id,
+                           @RequestBody Task task) {
 
-        Task existingTask = taskService.getTaskById(id);
-        User currentUser = getCurrentUser();
+        // 🔒 Only non-null fields are applied, and only if the task belongs to the user
+        return retried(() -> taskService.updateTask(id, task, currentUser.getId()));
+    }
 
-        // 🔒 Ensure task belongs to logged-in user
-        if (!existingTask.getAssignedTo().getId()
-                .equals(currentUser.getId())) {
+    // ================= DELETE TASK =================
+    @DeleteMapping("/{id}")
+    public void deleteTask(@AuthenticationPrincipal UserPrincipal currentUser,
+                           @PathVariable Long id) {
 
-            throw new RuntimeException("You are not allowed to update this task");
-        }
+        // 🔒 Deletes only if the task belongs to the logged-in user
+        retried(() -> {
+            taskService.deleteTask(id, currentUser.getId());
+            return null;
+        });
+    }
+
+    // ================= BULK CREATE / UPDATE / DELETE =================
+    // All-or-nothing: one transaction, ownership checked for the whole set at once
 
-        // Safe field updates
-        if (task.getTitle() != null)
-            existingTask.setTitle(task.getTitle());
+    @PostMapping("/batch")
+    public List<TaskResponse> addTasks(@AuthenticationPrincipal UserPrincipal currentUser,
+                               @RequestBody List<Task> tasks) {
 
-        if (task.getDescription() != null)
-            existingTask.setDescription(task.getDescription());
+        return taskService.createTasks(tasks, currentUser.getId());
+    }
 
-        if (task.getPriority() != null)
-            existingTask.setPriority(task.getPriority());
+    @PutMapping("/batch")
+    public List<TaskResponse> updateTasks(@AuthenticationPrincipal UserPrincipal currentUser,
+                                  @RequestBody List<Task> tasks) {
 
-        if (task.getDueDate() != null)
-            existingTask.setDueDate(task.getDueDate());
+        return retried(() -> taskService.updateTasks(tasks, currentUser.getId()));
+    }
 
-        if (task.getStatus() != null)
-            existingTask.setStatus(task.getStatus());
+    @DeleteMapping("/batch")
+    public void deleteTasks(@AuthenticationPrincipal UserPrincipal currentUser,
+                            @RequestBody List<Long> ids) {
 
-        return taskService.updateTask(existingTask);
+        retried(() -> {
+            taskService.deleteTasks(ids, currentUser.getId());
+            return null;
+        });
     }
 
-    // ================= DELETE TASK =================
-    @DeleteMapping("/{id}")
-    public void deleteTask(@PathVariable Long id) {
+    // ================= EXPORT TASKS =================
+    // Streams every matching task (NDJSON or CSV), gzip-compressed when the client accepts it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(defaultValue = "NDJSON") TaskExportService.Format format,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String status,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
 
-        Task existingTask = taskService.getTaskById(id);
-        User currentUser = getCurrentUser();
+        Long userId = currentUser.getId();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
 
-        // 🔒 Ensure task belongs to logged-in user
-        if (!existingTask.getAssignedTo().getId()
-                .equals(currentUser.getId())) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+                    taskExportService.export(userId, status, search, format, gzipOut);
+                }
+            } else {
+                taskExportService.export(userId, status, search, format, out);
+            }
+        };
 
-            throw new RuntimeException("You are not allowed to delete this task");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.extension + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
-
-        taskService.deleteTask(id);
+        return response.body(body);
     }
 
     // ================= GET TASKS =================
     @GetMapping
-    public Page<Task> getTasks(
+    public ResponseEntity<Page<TaskResponse>> getTasks(
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) String status,
+            WebRequest request
     ) {
 
-        User user = getCurrentUser();
+        String etag = listETag(currentUser.getId());
+        if (request.checkNotModified(etag)) {
+            return null; // 304
+        }
+        return revalidated(etag, taskService.getTasksByUser(currentUser.getId(), page, size, search, status));
+    }
+
+    // ================= CHANGES (DELTA SYNC) =================
+    // Tasks created or updated and ids of tasks deleted since the version of the last call.
+    // Without since (or when the delta is gone) reset=true: reload the list, then sync from version.
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChanges> getChanges(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) Long since,
+            WebRequest request
+    ) {
+
+        String etag = listETag(currentUser.getId());
+        if (request.checkNotModified(etag)) {
+            return null; // 304
+        }
+        return revalidated(etag, taskSyncService.getChanges(currentUser.getId(), since));
+    }
+
+    // ================= TASK STATS =================
+    // Dashboard numbers in one call: counts by status and priority, open tasks by due date
+    @GetMapping("/stats")
+    public TaskStats getStats(@AuthenticationPrincipal UserPrincipal currentUser) {
+
+        return taskStatsService.getStats(currentUser.getId());
+    }
+
+    // ================= STREAM TASK CHANGES (SSE) =================
+    // "sync" with the current version first, then a "task" event per change as it commits.
+    // After a reconnect or a "resync" (client too far behind), catch up with /changes first.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTasks(@AuthenticationPrincipal UserPrincipal currentUser) {
+
+        Long userId = currentUser.getId();
+        try {
+            SseEmitter emitter = taskStreamHub.subscribe(userId, taskListVersions.current(userId));
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no") // proxies must not buffer the stream
+                    .body(emitter);
+        } catch (TaskStreamHub.RejectedException e) {
+            return ResponseEntity.status(e.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+
+    // ================= SCROLL TASKS (KEYSET) =================
+    // Cursor-based alternative to GET /api/tasks: pass back nextCursor to get the following slice
+    @GetMapping("/scroll")
+    public ResponseEntity<TaskSlice> scrollTasks(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "UPDATED_AT") TaskCursor.Sort sort,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request
+    ) {
+
+        String etag = listETag(currentUser.getId());
+        if (request.checkNotModified(etag)) {
+            return null; // 304
+        }
+        return revalidated(etag, taskService.scrollTasks(currentUser.getId(), cursor, size, sort, status, includeTotal));
+    }
+
+    // ================= HELPERS =================
+
+    // A write whose task row was moved between partitions meanwhile (TaskArchiver, V11) fails
+    // its lock in PostgreSQL and is rolled back whole: run it once more, then give up with 503
+    private static <T> T retried(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (PessimisticLockingFailureException e) {
+            try {
+                return write.get();
+            } catch (PessimisticLockingFailureException again) {
+                throw new TaskConflictException(again);
+            }
+        }
+    }
+
+    // Same user + same version → same response for a given URL (the user id keeps accounts apart)
+    private String listETag(Long userId) {
+        return "\"" + userId + "-" + taskListVersions.current(userId) + "\"";
+    }
 
-        return taskService.getTasksByUser(user, page, size, search, status);
+    // Private to the user's browser, which must revalidate before reusing it
+    private static <T> ResponseEntity<T> revalidated(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package org.example.smarttaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A user whose tasks moved between shards (POST /api/admin/shards/...).
+ */
+@Getter
+@AllArgsConstructor
+public class ShardMove {
+
+    private final Long userId;
+    private final int from;
+    private final int to;
+    private final int tasks;    // task rows copied
+}
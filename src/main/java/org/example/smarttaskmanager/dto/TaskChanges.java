@@ -0,0 +1,26 @@
+package org.example.smarttaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Delta of a user's tasks since a version (GET /api/tasks/changes?since=).
+ * Pass {@code version} as the next {@code since}. When {@code reset} is true the delta
+ * is not available (no or unknown version, tombstones pruned, too many changes):
+ * reload the list, then sync from {@code version}.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskChanges {
+
+    private final long version;
+    private final boolean reset;
+    private final List<TaskResponse> changed;   // created or updated, in the order they were written
+    private final List<Long> deleted;           // ids of deleted tasks
+
+    public static TaskChanges reset(long version) {
+        return new TaskChanges(version, true, List.of(), List.of());
+    }
+}
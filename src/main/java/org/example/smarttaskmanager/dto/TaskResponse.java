@@ -0,0 +1,44 @@
+package org.example.smarttaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.smarttaskmanager.model.Task;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Task as returned by the API.
+ * Carries only the owner's id, never the User itself (email, password hash, roles).
+ * List queries build it directly in JPQL (select new ...TaskResponse(...)), so no entity
+ * or user row is loaded for them. Serializable because cached pages may live in Redis.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskResponse implements Serializable {
+
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Task.Status status;
+    private final Task.Priority priority;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long assignedToId;
+
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(
+                task.getId(),
+                task.getTitle(),
+                task.getDescription(),
+                task.getStatus(),
+                task.getPriority(),
+                task.getDueDate(),
+                task.getCreatedAt(),
+                task.getUpdatedAt(),
+                // getId() on a lazy proxy does not load the user
+                task.getAssignedTo() != null ? task.getAssignedTo().getId() : null
+        );
+    }
+}
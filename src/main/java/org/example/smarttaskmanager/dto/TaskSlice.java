@@ -0,0 +1,19 @@
+package org.example.smarttaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated task list (GET /api/tasks/scroll).
+ */
+@Getter
+@AllArgsConstructor
+public class TaskSlice {
+
+    private final List<TaskResponse> content;
+    private final String nextCursor;        // opaque, null on the last slice
+    private final boolean hasNext;
+    private final Long totalElements;       // only filled when includeTotal=true
+}
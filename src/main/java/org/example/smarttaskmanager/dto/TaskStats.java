@@ -0,0 +1,67 @@
+package org.example.smarttaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.TaskCounter;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard numbers of one user (GET /api/tasks/stats).
+ * Due buckets cover the tasks that are not CLOSED and are relative to the server's date.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskStats {
+
+    private final long total;
+    private final Map<Task.Status, Long> byStatus;
+    private final Map<Task.Priority, Long> byPriority;
+    private final Due due;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Due {
+        private final long overdue;         // due before today
+        private final long today;
+        private final long nextSevenDays;   // tomorrow .. today + 7
+        private final long later;
+        private final long none;            // no due date
+    }
+
+    public static TaskStats from(List<TaskCounter> counters, LocalDate today) {
+        long total = 0;
+        Map<Task.Status, Long> byStatus = new EnumMap<>(Task.Status.class);
+        Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+        for (Task.Status status : Task.Status.values()) byStatus.put(status, 0L);
+        for (Task.Priority priority : Task.Priority.values()) byPriority.put(priority, 0L);
+        long overdue = 0, dueToday = 0, nextSevenDays = 0, later = 0;
+
+        for (TaskCounter counter : counters) {
+            String name = counter.getCounter();
+            long amount = counter.getAmount();
+            if (name.equals(TaskCounter.TOTAL)) {
+                total = amount;
+            } else if (name.startsWith(TaskCounter.STATUS)) {
+                byStatus.put(Task.Status.valueOf(name.substring(TaskCounter.STATUS.length())), amount);
+            } else if (name.startsWith(TaskCounter.PRIORITY)) {
+                byPriority.put(Task.Priority.valueOf(name.substring(TaskCounter.PRIORITY.length())), amount);
+            } else if (name.startsWith(TaskCounter.DUE)) {
+                LocalDate day = LocalDate.parse(name.substring(TaskCounter.DUE.length()));
+                if (day.isBefore(today)) overdue += amount;
+                else if (day.isEqual(today)) dueToday += amount;
+                else if (!day.isAfter(today.plusDays(7))) nextSevenDays += amount;
+                else later += amount;
+            }
+        }
+
+        long notClosed = total - byStatus.get(Task.Status.CLOSED);
+        long none = notClosed - overdue - dueToday - nextSevenDays - later;
+        return new TaskStats(total, byStatus, byPriority,
+                new Due(overdue, dueToday, nextSevenDays, later, none));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.smarttaskmanager.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes task events to a RabbitMQ queue as persistent JSON messages.
+ * The whole batch goes over one channel and is confirmed by the broker once
+ * (needs spring.rabbitmq.publisher-confirm-type=simple).
+ */
+@RequiredArgsConstructor
+public class AmqpTaskEventSink implements TaskEventSink {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final String queue;
+    private final long confirmTimeoutMs;
+
+    @Override
+    public void send(List<TaskEventMessage> messages) throws Exception {
+        // Serialize first: a bad message must not leave half a batch on the channel
+        List<Message> amqpMessages = new ArrayList<>(messages.size());
+        for (TaskEventMessage message : messages) {
+            amqpMessages.add(toAmqp(message));
+        }
+
+        rabbitTemplate.invoke(operations -> {
+            amqpMessages.forEach(message -> operations.send("", queue, message));
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    private Message toAmqp(TaskEventMessage message) throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId(String.valueOf(message.getEventId()));
+        return new Message(objectMapper.writeValueAsBytes(message), properties);
+    }
+}
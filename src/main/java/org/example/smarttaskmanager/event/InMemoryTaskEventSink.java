@@ -0,0 +1,22 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Delivers task events to listeners in this JVM (@EventListener TaskEventMessage).
+ * Used in tests and when no broker is configured. Listeners run on the relay thread,
+ * so a slow listener slows the relay down instead of piling messages up in memory.
+ */
+@RequiredArgsConstructor
+public class InMemoryTaskEventSink implements TaskEventSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void send(List<TaskEventMessage> messages) {
+        messages.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.Value;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+
+/**
+ * Published by TaskService for every task mutation.
+ * Listeners that keep derived state (search index, caches, ...) react to it
+ * instead of TaskService calling each of them.
+ */
+@Value
+public class TaskChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Due-date notices (TaskDueEvent): outbox messages only, never published as a TaskChangedEvent
+        DUE_SOON,
+        OVERDUE
+    }
+
+    Type type;
+    Long taskId;
+    Long userId;
+    Task task;                  // state after the change, null for DELETED
+    TaskResponse previous;      // state before the change, null for CREATED
+    long version;               // version of the user's task list that made the change (see TaskListVersions)
+
+    public static TaskChangedEvent created(Task task, Long userId) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), userId, task, null, task.getChangeVersion());
+    }
+
+    public static TaskChangedEvent updated(Task task, TaskResponse previous, Long userId) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), userId, task, previous, task.getChangeVersion());
+    }
+
+    public static TaskChangedEvent deleted(TaskResponse previous, Long userId, long version) {
+        return new TaskChangedEvent(Type.DELETED, previous.getId(), userId, null, previous, version);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.Value;
+import org.example.smarttaskmanager.model.Task;
+
+/**
+ * Published by TaskDueNotifier when a task's due date comes near (DUE_SOON) or passes
+ * (OVERDUE), inside the transaction that claimed the notice: it reaches the outbox once.
+ */
+@Value
+public class TaskDueEvent {
+
+    TaskChangedEvent.Type type; // DUE_SOON or OVERDUE
+    Task task;
+
+    public static TaskDueEvent dueSoon(Task task) {
+        return new TaskDueEvent(TaskChangedEvent.Type.DUE_SOON, task);
+    }
+
+    public static TaskDueEvent overdue(Task task) {
+        return new TaskDueEvent(TaskChangedEvent.Type.OVERDUE, task);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.smarttaskmanager.event;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task change notification as delivered to a TaskEventSink.
+ * Delivery is at-least-once: consumers dedupe on eventId.
+ */
+@Value
+public class TaskEventMessage {
+
+    long eventId;                // outbox row id (+ shard, see TaskShards.eventId), increases per task in commit order
+    TaskChangedEvent.Type type;
+    Long taskId;
+    Long userId;
+    LocalDateTime occurredAt;
+
+    @JsonRawValue
+    String task;                 // TaskResponse JSON, null for DELETED
+}
@@ -0,0 +1,15 @@
+package org.example.smarttaskmanager.event;
+
+import java.util.List;
+
+/**
+ * Destination of the task events relayed from the outbox.
+ */
+public interface TaskEventSink {
+
+    /**
+     * Deliver the messages in order.
+     * Returns only once all of them are accepted; throws if any may not have been.
+     */
+    void send(List<TaskEventMessage> messages) throws Exception;
+}
@@ -0,0 +1,136 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.model.TaskOutboxEvent;
+import org.example.smarttaskmanager.repository.TaskOutboxRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves task events from the outbox table to the TaskEventSink, off the request path.
+ *
+ * - Batches: up to batch-size rows are read, sent as one batch and deleted together.
+ * - Ordering: rows are walked in id order; once an event of a task has to wait for a
+ *   retry, the later events of that task wait behind it.
+ * - Retries: a failed event is retried with exponential backoff, forever; the table
+ *   is the buffer while the sink is down.
+ * - Backpressure: one batch at a time, at the pace the sink accepts them.
+ *
+ * Delivery is at-least-once. Run the relay on one node only (app.outbox.relay.enabled),
+ * two relays would each keep order but could interleave a task's events.
+ * With shards each one has its outbox, drained in turn: a task's events stay in order,
+ * except around a move of its owner (the old shard's may come after the new one's).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskOutboxRelay {
+
+    private static final Duration FIRST_RETRY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY = Duration.ofMinutes(5);
+
+    private final TaskOutboxRepository outboxRepository;
+    private final TaskEventSink sink;
+    private final TaskShards taskShards;
+    private final int batchSize;
+
+    public TaskOutboxRelay(TaskOutboxRepository outboxRepository,
+                           TaskEventSink sink,
+                           TaskShards taskShards,
+                           @Value("${app.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.taskShards = taskShards;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relay() {
+        for (int i = 0; i < taskShards.count(); i++) {
+            int shard = i;
+            taskShards.run(shard, () -> {
+                // Keep going while full batches are delivered (drains bursts quickly)
+                while (relayBatch(shard) == batchSize) {
+                    // next batch
+                }
+            });
+        }
+    }
+
+    /**
+     * @return number of events delivered from the shard (the caller is bound to it)
+     */
+    int relayBatch(int shard) {
+        List<TaskOutboxEvent> ready = nextReadyEvents();
+        if (ready.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> delivered = new ArrayList<>(ready.size());
+        try {
+            sink.send(ready.stream().map(event -> toMessage(event, shard)).toList());
+            ready.forEach(event -> delivered.add(event.getId()));
+        } catch (Exception batchFailure) {
+            // Find the culprit: one by one, stop at the first failure, the rest keeps its place
+            for (TaskOutboxEvent event : ready) {
+                try {
+                    sink.send(List.of(toMessage(event, shard)));
+                    delivered.add(event.getId());
+                } catch (Exception e) {
+                    scheduleRetry(event, e);
+                    break;
+                }
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(delivered);
+        }
+        return delivered.size();
+    }
+
+    // Oldest events that may go now, skipping tasks that wait for a retry
+    private List<TaskOutboxEvent> nextReadyEvents() {
+        return outboxRepository.findReady(LocalDateTime.now(), Limit.of(batchSize));
+    }
+
+    private void scheduleRetry(TaskOutboxEvent event, Exception cause) {
+        int attempts = event.getAttempts() + 1;
+        Duration backoff = FIRST_RETRY.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(MAX_RETRY) > 0) {
+            backoff = MAX_RETRY;
+        }
+
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        event.setLastError(abbreviate(String.valueOf(cause.getMessage())));
+        outboxRepository.save(event);
+
+        log.warn("Task event {} (task {}) not delivered, attempt {}, next try in {}s: {}",
+                event.getId(), event.getTaskId(), attempts, backoff.toSeconds(), cause.toString());
+    }
+
+    private TaskEventMessage toMessage(TaskOutboxEvent event, int shard) {
+        return new TaskEventMessage(
+                taskShards.eventId(event.getId(), shard),
+                event.getType(),
+                event.getTaskId(),
+                event.getUserId(),
+                event.getCreatedAt(),
+                event.getPayload()
+        );
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 255 ? message : message.substring(0, 255);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.smarttaskmanager.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes every TaskChangedEvent (and TaskDueEvent) to the task_outbox table, in the transaction
+ * that produced it: the event exists if and only if the change committed.
+ *
+ * Rows are collected during the transaction and inserted as one JDBC batch right
+ * before commit, after the task changes are flushed. The task rows are locked by
+ * then, so outbox ids of one task follow commit order.
+ */
+@Component
+public class TaskOutboxWriter {
+
+    private static final String INSERT =
+            "insert into task_outbox (task_id, user_id, type, payload, created_at, attempts, next_attempt_at) "
+                    + "values (?, ?, ?, ?, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskOutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Plain listeners: run inside the publishing transaction
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        add(toRow(event.getTaskId(), event.getUserId(), event.getType(), event.getTask()));
+    }
+
+    @EventListener
+    public void onTaskDue(TaskDueEvent event) {
+        Task task = event.getTask();
+        add(toRow(task.getId(), task.getAssignedTo().getId(), event.getType(), task));
+    }
+
+    // ================= HELPERS =================
+
+    private void add(Object[] row) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(Collections.singletonList(row));
+            return;
+        }
+        pendingRows().add(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pendingRows() {
+        List<Object[]> rows = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) {
+            return rows;
+        }
+
+        List<Object[]> newRows = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newRows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entityManager.flush(); // take the task row locks before the outbox ids
+                insert(newRows);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskOutboxWriter.this);
+            }
+        });
+        return newRows;
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    private Object[] toRow(Long taskId, Long userId, TaskChangedEvent.Type type, Task task) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return new Object[]{
+                taskId,
+                userId,
+                type.name(),
+                task != null ? toJson(TaskResponse.from(task)) : null,
+                now,
+                now
+        };
+    }
+
+    private String toJson(TaskResponse task) {
+        try {
+            return objectMapper.writeValueAsString(task);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize task " + task.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.Value;
+import org.example.smarttaskmanager.dto.TaskResponse;
+
+/**
+ * Task change as pushed on GET /api/tasks/stream ("task" events).
+ * For one task, versions only go up; across tasks they may arrive out of order.
+ */
+@Value
+public class TaskStreamEvent {
+
+    TaskChangedEvent.Type type;
+    Long taskId;
+    long version;            // version of the user's task list that made the change
+    TaskResponse task;       // state after the change, null for DELETED
+}
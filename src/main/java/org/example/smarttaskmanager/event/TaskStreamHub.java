@@ -0,0 +1,376 @@
+package org.example.smarttaskmanager.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.Getter;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed task changes to the SSE streams (GET /api/tasks/stream).
+ *
+ * - Non-blocking: publishing only puts the change in the queue of each of the user's
+ *   subscribers. Sender threads write to the clients, one drain per subscriber at a time,
+ *   so a stuck client holds at most one sender and never the committing thread.
+ * - Bounded: a queue holds at most max-pending tasks. A change of a task that is still
+ *   queued replaces it (coalesced, only the latest state goes out). A subscriber whose
+ *   queue fills up anyway is dropped with a "resync" event.
+ * - Per task, versions never go back: a change that reaches the hub after a newer one of
+ *   the same task is skipped.
+ * - Idle streams hold no thread, only the async request and a Subscriber. Their cost is
+ *   Tomcat's per-connection buffers (~115 KB of heap), hence the cap per node. A heartbeat
+ *   comment keeps proxies from closing them and finds the clients that are gone.
+ *
+ * Only this node's commits are pushed. A client catches up with GET /api/tasks/changes
+ * whenever it (re)connects: the "sync" event that opens every stream carries the version.
+ */
+@Component
+public class TaskStreamHub {
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Last version pushed per task; entries only need to outlive the race between two commits
+    private final Cache<Long, Long> pushedVersions = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    private final ExecutorService senders;
+    private final int maxSubscribers;
+    private final int maxPerUser;
+    private final int maxPending;
+    private final long timeoutMs;
+    private final Counter coalesced;
+    private final Counter dropped;
+
+    @Autowired
+    public TaskStreamHub(MeterRegistry meterRegistry,
+                         @Value("${app.tasks.stream.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${app.tasks.stream.max-per-user:10}") int maxPerUser,
+                         @Value("${app.tasks.stream.max-pending:256}") int maxPending,
+                         @Value("${app.tasks.stream.timeout:30m}") Duration timeout,
+                         @Value("${app.tasks.stream.send-threads:8}") int sendThreads) {
+        this(meterRegistry, maxSubscribers, maxPerUser, maxPending, timeout, senders(sendThreads));
+    }
+
+    TaskStreamHub(MeterRegistry meterRegistry, int maxSubscribers, int maxPerUser, int maxPending,
+                  Duration timeout, ExecutorService senders) {
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerUser = maxPerUser;
+        this.maxPending = maxPending;
+        this.timeoutMs = timeout.toMillis();
+        this.senders = senders;
+
+        new ExecutorServiceMetrics(senders, "taskStream", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("task.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open task streams on this node")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("task.stream.coalesced")
+                .description("Queued task changes replaced by a newer change of the same task")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("task.stream.dropped")
+                .description("Streams closed because the client fell too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream of the user's task changes, starting with a "sync" event.
+     *
+     * @param version current version of the user's task list
+     * @throws RejectedException when the node or the user has too many streams open
+     */
+    public SseEmitter subscribe(Long userId, long version) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open task streams on this node");
+        }
+
+        // Jitter: streams opened together (say after a deploy) do not all time out together
+        SseEmitter emitter = new SseEmitter(timeoutMs + ThreadLocalRandom.current().nextLong(timeoutMs / 10 + 1));
+        try {
+            // Sent here, before the emitter is handed to Spring MVC: it goes out with the headers, on
+            // the request thread. Committed from a sender thread, the response would race the
+            // filters still writing headers on the way out.
+            emitter.send(SseEmitter.event().name("sync").data(Map.of("version", version)));
+        } catch (IOException e) {
+            subscriberCount.decrementAndGet();
+            throw new UncheckedIOException(e);
+        }
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        // compute: atomic with the removal of an emptied set in close()
+        boolean[] added = {false};
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> set = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            if (set.size() < maxPerUser) {
+                added[0] = set.add(subscriber);
+            }
+            return set.isEmpty() ? null : set;
+        });
+        if (!added[0]) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedException(HttpStatus.TOO_MANY_REQUESTS, "Too many open task streams for this user");
+        }
+
+        emitter.onCompletion(subscriber::end);
+        emitter.onTimeout(() -> {
+            subscriber.end();
+            emitter.complete(); // the client reconnects
+        });
+        emitter.onError(error -> subscriber.end());
+        return emitter;
+    }
+
+    // After commit: a rolled-back change is never pushed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.getUserId());
+        if (userSubscribers == null || userSubscribers.isEmpty() || !isNewest(event)) {
+            return;
+        }
+
+        TaskStreamEvent streamEvent = new TaskStreamEvent(
+                event.getType(),
+                event.getTaskId(),
+                event.getVersion(),
+                event.getTask() != null ? TaskResponse.from(event.getTask()) : null
+        );
+        userSubscribers.forEach(subscriber -> subscriber.offer(streamEvent));
+    }
+
+    @Scheduled(fixedDelayString = "${app.tasks.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    // Shutdown: end every stream so the clients reconnect to another node. On the close event,
+    // while the web server still runs (by @PreDestroy it has recycled the responses)
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::complete));
+        senders.shutdown();
+    }
+
+    // ================= HELPERS =================
+
+    // Unbounded queue, but at most one drain per subscriber is ever queued
+    private static ExecutorService senders(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "task-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    // Two commits of one task can reach the hub out of order (after-commit runs on each request thread)
+    private boolean isNewest(TaskChangedEvent event) {
+        boolean[] newest = {false};
+        pushedVersions.asMap().compute(event.getTaskId(), (taskId, pushed) -> {
+            if (pushed != null && pushed > event.getVersion()) {
+                return pushed;
+            }
+            newest[0] = true;
+            return event.getVersion();
+        });
+        return newest[0];
+    }
+
+    /**
+     * One open stream: what is waiting to be sent to it, and whether a sender is on it.
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        // Guarded by this. In insertion order; a coalesced change moves to the end
+        private final LinkedHashMap<Long, TaskStreamEvent> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean overflowed;
+        private boolean draining;
+        private boolean closed;
+
+        // Once the container ended the request its response is recycled for another one:
+        // ended is set under sendLock, so no send is in flight then and none starts after
+        private final Object sendLock = new Object();
+        private boolean ended;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(TaskStreamEvent event) {
+            boolean start;
+            synchronized (this) {
+                if (overflowed) {
+                    return;
+                }
+                if (pending.remove(event.getTaskId()) != null) {
+                    coalesced.increment();
+                } else if (pending.size() >= maxPending) {
+                    pending.clear();
+                    overflowed = true;
+                    dropped.increment();
+                }
+                if (!overflowed) {
+                    pending.put(event.getTaskId(), event);
+                }
+                start = startDrain();
+            }
+            if (start) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void heartbeat() {
+            boolean start;
+            synchronized (this) {
+                heartbeatDue = true;
+                start = startDrain();
+            }
+            if (start) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Caller holds the lock
+        private boolean startDrain() {
+            if (draining || closed) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        // Sends until nothing is left; what arrives meanwhile goes out in the next round
+        private void drain() {
+            while (true) {
+                List<TaskStreamEvent> events;
+                boolean heartbeat;
+                boolean resync;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !heartbeatDue && !overflowed)) {
+                        draining = false;
+                        return;
+                    }
+                    events = new ArrayList<>(pending.values());
+                    pending.clear();
+                    heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                    resync = overflowed;
+                }
+
+                synchronized (sendLock) {
+                    if (ended) {
+                        return;
+                    }
+                    try {
+                        for (TaskStreamEvent event : events) {
+                            emitter.send(SseEmitter.event().name("task").data(event));
+                        }
+                        if (resync) {
+                            // Too far behind: end the stream, the client reconnects and catches up
+                            emitter.send(SseEmitter.event().name("resync").data("resync"));
+                            close();
+                            emitter.complete();
+                            return;
+                        }
+                        if (heartbeat && events.isEmpty()) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+                    } catch (Exception e) {
+                        // Client gone or connection broken
+                        close();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+            }
+        }
+
+        void complete() {
+            synchronized (sendLock) {
+                if (ended) {
+                    return;
+                }
+                ended = true;
+                emitter.complete();
+            }
+            close();
+        }
+
+        // Container callback: the request is over (completed, timed out or broken)
+        private void end() {
+            synchronized (sendLock) {
+                ended = true;
+            }
+            close();
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                userSubscribers.remove(this);
+                return userSubscribers.isEmpty() ? null : userSubscribers;
+            });
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * No stream opened: the node (503) or the user (429) is at its limit.
+     */
+    @Getter
+    public static class RejectedException extends RuntimeException {
+
+        private final HttpStatus status;
+
+        public RejectedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.smarttaskmanager.event;
+
+import lombok.Value;
+
+/**
+ * Published by TaskArchiver inside the transaction that moved some of a user's closed tasks
+ * to the cold side. Not a task change: nothing reaches the outbox or the task streams.
+ */
+@Value
+public class TasksArchivedEvent {
+
+    Long userId;
+    int archived;
+}
@@ -0,0 +1,12 @@
+package org.example.smarttaskmanager.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The user's tasks moved to another shard while this request was routed: a retry goes to the new one
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ShardMovedException extends RuntimeException {
+    public ShardMovedException(Long userId) {
+        super("Tasks of user " + userId + " moved to another shard, retry");
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.smarttaskmanager.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A concurrent change (e.g. the archiver moving the task to the cold partition) failed this write twice: retry
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TaskConflictException extends RuntimeException {
+    public TaskConflictException(Throwable cause) {
+        super("Tasks changed concurrently, retry", cause);
+    }
+}
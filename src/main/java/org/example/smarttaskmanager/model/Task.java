@@ -2,6 +2,8 @@ package org.example.smarttaskmanager.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.smarttaskmanager.shard.TaskId;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -10,11 +12,23 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tasks")
+// Mirrors the Flyway migrations (V3, V4, V8, V9, V11); every TaskRepository query filters on assigned_to_id first,
+// except the due-date scan (partial in V9, on pending notices only) and the archiver's (partial in V11)
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_updated", columnList = "assigned_to_id, updated_at desc, id desc"),
+        @Index(name = "idx_tasks_user_due", columnList = "assigned_to_id, due_date, id"),
+        @Index(name = "idx_tasks_user_status_updated", columnList = "assigned_to_id, status, updated_at desc, id desc"),
+        @Index(name = "idx_tasks_user_status_due", columnList = "assigned_to_id, status, due_date, id"),
+        @Index(name = "idx_tasks_user_change_version", columnList = "assigned_to_id, change_version"),
+        @Index(name = "idx_tasks_due_pending", columnList = "due_date, id"),
+        @Index(name = "idx_tasks_archivable", columnList = "updated_at, id")
+})
 public class Task {
 
+    // Time-ordered ids made in memory (see TaskIds): unique across shards, no round trip,
+    // and inserts can be JDBC-batched (IDENTITY forces one INSERT round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TaskId
     private Long id;
 
     private String title;
@@ -28,12 +42,31 @@ public class Task {
 
     private LocalDateTime dueDate;
 
-    @ManyToOne
+    // Lazy: responses only need the owner's id, which the column already holds.
+    // No foreign key: with sharding the user row lives on another database (see TaskShards)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User assignedTo;
 
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Version of the owner's task list that last wrote this task (see TaskListVersions), 0 before V8
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long changeVersion;
+
+    // Due-date notices sent for the current dueDate: 0 none, 1 due soon, 2 overdue (see TaskDueScheduler)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int dueNotified;
+
+    // Cold: CLOSED and untouched for app.tasks.archive.after (see TaskArchiver). In PostgreSQL
+    // the tasks table is partitioned on it (V11), so the hot partition holds the active tasks only
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean archived;
+
     public enum Status {
         OPEN,
         IN_PROGRESS,
@@ -0,0 +1,58 @@
+package org.example.smarttaskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One of a user's task counters (see TaskStatsService).
+ * Counter names: "total", "status:OPEN", "priority:HIGH", and "due:2024-05-31" for the
+ * tasks that are not CLOSED, by due day. Rows are written by TaskStatsService with
+ * JdbcTemplate; a missing row means zero.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_counters")
+@IdClass(TaskCounter.Key.class)
+public class TaskCounter {
+
+    public static final String TOTAL = "total";
+    public static final String STATUS = "status:";
+    public static final String PRIORITY = "priority:";
+    public static final String DUE = "due:";
+
+    @Id
+    private Long userId;
+
+    @Id
+    @Column(length = 32)
+    private String counter;
+
+    @Column(nullable = false)
+    private long amount;
+
+    public static String status(Task.Status status) {
+        return STATUS + status.name();
+    }
+
+    public static String priority(Task.Priority priority) {
+        return PRIORITY + priority.name();
+    }
+
+    public static String due(LocalDate day) {
+        return DUE + day;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private String counter;
+    }
+}
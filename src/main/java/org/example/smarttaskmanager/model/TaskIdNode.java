@@ -0,0 +1,28 @@
+package org.example.smarttaskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease of a task id node number (see TaskIds), on the home database.
+ * Written by TaskIds with JdbcTemplate; a missing or expired row is a free node number.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_id_nodes")
+public class TaskIdNode {
+
+    @Id
+    private Integer node;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
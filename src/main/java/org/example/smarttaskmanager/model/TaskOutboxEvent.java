@@ -0,0 +1,51 @@
+package org.example.smarttaskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task change waiting to be delivered by the outbox relay.
+ * Rows are inserted by TaskOutboxWriter in the transaction that changed the task
+ * and deleted once the sink accepted them.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+// Mirrors V12: the relay looks up earlier events of the same task
+@Table(name = "task_outbox", indexes = @Index(name = "idx_task_outbox_task", columnList = "task_id, id"))
+public class TaskOutboxEvent {
+
+    // IDENTITY: ids follow commit order per task (see V6); inserts are batched by JdbcTemplate
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskChangedEvent.Type type;
+
+    // TaskResponse as JSON, null for DELETED
+    @Column(length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private String lastError;
+}
@@ -0,0 +1,36 @@
+package org.example.smarttaskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deleted task, kept so GET /api/tasks/changes can report the deletion.
+ * Inserted by TaskSyncService in the deleting transaction, pruned after the retention period.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_user_version", columnList = "user_id, version"),
+        @Index(name = "idx_task_tombstones_deleted_at", columnList = "deleted_at")
+})
+public class TaskTombstone {
+
+    // Task ids are never reused (see TaskIds)
+    @Id
+    private Long taskId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // Version of the owner's task list that deleted the task
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
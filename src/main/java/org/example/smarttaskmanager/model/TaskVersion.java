@@ -0,0 +1,33 @@
+package org.example.smarttaskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of one user's task list (see TaskListVersions).
+ * Written by TaskListVersions and TaskSyncService with JdbcTemplate; a missing row means
+ * version 0, nothing changed yet.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_versions")
+public class TaskVersion {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Tombstones up to this version have been pruned: older sync points must start over
+    @Column(nullable = false)
+    private long prunedVersion;
+
+    // Set on the old shard when the user's tasks moved away (see TaskRebalancer): no more changes here
+    private LocalDateTime movedAt;
+}
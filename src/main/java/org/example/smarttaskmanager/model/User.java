@@ -1,6 +1,8 @@
 package org.example.smarttaskmanager.model;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -8,6 +10,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // serializable as a lazy reference
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,12 +30,25 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Set on insert, then only by LastLoginBuffer: saving a user never writes back an older time
+    @Column(updatable = false)
     private LocalDateTime lastLogin;
 
+    // Bumped to invalidate every JWT issued before it
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int tokenVersion;
+
+    // Shard holding the user's tasks (see TaskShards), 0 = this database
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int shard;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(
             name = "user_roles",
-            joinColumns = @JoinColumn(name = "user_id")
+            joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_roles_user_id", columnList = "user_id")
     )
     @Enumerated(EnumType.STRING)
     @Column(name = "role")
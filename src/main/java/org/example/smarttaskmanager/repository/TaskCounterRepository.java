@@ -0,0 +1,12 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.model.TaskCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, TaskCounter.Key> {
+
+    // All of a user's counters: one range scan on the primary key
+    List<TaskCounter> findByUserId(Long userId);
+}
@@ -0,0 +1,51 @@
+package org.example.smarttaskmanager.repository;
+
+import lombok.Value;
+import org.example.smarttaskmanager.exception.BadRequestException;
+import org.example.smarttaskmanager.dto.TaskResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated task list: the sort key and id of the last task returned.
+ * Clients only ever see it as an opaque token ({@link #encode()} / {@link #decode(String)}).
+ */
+@Value
+public class TaskCursor {
+
+    public enum Sort {
+        UPDATED_AT,     // updatedAt DESC NULLS FIRST, id DESC  (newest first)
+        DUE_DATE        // dueDate ASC NULLS LAST, id ASC  (soonest first)
+    }
+
+    Sort sort;
+    LocalDateTime value;    // updatedAt or dueDate of the last task (either may be null)
+    Long id;
+
+    public static TaskCursor after(TaskResponse task, Sort sort) {
+        LocalDateTime value = sort == Sort.UPDATED_AT ? task.getUpdatedAt() : task.getDueDate();
+        return new TaskCursor(sort, value, task.getId());
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + (value != null ? value : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            return new TaskCursor(
+                    Sort.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.model.TaskOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskOutboxRepository extends JpaRepository<TaskOutboxEvent, Long> {
+
+    /**
+     * Oldest events that may go now: their time came and no earlier event of the same task
+     * waits for a retry (index idx_task_outbox_task, V12). In id order, which keeps per-task
+     * order; tasks behind a waiting event do not hold back the others however many there are.
+     */
+    @Query("""
+            select o from TaskOutboxEvent o
+            where o.nextAttemptAt <= :now
+              and not exists (select w.id from TaskOutboxEvent w
+                              where w.taskId = o.taskId and w.id < o.id and w.nextAttemptAt > :now)
+            order by o.id
+            """)
+    List<TaskOutboxEvent> findReady(@Param("now") LocalDateTime now, Limit limit);
+}
@@ -1,17 +1,143 @@
 package org.example.smarttaskmanager.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.smarttaskmanager.dto.TaskResponse;
 import org.example.smarttaskmanager.model.Task;
-import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.scheduler.TaskDeadline;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskScrollRepository, TaskWriteRepository {
+
+    // Written out: Spring Data derives "assignedToId" as a LEFT JOIN on users, which is not
+    // on the task's shard (see TaskShards); t.assignedTo.id reads the column
+    @Query("select t from Task t where t.assignedTo.id = :userId")
+    List<Task> findByAssignedToId(@Param("userId") Long userId);
+
+    // Listings are projected straight into the response DTO: no entity, no user row.
+    // Hot tasks only; with cold = true archived ones too (see TaskArchiver)
+    @Query(value = "select new org.example.smarttaskmanager.dto.TaskResponse(t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.createdAt, t.updatedAt, t.assignedTo.id) from Task t where t.assignedTo.id = :userId and t.archived = false",
+            countQuery = "select count(t) from Task t where t.assignedTo.id = :userId and t.archived = false")
+    Page<TaskResponse> findPageByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "select new org.example.smarttaskmanager.dto.TaskResponse(t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.createdAt, t.updatedAt, t.assignedTo.id) from Task t where t.assignedTo.id = :userId and t.status = :status and (t.archived = false or t.archived = :cold)",
+            countQuery = "select count(t) from Task t where t.assignedTo.id = :userId and t.status = :status and (t.archived = false or t.archived = :cold)")
+    Page<TaskResponse> findPageByUserAndStatus(@Param("userId") Long userId,
+                                               @Param("status") Task.Status status,
+                                               @Param("cold") boolean cold,
+                                               Pageable pageable);
+
+    // Delta sync: tasks written in versions (since, upTo], in the order they were written
+    @Query("select new org.example.smarttaskmanager.dto.TaskResponse(t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.createdAt, t.updatedAt, t.assignedTo.id) from Task t where t.assignedTo.id = :userId and t.changeVersion > :since and t.changeVersion <= :upTo order by t.changeVersion, t.id")
+    List<TaskResponse> findChanged(@Param("userId") Long userId,
+                                   @Param("since") long since,
+                                   @Param("upTo") long upTo,
+                                   Limit limit);
+
+    /**
+     * Due-date scan: tasks with a notice pending and a due date before {@code until}, after
+     * (afterDue, afterId) in due order. Matches the partial index idx_tasks_due_pending (V9).
+     */
+    @Query("""
+            select new org.example.smarttaskmanager.scheduler.TaskDeadline(t.id, t.dueDate, t.dueNotified) from Task t
+            where t.dueNotified < 2 and t.dueDate is not null
+              and (t.status is null or t.status <> org.example.smarttaskmanager.model.Task$Status.CLOSED)
+              and t.dueDate < :until
+              and (t.dueDate > :afterDue or (t.dueDate = :afterDue and t.id > :afterId))
+            order by t.dueDate, t.id
+            """)
+    List<TaskDeadline> findPendingDue(@Param("afterDue") LocalDateTime afterDue,
+                                      @Param("afterId") long afterId,
+                                      @Param("until") LocalDateTime until,
+                                      Limit limit);
+
+    @Query("select count(t) from Task t where t.assignedTo.id = :userId and t.archived = false")
+    long countByUser(@Param("userId") Long userId);
+
+    @Query("select count(t) from Task t where t.assignedTo.id = :userId and t.status = :status and (t.archived = false or t.archived = :cold)")
+    long countByUserAndStatus(@Param("userId") Long userId,
+                              @Param("status") Task.Status status,
+                              @Param("cold") boolean cold);
+
+    /**
+     * PostgreSQL-only ranked search (see PostgresTaskSearchEngine).
+     * Uses the search_vector and pg_trgm GIN indexes from V2__task_search_index.sql.
+     * Reads the cold partition (V11) only when cold is true.
+     */
+    @Query(value = """
+            SELECT t.* FROM tasks t
+            WHERE t.assigned_to_id = :userId
+              AND (CAST(:status AS varchar) IS NULL OR t.status = CAST(:status AS varchar))
+              AND (t.archived = false OR t.archived = :cold)
+              AND ((:tsQuery <> '' AND t.search_vector @@ to_tsquery('simple', :tsQuery))
+                   OR t.title ILIKE :pattern
+                   OR t.description ILIKE :pattern)
+            ORDER BY ts_rank(t.search_vector, to_tsquery('simple', :tsQuery)) DESC, t.id DESC
+            """,
+            countQuery = """
+            SELECT count(*) FROM tasks t
+            WHERE t.assigned_to_id = :userId
+              AND (CAST(:status AS varchar) IS NULL OR t.status = CAST(:status AS varchar))
+              AND (t.archived = false OR t.archived = :cold)
+              AND ((:tsQuery <> '' AND t.search_vector @@ to_tsquery('simple', :tsQuery))
+                   OR t.title ILIKE :pattern
+                   OR t.description ILIKE :pattern)
+            """,
+            nativeQuery = true)
+    Page<Task> searchFullText(@Param("userId") Long userId,
+                              @Param("status") String status,
+                              @Param("cold") boolean cold,
+                              @Param("tsQuery") String tsQuery,
+                              @Param("pattern") String pattern,
+                              Pageable pageable);
+
+    // Ownership-checked, rows locked until commit (SELECT ... FOR UPDATE) in id order so
+    // overlapping batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids and t.assignedTo.id = :userId order by t.id")
+    List<Task> findAllOwnedForUpdate(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 
-    List<Task> findByAssignedTo(User user);
-    Page<Task> findByAssignedTo(User user, Pageable pageable);
-    Page<Task> findByAssignedToAndTitleContainingIgnoreCase(User user, String title, Pageable pageable);
+    /**
+     * Forward-only cursor over a user's tasks for exports, archived ones included.
+     * Rows are fetched 500 at a time; must be consumed inside a transaction and closed.
+     *
+     * @param status  null for all statuses
+     * @param pattern lower-case LIKE pattern (backslash escapes) matched against title and description,
+     *                null for no search
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from Task t
+            where t.assignedTo.id = :userId
+              and (:status is null or t.status = :status)
+              and (:pattern is null
+                   or lower(t.title) like :pattern escape '\\'
+                   or lower(t.description) like :pattern escape '\\')
+            order by t.id
+            """)
+    Stream<Task> streamForExport(@Param("userId") Long userId,
+                                 @Param("status") Task.Status status,
+                                 @Param("pattern") String pattern);
 
-    Page<Task> findByAssignedToAndStatusAndTitleContainingIgnoreCase(User user, Task.Status status, String s, Pageable pageable);
+    // Ownership-checked bulk delete in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Task t where t.id in :ids and t.assignedTo.id = :userId")
+    int deleteAllOwned(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
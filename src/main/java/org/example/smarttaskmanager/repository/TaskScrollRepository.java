@@ -0,0 +1,21 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+
+import java.util.List;
+
+/**
+ * Keyset ("seek") pagination over a user's tasks.
+ * Each slice is one index range scan from the cursor: no OFFSET and no count(*).
+ */
+public interface TaskScrollRepository {
+
+    /**
+     * @param status null for all statuses
+     * @param cold   archived tasks too, not only hot ones (see TaskArchiver)
+     * @param after  null for the first slice
+     * @return at most {@code limit} tasks following the cursor, in {@code sort} order
+     */
+    List<TaskResponse> scroll(Long userId, Task.Status status, boolean cold, TaskCursor.Sort sort, TaskCursor after, int limit);
+}
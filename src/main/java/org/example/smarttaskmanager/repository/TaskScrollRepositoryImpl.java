@@ -0,0 +1,76 @@
+package org.example.smarttaskmanager.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+
+import java.util.List;
+
+/**
+ * JPQL behind {@link TaskScrollRepository}.
+ * The ORDER BY of each sort matches a composite index (see V3__task_keyset_indexes.sql).
+ */
+public class TaskScrollRepositoryImpl implements TaskScrollRepository {
+
+    private static final String SELECT_RESPONSE = "select new " + TaskResponse.class.getName()
+            + "(t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.createdAt, t.updatedAt, t.assignedTo.id)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskResponse> scroll(Long userId, Task.Status status, boolean cold, TaskCursor.Sort sort, TaskCursor after, int limit) {
+
+        StringBuilder jpql = new StringBuilder(SELECT_RESPONSE + " from Task t where t.assignedTo.id = :userId");
+
+        if (status != null) {
+            jpql.append(" and t.status = :status");
+        }
+        if (!cold) {
+            jpql.append(" and t.archived = false"); // a literal: PostgreSQL prunes the cold partition when planning
+        }
+
+        if (after != null) {
+            jpql.append(seekPredicate(sort, after));
+        }
+
+        jpql.append(sort == TaskCursor.Sort.UPDATED_AT
+                ? " order by t.updatedAt desc nulls first, t.id desc"
+                : " order by t.dueDate asc nulls last, t.id asc");
+
+        TypedQuery<TaskResponse> query = entityManager.createQuery(jpql.toString(), TaskResponse.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (after != null) {
+            query.setParameter("id", after.getId());
+            if (after.getValue() != null) {
+                query.setParameter("value", after.getValue());
+            }
+        }
+
+        return query.getResultList();
+    }
+
+    // Rows strictly after the cursor in sort order
+    private static String seekPredicate(TaskCursor.Sort sort, TaskCursor after) {
+        if (sort == TaskCursor.Sort.UPDATED_AT) {
+            // updatedAt descending, nulls first (PostgreSQL's DESC): the null segment leads
+            if (after.getValue() == null) {
+                return " and ((t.updatedAt is null and t.id < :id) or t.updatedAt is not null)";
+            }
+            return " and (t.updatedAt < :value or (t.updatedAt = :value and t.id < :id))";
+        }
+
+        // dueDate ascending, nulls last: once in the null segment only ids move forward
+        if (after.getValue() == null) {
+            return " and t.dueDate is null and t.id > :id";
+        }
+        return " and (t.dueDate > :value or (t.dueDate = :value and t.id > :id) or t.dueDate is null)";
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.model.TaskTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    // Ids of the tasks deleted in versions (since, upTo], range scan on (user_id, version)
+    @Query("select t.taskId from TaskTombstone t where t.userId = :userId and t.version > :since and t.version <= :upTo order by t.version, t.taskId")
+    List<Long> findDeletedIds(@Param("userId") Long userId,
+                              @Param("since") long since,
+                              @Param("upTo") long upTo,
+                              Limit limit);
+}
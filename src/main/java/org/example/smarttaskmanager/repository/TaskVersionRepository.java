@@ -0,0 +1,7 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.model.TaskVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TaskVersionRepository extends JpaRepository<TaskVersion, Long> {
+}
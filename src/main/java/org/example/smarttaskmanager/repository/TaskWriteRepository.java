@@ -0,0 +1,30 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Single-task writes as one statement each: the ownership check, the row lock, the write
+ * and the state the events need all come from one ... RETURNING round trip.
+ */
+public interface TaskWriteRepository {
+
+    /**
+     * Apply the non-null fields of {@code change} to the task, if the user owns it.
+     * Same rules as a change loaded and applied in memory (see TaskService.applyChanges).
+     *
+     * @return the task before and after, empty when the user owns no task with this id
+     */
+    Optional<OwnedUpdate> updateOwned(Long id, Long userId, Task change, LocalDateTime now, long version);
+
+    /**
+     * @return the task as it was, empty when the user owns no task with this id
+     */
+    Optional<TaskResponse> deleteOwned(Long id, Long userId);
+
+    record OwnedUpdate(TaskResponse previous, Task task) {
+    }
+}
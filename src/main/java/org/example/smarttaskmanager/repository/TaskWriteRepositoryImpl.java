@@ -0,0 +1,135 @@
+package org.example.smarttaskmanager.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PostgreSQL behind {@link TaskWriteRepository}, on the JPA transaction's connection.
+ *
+ * The update locks the row in a CTE (old) and updates it in the same statement: old is
+ * the latest committed state the update replaces, which goes into the event. SET
+ * expressions read the row before the change, like the rules they mirror.
+ */
+public class TaskWriteRepositoryImpl implements TaskWriteRepository {
+
+    private static final String UPDATE = """
+            with change as (
+                select cast(? as varchar) as title, cast(? as varchar) as description,
+                       cast(? as varchar) as priority, cast(? as timestamp(6)) as due_date,
+                       cast(? as varchar) as status
+            ), old as (
+                select * from tasks where id = ? and assigned_to_id = ? for update
+            )
+            update tasks t set
+                title = coalesce(c.title, t.title),
+                description = coalesce(c.description, t.description),
+                priority = coalesce(c.priority, t.priority),
+                due_date = coalesce(c.due_date, t.due_date),
+                due_notified = case when coalesce(c.due_date, t.due_date) is distinct from t.due_date
+                                    then 0 else t.due_notified end,
+                status = coalesce(c.status, t.status),
+                updated_at = ?,
+                change_version = ?,
+                archived = t.archived and coalesce(c.status, t.status) = 'CLOSED'
+            from change c, old
+            where t.id = old.id and t.archived = old.archived
+            returning old.id as old_id, old.title as old_title, old.description as old_description,
+                      old.status as old_status, old.priority as old_priority, old.due_date as old_due_date,
+                      old.created_at as old_created_at, old.updated_at as old_updated_at,
+                      t.id, t.title, t.description, t.status, t.priority, t.due_date, t.created_at,
+                      t.updated_at, t.change_version, t.due_notified, t.archived
+            """;
+
+    private static final String DELETE = """
+            delete from tasks where id = ? and assigned_to_id = ?
+            returning id, title, description, status, priority, due_date, created_at, updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskWriteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<OwnedUpdate> updateOwned(Long id, Long userId, Task change, LocalDateTime now, long version) {
+        List<OwnedUpdate> rows = jdbcTemplate.query(UPDATE,
+                (rs, rowNum) -> new OwnedUpdate(response(rs, "old_", userId), task(rs, userId)),
+                change.getTitle(),
+                change.getDescription(),
+                name(change.getPriority()),
+                change.getDueDate(),
+                name(change.getStatus()),
+                id,
+                userId,
+                now,
+                version);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public Optional<TaskResponse> deleteOwned(Long id, Long userId) {
+        return jdbcTemplate.query(DELETE, (rs, rowNum) -> response(rs, "", userId), id, userId)
+                .stream()
+                .findFirst();
+    }
+
+    // ================= HELPERS =================
+
+    private static TaskResponse response(ResultSet rs, String prefix, Long userId) throws SQLException {
+        return new TaskResponse(
+                rs.getLong(prefix + "id"),
+                rs.getString(prefix + "title"),
+                rs.getString(prefix + "description"),
+                status(rs.getString(prefix + "status")),
+                priority(rs.getString(prefix + "priority")),
+                rs.getObject(prefix + "due_date", LocalDateTime.class),
+                rs.getObject(prefix + "created_at", LocalDateTime.class),
+                rs.getObject(prefix + "updated_at", LocalDateTime.class),
+                userId
+        );
+    }
+
+    // Detached, with a reference to its owner: what a loaded and changed task would carry
+    private Task task(ResultSet rs, Long userId) throws SQLException {
+        Task task = new Task();
+        task.setId(rs.getLong("id"));
+        task.setTitle(rs.getString("title"));
+        task.setDescription(rs.getString("description"));
+        task.setStatus(status(rs.getString("status")));
+        task.setPriority(priority(rs.getString("priority")));
+        task.setDueDate(rs.getObject("due_date", LocalDateTime.class));
+        task.setAssignedTo(entityManager.getReference(User.class, userId));
+        task.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        task.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        task.setChangeVersion(rs.getLong("change_version"));
+        task.setDueNotified(rs.getInt("due_notified"));
+        task.setArchived(rs.getBoolean("archived"));
+        return task;
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static Task.Status status(String value) {
+        return value != null ? Task.Status.valueOf(value) : null;
+    }
+
+    private static Task.Priority priority(String value) {
+        return value != null ? Task.Priority.valueOf(value) : null;
+    }
+}
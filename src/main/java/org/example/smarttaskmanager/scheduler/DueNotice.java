@@ -0,0 +1,23 @@
+package org.example.smarttaskmanager.scheduler;
+
+import lombok.Value;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notice to send for a task, valid only while the task still has this due date.
+ */
+@Value
+class DueNotice {
+
+    int shard; // of the task's owner, where it is claimed
+    Long taskId;
+    LocalDateTime dueDate;
+    TaskChangedEvent.Type type; // DUE_SOON or OVERDUE
+
+    // Value of tasks.due_notified once sent
+    int level() {
+        return type == TaskChangedEvent.Type.DUE_SOON ? 1 : 2;
+    }
+}
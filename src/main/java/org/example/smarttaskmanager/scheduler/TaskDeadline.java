@@ -0,0 +1,16 @@
+package org.example.smarttaskmanager.scheduler;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task's due date and the notices already sent for it, as read by the due-date scan.
+ */
+@Value
+public class TaskDeadline {
+
+    Long taskId;
+    LocalDateTime dueDate;
+    int dueNotified;
+}
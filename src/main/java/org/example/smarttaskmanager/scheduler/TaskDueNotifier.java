@@ -0,0 +1,87 @@
+package org.example.smarttaskmanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.event.TaskDueEvent;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends due-date notices, each exactly once across all nodes.
+ *
+ * A notice is claimed by moving tasks.due_notified up, only if the task still has the
+ * notice's due date and is not closed. The claim and the outbox row (TaskDueEvent →
+ * TaskOutboxWriter) commit together: a notice is either claimed and sent, or neither.
+ * The tasks of a user who moved to another shard are not claimed on the old one.
+ */
+@Service
+@RequiredArgsConstructor
+class TaskDueNotifier {
+
+    // The due date within a microsecond: the column rounds what the entity held in nanoseconds
+    private static final String CLAIM = """
+            update tasks set due_notified = ?
+            where id = ? and due_date between ? and ? and due_notified < ? and (status is null or status <> 'CLOSED')
+              and not exists (select 1 from task_versions v where v.user_id = tasks.assigned_to_id and v.moved_at is not null)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Claim and send the notices nobody sent yet, as one JDBC batch and one transaction.
+     *
+     * @param shard the shard all the notices are on
+     * @return the notices sent by this call; the others were stale or sent elsewhere
+     */
+    @Transactional
+    public List<DueNotice> send(int shard, List<DueNotice> notices) {
+        taskShards.bindShard(shard);
+        List<Object[]> rows = notices.stream()
+                .map(notice -> new Object[]{
+                        notice.level(),
+                        notice.getTaskId(),
+                        Timestamp.valueOf(notice.getDueDate().minus(1, ChronoUnit.MICROS)),
+                        Timestamp.valueOf(notice.getDueDate().plus(1, ChronoUnit.MICROS)),
+                        notice.level()
+                })
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate(CLAIM, rows);
+
+        List<DueNotice> claimed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                claimed.add(notices.get(i));
+            }
+        }
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+
+        // The events carry the task as it is now (the payload of the outbox message)
+        Map<Long, Task> tasks = taskRepository.findAllById(claimed.stream().map(DueNotice::getTaskId).toList()).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        for (DueNotice notice : claimed) {
+            Task task = tasks.get(notice.getTaskId());
+            eventPublisher.publishEvent(notice.getType() == TaskChangedEvent.Type.DUE_SOON
+                    ? TaskDueEvent.dueSoon(task)
+                    : TaskDueEvent.overdue(task));
+        }
+        return claimed;
+    }
+}
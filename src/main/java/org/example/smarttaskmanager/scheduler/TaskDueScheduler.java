@@ -0,0 +1,285 @@
+package org.example.smarttaskmanager.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Due-date notices: DUE_SOON at dueDate - lead, OVERDUE at dueDate (outbox messages).
+ *
+ * - Bounded: only the notices due within the window (now + lead + horizon) are armed, at
+ *   most max-armed of them, in a timing wheel. The scan walks the pending ones in due
+ *   order (keyset, partial index of V9) and picks up where it stopped, so the window moves
+ *   with the clock and millions of later deadlines stay in the database.
+ * - Re-armed after commit on every task change made on this node, if it falls in the
+ *   part of the window already scanned; the scan gets the rest. Changes made on other
+ *   nodes are seen at the next rescan from the start (rescan-interval).
+ * - Fired in batches: each tick claims and sends the expired notices through
+ *   TaskDueNotifier, which sends a notice only once however many nodes hold it. A stale
+ *   notice (due date changed, task closed or deleted) fails the claim and is dropped.
+ * - Restart-safe: what was sent is in tasks.due_notified. After a restart the scan starts
+ *   from the oldest pending notice, so missed ones go out late instead of never.
+ * - Per shard: each shard is scanned with a window position of its own; max-armed is shared.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.tasks.due.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskDueScheduler {
+
+    // Scan start: before any due date
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    private final TaskRepository taskRepository;
+    private final TaskDueNotifier notifier;
+    private final TaskShards taskShards;
+    private final Duration lead;
+    private final Duration horizon;
+    private final Duration rescanInterval;
+    private final Duration retryDelay;
+    private final int maxArmed;
+    private final int batchSize;
+    private final Counter sent;
+    private final Clock clock;
+
+    // Guarded by this
+    private final TimingWheel<DueNotice> wheel;
+    private final Map<Long, TimingWheel.Timer<DueNotice>> armed = new HashMap<>();
+    // Per shard: every pending notice up to this (due date, id) is armed
+    private final LocalDateTime[] scannedDue;
+    private final long[] scannedId;
+    private LocalDateTime nextRescan;
+
+    @Autowired
+    public TaskDueScheduler(TaskRepository taskRepository,
+                            TaskDueNotifier notifier,
+                            TaskShards taskShards,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.tasks.due.lead:1h}") Duration lead,
+                            @Value("${app.tasks.due.horizon:5m}") Duration horizon,
+                            @Value("${app.tasks.due.rescan-interval:10m}") Duration rescanInterval,
+                            @Value("${app.tasks.due.retry-delay:30s}") Duration retryDelay,
+                            @Value("${app.tasks.due.max-armed:100000}") int maxArmed,
+                            @Value("${app.tasks.due.batch-size:500}") int batchSize,
+                            @Value("${app.tasks.due.tick-ms:1000}") long tickMs) {
+        this(taskRepository, notifier, taskShards, meterRegistry, lead, horizon, rescanInterval, retryDelay,
+                maxArmed, batchSize, tickMs, Clock.systemDefaultZone());
+    }
+
+    TaskDueScheduler(TaskRepository taskRepository, TaskDueNotifier notifier, TaskShards taskShards,
+                     MeterRegistry meterRegistry, Duration lead, Duration horizon, Duration rescanInterval,
+                     Duration retryDelay, int maxArmed, int batchSize, long tickMs, Clock clock) {
+        this.taskRepository = taskRepository;
+        this.notifier = notifier;
+        this.taskShards = taskShards;
+        this.lead = lead;
+        this.horizon = horizon;
+        this.rescanInterval = rescanInterval;
+        this.retryDelay = retryDelay;
+        this.maxArmed = maxArmed;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickMs, clock.millis());
+        this.scannedDue = new LocalDateTime[taskShards.count()];
+        this.scannedId = new long[taskShards.count()];
+        Arrays.fill(scannedDue, SCAN_START);
+        this.nextRescan = LocalDateTime.now(clock).plus(rescanInterval);
+
+        Gauge.builder("task.due.armed", this, scheduler -> scheduler.armedCount())
+                .description("Due-date notices armed on this node")
+                .register(meterRegistry);
+        this.sent = Counter.builder("task.due.sent")
+                .description("Due-date notices sent by this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Arm the pending notices of the next part of the window, page by page, up to max-armed.
+     */
+    @Scheduled(fixedDelayString = "${app.tasks.due.scan-interval-ms:60000}")
+    public void scan() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (now.isAfter(nextRescan)) {
+            // From the start: picks up the due dates other nodes moved into the scanned part
+            synchronized (this) {
+                Arrays.fill(scannedDue, SCAN_START);
+                Arrays.fill(scannedId, 0);
+            }
+            nextRescan = now.plus(rescanInterval);
+        }
+
+        LocalDateTime until = now.plus(lead).plus(horizon);
+        for (int shard = 0; shard < scannedDue.length; shard++) {
+            int loaded = scanShard(shard, until);
+            if (loaded > 0) {
+                log.debug("Armed {} due-date notices of shard {} up to {}", loaded, shard, until);
+            }
+        }
+    }
+
+    /**
+     * Fire what is due, shard by shard in batches of batch-size notices.
+     */
+    @Scheduled(fixedRateString = "${app.tasks.due.tick-ms:1000}")
+    public void tick() {
+        List<DueNotice> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(clock.millis(), notice -> {
+                armed.remove(notice.getTaskId());
+                due.add(notice);
+            });
+        }
+
+        Map<Integer, List<DueNotice>> byShard = due.stream()
+                .collect(Collectors.groupingBy(DueNotice::getShard, TreeMap::new, Collectors.toList()));
+        byShard.forEach((shard, notices) -> {
+            for (int from = 0; from < notices.size(); from += batchSize) {
+                send(shard, notices.subList(from, Math.min(from + batchSize, notices.size())));
+            }
+        });
+    }
+
+    // After commit: re-arm from the task's new state
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Task task = event.getTask();
+        int shard = task != null ? taskShards.shardOf(event.getUserId()) : 0;
+        synchronized (this) {
+            TimingWheel.Timer<DueNotice> previous = armed.remove(event.getTaskId());
+            if (previous != null) {
+                wheel.cancel(previous);
+            }
+            if (task == null || task.getStatus() == Task.Status.CLOSED || !scanned(shard, task)) {
+                return; // deleted, closed, or for the scan to find
+            }
+            DueNotice notice = nextNotice(shard, task.getId(), task.getDueDate(), task.getDueNotified());
+            if (notice != null) {
+                arm(notice);
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private int scanShard(int shard, LocalDateTime until) {
+        int loaded = 0;
+        while (true) {
+            LocalDateTime afterDue;
+            long afterId;
+            int room;
+            synchronized (this) {
+                afterDue = scannedDue[shard];
+                afterId = scannedId[shard];
+                room = maxArmed - armed.size();
+            }
+            if (room <= 0 || !afterDue.isBefore(until)) {
+                return loaded;
+            }
+
+            int limit = Math.min(batchSize, room);
+            List<TaskDeadline> page = taskShards.call(shard,
+                    () -> taskRepository.findPendingDue(afterDue, afterId, until, Limit.of(limit)));
+            synchronized (this) {
+                for (TaskDeadline deadline : page) {
+                    DueNotice notice = nextNotice(shard, deadline.getTaskId(), deadline.getDueDate(), deadline.getDueNotified());
+                    // Only if absent: an entry armed meanwhile by a commit is newer than this read
+                    if (notice != null && !armed.containsKey(deadline.getTaskId())) {
+                        arm(notice);
+                        loaded++;
+                    }
+                }
+                if (page.size() < limit) {
+                    scannedDue[shard] = until; // the whole window is armed
+                    scannedId[shard] = 0;
+                    return loaded;
+                }
+                TaskDeadline last = page.get(page.size() - 1);
+                scannedDue[shard] = last.getDueDate();
+                scannedId[shard] = last.getTaskId();
+            }
+        }
+    }
+
+    private void send(int shard, List<DueNotice> batch) {
+        try {
+            List<DueNotice> claimed = notifier.send(shard, batch);
+            sent.increment(claimed.size());
+            synchronized (this) {
+                // Due soon sent: overdue next
+                for (DueNotice notice : claimed) {
+                    if (notice.getType() == TaskChangedEvent.Type.DUE_SOON && !armed.containsKey(notice.getTaskId())) {
+                        arm(new DueNotice(shard, notice.getTaskId(), notice.getDueDate(), TaskChangedEvent.Type.OVERDUE));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("{} due-date notices not sent, retrying in {}s: {}", batch.size(), retryDelay.toSeconds(), e.toString());
+            long retryAt = clock.millis() + retryDelay.toMillis();
+            synchronized (this) {
+                for (DueNotice notice : batch) {
+                    if (!armed.containsKey(notice.getTaskId())) {
+                        armed.put(notice.getTaskId(), wheel.add(retryAt, notice));
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized int armedCount() {
+        return armed.size();
+    }
+
+    // Caller holds the lock
+    private void arm(DueNotice notice) {
+        LocalDateTime fireAt = notice.getType() == TaskChangedEvent.Type.DUE_SOON
+                ? notice.getDueDate().minus(lead)
+                : notice.getDueDate();
+        TimingWheel.Timer<DueNotice> previous = armed.put(notice.getTaskId(),
+                wheel.add(fireAt.atZone(clock.getZone()).toInstant().toEpochMilli(), notice));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    // Caller holds the lock
+    private boolean scanned(int shard, Task task) {
+        if (task.getDueDate() == null) {
+            return false;
+        }
+        int order = task.getDueDate().compareTo(scannedDue[shard]);
+        return order < 0 || (order == 0 && task.getId() <= scannedId[shard]);
+    }
+
+    // The first notice not sent yet; a task already past due skips straight to OVERDUE
+    private DueNotice nextNotice(int shard, Long taskId, LocalDateTime dueDate, int dueNotified) {
+        if (dueDate == null || dueNotified >= 2) {
+            return null;
+        }
+        TaskChangedEvent.Type type = dueNotified == 0 && dueDate.isAfter(LocalDateTime.now(clock))
+                ? TaskChangedEvent.Type.DUE_SOON
+                : TaskChangedEvent.Type.OVERDUE;
+        return new DueNotice(shard, taskId, dueDate, type);
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.smarttaskmanager.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: O(1) to add or cancel a timer, expired timers in tick order.
+ *
+ * LEVELS wheels of SLOTS slots each; a slot of level k spans SLOTS^k ticks. A timer goes
+ * to the lowest level whose window (the ticks that agree with the current tick above that
+ * level's digit) contains its tick. When the clock reaches the start of a higher-level
+ * slot, that slot's timers cascade down; level-0 slots hold exactly one tick, so their
+ * timers are due. Timers more than SLOTS^LEVELS ticks away are refused.
+ *
+ * Not thread-safe: the owner serializes access.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMs;
+    private final long startMs;
+    private final Timer<T>[][] slots; // sentinel heads of circular lists
+    private long currentTick;         // next tick to process, relative to startMs
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.startMs = startMs;
+        this.slots = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedule {@code value} at {@code fireAtMs}; a time already passed fires on the next tick.
+     */
+    Timer<T> add(long fireAtMs, T value) {
+        // Rounded up: a timer never fires before its time
+        long tick = Math.max(currentTick, Math.floorDiv(fireAtMs - startMs + tickMs - 1, tickMs));
+        if (tick - currentTick >= 1L << (SLOT_BITS * LEVELS)) {
+            throw new IllegalArgumentException("Timer beyond the wheel's range: " + fireAtMs);
+        }
+        Timer<T> timer = new Timer<>(tick, value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    void cancel(Timer<T> timer) {
+        if (timer.linked()) {
+            timer.unlink();
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Move the clock to {@code nowMs}, handing every timer due by then to {@code expired}
+     * in tick order.
+     */
+    void advance(long nowMs, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMs - startMs, tickMs);
+        while (currentTick <= nowTick) {
+            if (size == 0) {
+                currentTick = nowTick + 1; // nothing to cascade or fire on the way
+                return;
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & MASK);
+                }
+            }
+            for (Timer<T> timer : drain(slots[0][(int) currentTick & MASK])) {
+                size--;
+                expired.accept(timer.value);
+            }
+            currentTick++;
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private void place(Timer<T> timer) {
+        int level = 0;
+        // Lowest level where the timer's tick and the current one share the higher digits
+        while (level < LEVELS - 1 && (timer.tick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) (timer.tick >>> (SLOT_BITS * level)) & MASK;
+        slots[level][slot].linkBefore(timer);
+    }
+
+    private void cascade(int level, int slot) {
+        for (Timer<T> timer : drain(slots[level][slot])) {
+            place(timer);
+        }
+    }
+
+    private static <T> List<Timer<T>> drain(Timer<T> head) {
+        List<Timer<T>> timers = new ArrayList<>();
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            timer.unlink();
+            timers.add(timer);
+        }
+        return timers;
+    }
+
+    /**
+     * A scheduled value; the handle to cancel it.
+     */
+    static final class Timer<T> {
+
+        private final long tick;
+        private final T value;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long tick, T value) {
+            this.tick = tick;
+            this.value = value;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> head = new Timer<>(-1, null);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        T value() {
+            return value;
+        }
+
+        private boolean linked() {
+            return next != null;
+        }
+
+        private void linkBefore(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.example.smarttaskmanager.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.event.TasksArchivedEvent;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fallback search for databases without full-text/trigram indexes (H2, ...).
+ *
+ * Keeps one inverted index per user, built on that user's first search and
+ * kept current from TaskChangedEvents. Indexes of inactive users are evicted
+ * and simply rebuilt when needed again.
+ *
+ * Ranking: a word found in the title counts more than in the description,
+ * and an exact word counts more than a prefix match.
+ */
+public class InMemoryTaskSearchEngine implements TaskSearchEngine {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_BONUS = 2;
+
+    private static final int CHANGE_STRIPES = 1024;
+
+    private final TaskRepository taskRepository;
+    private final Cache<Long, UserIndex> indexes;
+
+    // Bumped on every change of a user's tasks (users share stripes): tells a build it raced a change
+    private final AtomicLongArray changeStamps = new AtomicLongArray(CHANGE_STRIPES);
+
+    public InMemoryTaskSearchEngine(TaskRepository taskRepository, long maxIndexedUsers) {
+        this.taskRepository = taskRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxIndexedUsers)
+                .build();
+    }
+
+    @Override
+    public Page<TaskResponse> search(Long userId, String query, Task.Status status, boolean cold, Pageable pageable) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        UserIndex index = indexFor(userId);
+
+        List<Long> ranked = index.search(tokens, status, cold);
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, to);
+
+        // Load the page and put it back into ranking order
+        Map<Long, Task> byId = taskRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<TaskResponse> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(TaskResponse::from)
+                .toList();
+
+        return new PageImpl<>(content, pageable, ranked.size());
+    }
+
+    // Applied after commit so a concurrent rebuild never misses the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        changeStamps.incrementAndGet(stripe(event.getUserId()));
+        indexes.asMap().computeIfPresent(event.getUserId(), (userId, index) -> {
+            if (event.getType() == TaskChangedEvent.Type.DELETED) {
+                index.remove(event.getTaskId());
+            } else {
+                index.put(event.getTask());
+            }
+            return index;
+        });
+    }
+
+    // Archiving changes no task event covers: rebuild the user's index on their next search
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksArchived(TasksArchivedEvent event) {
+        changeStamps.incrementAndGet(stripe(event.getUserId()));
+        indexes.invalidate(event.getUserId());
+    }
+
+    /**
+     * The user's index, built on a miss.
+     * The build runs outside the cache's compute (a synchronized block): a JDBC call in
+     * there would pin the carrier thread under virtual threads and block other keys.
+     * A build that raced a change of the user's tasks is used once but not cached.
+     */
+    private UserIndex indexFor(Long userId) {
+        UserIndex cached = indexes.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = changeStamps.get(stripe(userId));
+        UserIndex built = new UserIndex();
+        taskRepository.findByAssignedToId(userId).forEach(built::put);
+
+        if (changeStamps.get(stripe(userId)) != stamp) {
+            return built;
+        }
+        UserIndex raced = indexes.asMap().putIfAbsent(userId, built);
+        return raced != null ? raced : built;
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (CHANGE_STRIPES - 1);
+    }
+
+    /**
+     * Inverted index of one user's tasks: word → (task id → weight).
+     * Sorted words make prefix lookups a range scan.
+     */
+    private static class UserIndex {
+
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private record Document(Task.Status status, boolean archived, Set<String> words) {
+        }
+
+        void put(Task task) {
+            Map<String, Integer> weights = new HashMap<>();
+            SearchTokenizer.tokenize(task.getTitle())
+                    .forEach(word -> weights.merge(word, TITLE_WEIGHT, Integer::sum));
+            SearchTokenizer.tokenize(task.getDescription())
+                    .forEach(word -> weights.merge(word, DESCRIPTION_WEIGHT, Integer::sum));
+
+            lock.writeLock().lock();
+            try {
+                removeLocked(task.getId());
+                weights.forEach((word, weight) ->
+                        postings.computeIfAbsent(word, w -> new HashMap<>()).put(task.getId(), weight));
+                documents.put(task.getId(), new Document(task.getStatus(), task.isArchived(), weights.keySet()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long taskId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(taskId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long taskId) {
+            Document old = documents.remove(taskId);
+            if (old == null) {
+                return;
+            }
+            for (String word : old.words()) {
+                Map<Long, Integer> tasks = postings.get(word);
+                if (tasks != null) {
+                    tasks.remove(taskId);
+                    if (tasks.isEmpty()) {
+                        postings.remove(word);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return ids of tasks matching every word (as exact word or prefix), best first
+         */
+        List<Long> search(List<String> words, Task.Status status, boolean cold) {
+            lock.readLock().lock();
+            try {
+                Map<Long, Integer> scores = null;
+                for (String word : words) {
+                    Map<Long, Integer> wordScores = new HashMap<>();
+                    postings.subMap(word, true, word + Character.MAX_VALUE, false)
+                            .forEach((indexed, tasks) -> {
+                                int bonus = indexed.equals(word) ? EXACT_BONUS : 1;
+                                tasks.forEach((taskId, weight) ->
+                                        wordScores.merge(taskId, weight * bonus, Integer::sum));
+                            });
+
+                    if (scores == null) {
+                        scores = wordScores;
+                    } else {
+                        // AND semantics: keep only tasks that matched every word so far
+                        scores.keySet().retainAll(wordScores.keySet());
+                        Map<Long, Integer> current = scores;
+                        wordScores.forEach((taskId, score) -> current.computeIfPresent(taskId, (id, s) -> s + score));
+                    }
+                }
+                if (scores == null) {
+                    return List.of();
+                }
+
+                return scores.entrySet().stream()
+                        .filter(e -> matches(documents.get(e.getKey()), status, cold))
+                        .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                                .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static boolean matches(Document document, Task.Status status, boolean cold) {
+            return (status == null || document.status() == status) && (cold || !document.archived());
+        }
+    }
+}
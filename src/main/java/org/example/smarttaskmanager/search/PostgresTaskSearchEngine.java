@@ -0,0 +1,48 @@
+package org.example.smarttaskmanager.search;
+
+import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL search backed by the GIN indexes created in V2__task_search_index.sql:
+ * - tasks.search_vector (title weighted above description) for ranked word/prefix matches
+ * - pg_trgm indexes on title/description so plain substrings ("port" in "report") stay indexed
+ */
+@RequiredArgsConstructor
+public class PostgresTaskSearchEngine implements TaskSearchEngine {
+
+    private final TaskRepository taskRepository;
+
+    @Override
+    public Page<TaskResponse> search(Long userId, String query, Task.Status status, boolean cold, Pageable pageable) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+
+        // Every word must match, each one as a prefix: "rep qua" → rep:* & qua:*
+        String tsQuery = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return taskRepository.searchFullText(
+                userId,
+                status != null ? status.name() : null,
+                cold,
+                tsQuery,
+                "%" + escapeLike(query.trim()) + "%",
+                pageable
+        ).map(TaskResponse::from);
+    }
+
+    // LIKE/ILIKE with the default escape character (backslash): the text matches literally
+    public static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.smarttaskmanager.search;
+
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Searches a user's tasks by title and description.
+ * Results are ordered by relevance; every query word also matches as a prefix.
+ */
+public interface TaskSearchEngine {
+
+    /**
+     * @param status null for all statuses
+     * @param cold   archived tasks too, not only hot ones (see TaskArchiver)
+     */
+    Page<TaskResponse> search(Long userId, String query, Task.Status status, boolean cold, Pageable pageable);
+}
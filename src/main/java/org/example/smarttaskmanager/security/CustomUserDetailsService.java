@@ -3,9 +3,9 @@ package org.example.smarttaskmanager.security;
 import lombok.RequiredArgsConstructor;
 import org.example.smarttaskmanager.model.User;
 import org.example.smarttaskmanager.repository.UserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -13,7 +13,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Read-only: may be answered by a replica (see ReplicaRoutingDataSource)
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email)
             throws UsernameNotFoundException {
 
@@ -22,12 +24,16 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found"));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),   // principal should be EMAIL
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.name()))
-                        .toList()
-        );
+        // principal name is the EMAIL, and it carries the user id
+        return UserPrincipal.fromUser(user);
+    }
+
+    // Read-write transaction → always the primary, for what a replica may not have yet
+    @Transactional
+    public UserDetails loadUserFromPrimary(String email)
+            throws UsernameNotFoundException {
+
+        return UserPrincipal.fromUser(userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
 }
\ No newline at end of file
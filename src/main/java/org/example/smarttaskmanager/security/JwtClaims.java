@@ -0,0 +1,20 @@
+package org.example.smarttaskmanager.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Verified contents of a JWT.
+ * Produced once per token by {@link JwtTokenProvider#parseToken(String)}.
+ */
+@Value
+public class JwtClaims {
+
+    String subject;        // user email
+    Long userId;           // null for tokens issued before ids were embedded
+    int tokenVersion;      // compared against User.tokenVersion
+    Set<String> roles;     // e.g. ROLE_USER
+    Instant expiresAt;
+}
@@ -1,14 +1,28 @@
 package org.example.smarttaskmanager.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.example.smarttaskmanager.model.Role;
+import org.example.smarttaskmanager.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.security.Key;
 
 @Component
@@ -17,22 +31,45 @@ public class JwtTokenProvider {
     private final Key secretKey;
     private final long expirationMs;
 
+    // Parser is immutable and thread-safe → build it once
+    private final JwtParser jwtParser;
+
+    // Verified tokens keyed by SHA-256 of the token, dropped when the token expires
+    private final Cache<String, JwtClaims> verifiedTokens;
+
+    // Signature verification time on a cache miss
+    private final Timer validParseTimer;
+    private final Timer invalidParseTimer;
+
     public JwtTokenProvider(
             @Value("${jwt.secret}") String jwtSecret,
-            @Value("${jwt.expiration}") long jwtExpirationMs
+            @Value("${jwt.expiration}") long jwtExpirationMs,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry
     ) {
         this.secretKey = Keys.hmacShaKeyFor(
                 Decoders.BASE64.decode(jwtSecret)
         );
         this.expirationMs = jwtExpirationMs;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        // Same tag keys as Spring's cache metrics, or Prometheus drops one of the two sets
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens",
+                "cache.manager", "jwt", "name", "jwtVerifiedTokens");
+        this.validParseTimer = parseTimer(meterRegistry, "valid");
+        this.invalidParseTimer = parseTimer(meterRegistry, "invalid");
     }
 
     // Generate token for user
     public String generateToken(String email, Set<Role> roles) {  // rename param
-        String rolesString = roles.stream()
-                .map(Role::name)
-                .reduce((r1, r2) -> r1 + "," + r2)
-                .orElse("");
+        String rolesString = joinRoles(roles);
 
         return Jwts.builder()
                 .setSubject(email)  // use email, not username
@@ -43,35 +80,132 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    // Generate token carrying the user id and token version (used by stateless auth)
+    public String generateToken(User user) {
+        String rolesString = joinRoles(user.getRoles());
+
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim("uid", user.getId())
+                .claim("ver", user.getTokenVersion())
+                .claim("roles", rolesString)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(secretKey, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * Verify the token signature and expiry once and return its claims.
+     * Repeated calls with the same token are served from the verified-token cache.
+     *
+     * @return the claims, or empty if the token is invalid or expired
+     */
+    public Optional<JwtClaims> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String key = hash(token);
+        JwtClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long start = System.nanoTime();
+        try {
+            Claims body = jwtParser.parseClaimsJws(token).getBody();
+            Number userId = body.get("uid", Number.class);
+            Number tokenVersion = body.get("ver", Number.class);
+            JwtClaims claims = new JwtClaims(
+                    body.getSubject(),
+                    userId != null ? userId.longValue() : null,
+                    tokenVersion != null ? tokenVersion.intValue() : 0,
+                    splitRoles(body.get("roles", String.class)),
+                    body.getExpiration() != null ? body.getExpiration().toInstant() : Instant.MAX
+            );
+            verifiedTokens.put(key, claims);
+            validParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
+    }
+
     // Get username from token
     public String getEmailFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseToken(token)
+                .map(JwtClaims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
 
     // Get roles from token
     public Set<String> getRolesFromToken(String token) {
-        String rolesStr = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("roles", String.class);
-        if (rolesStr == null || rolesStr.isEmpty()) return Set.of();
-        return Set.of(rolesStr.split(","));
+        return parseToken(token)
+                .map(JwtClaims::getRoles)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
 
     // Validate token
     public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
+    }
+
+    // ================= HELPERS =================
+
+    private static String joinRoles(Set<Role> roles) {
+        return roles.stream()
+                .map(Role::name)
+                .reduce((r1, r2) -> r1 + "," + r2)
+                .orElse("");
+    }
+
+    private static Set<String> splitRoles(String rolesStr) {
+        if (rolesStr == null || rolesStr.isEmpty()) return Set.of();
+        return Set.of(rolesStr.split(","));
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.parse")
+                .description("JWT signature verification and claims parsing (verified-token cache misses)")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Keeps a cached entry exactly as long as the token itself is valid.
+     */
+    private static class UntilTokenExpiry implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            long remainingMs = claims.getExpiresAt().equals(Instant.MAX)
+                    ? Long.MAX_VALUE / 1_000_000
+                    : claims.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, remainingMs) * 1_000_000;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,105 @@
+package org.example.smarttaskmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last-login times, written behind: a login records its time here instead of saving the
+ * user, and every flush interval the recorded times go out as one JDBC batch of UPDATEs.
+ *
+ * - Last writer wins: a user's last_login only moves forward, whichever node flushes last.
+ * - record() returns the previous login. Recorded times stay known for a while after their
+ *   flush, so a login that read the user row just before one still gets the latest time.
+ *   Logins on other nodes are seen once they flushed.
+ * - Flushed on shutdown, after the web server stopped taking requests; a crash loses up to
+ *   one flush interval of last-login times.
+ */
+@Slf4j
+@Component
+public class LastLoginBuffer {
+
+    private static final String UPDATE =
+            "update users set last_login = ? where id = ? and (last_login is null or last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final Cache<Long, LocalDateTime> recent;
+
+    public LastLoginBuffer(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.auth.last-login.flush-interval-ms:5000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(flushIntervalMs).plusMinutes(1))
+                .build();
+    }
+
+    /**
+     * Record a login of the user now.
+     *
+     * @param user the user as read for this login
+     * @return the previous login, null for the first one
+     */
+    public LocalDateTime record(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime[] previous = new LocalDateTime[1];
+        recent.asMap().compute(user.getId(), (userId, recorded) -> {
+            previous[0] = latest(recorded, user.getLastLogin());
+            return latest(previous[0], now);
+        });
+        pending.merge(user.getId(), now, LastLoginBuffer::latest);
+        return previous[0];
+    }
+
+    // Failed → the times stay pending for the next run
+    @Scheduled(fixedDelayString = "${app.auth.last-login.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDateTime> batch = new HashMap<>(pending);
+        List<Object[]> rows = batch.entrySet().stream()
+                .map(login -> new Object[]{login.getValue(), login.getKey(), login.getValue()})
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE, rows));
+        // A login recorded meanwhile replaced its entry: it stays for the next flush
+        batch.forEach(pending::remove);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Lost {} last-login times on shutdown", pending.size(), e);
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.smarttaskmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets, lock-free.
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA):
+ * the instant at which the bucket would be full again. A request is allowed when that
+ * instant is at most the burst tolerance ahead of now, and then moves it one emission
+ * interval further (one CAS). Same behaviour as a token bucket, no lock and no
+ * allocation per check.
+ *
+ * Idle buckets are full by definition, so they are simply dropped from the map.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public LocalRateLimiter(long maxBuckets, Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimitRule rule) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        return tryAcquire(bucket, rule, System.nanoTime());
+    }
+
+    @Override
+    public void release(String key, RateLimitRule rule) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            release(bucket, rule, System.nanoTime());
+        }
+    }
+
+    // One GCRA step: CAS the theoretical arrival time forward, or report the wait
+    static long tryAcquire(AtomicLong bucket, RateLimitRule rule, long now) {
+        while (true) {
+            long stored = bucket.get();
+            long tat = stored == Long.MIN_VALUE || stored - now < 0 ? now : stored;
+
+            long ahead = tat - now - rule.getBurstToleranceNanos();
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (bucket.compareAndSet(stored, tat + rule.getEmissionIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    // One GCRA step back: the theoretical arrival time moves back an emission interval, not past now
+    static void release(AtomicLong bucket, RateLimitRule rule, long now) {
+        while (true) {
+            long stored = bucket.get();
+            if (stored == Long.MIN_VALUE || stored - now <= 0) {
+                return; // full already
+            }
+            long tat = stored - rule.getEmissionIntervalNanos();
+            if (bucket.compareAndSet(stored, tat - now < 0 ? now : tat)) {
+                return;
+            }
+        }
+    }
+}
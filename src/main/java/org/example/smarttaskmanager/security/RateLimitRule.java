@@ -0,0 +1,34 @@
+package org.example.smarttaskmanager.security;
+
+import lombok.Getter;
+
+/**
+ * Token bucket parameters: up to {@code capacity} requests at once, refilled at
+ * {@code refillPerSecond}. Kept in GCRA form (emission interval + burst tolerance),
+ * which is what the limiters store and compare.
+ */
+@Getter
+public final class RateLimitRule {
+
+    private final String name;              // metric tag: user, auth, global
+    private final long capacity;
+    private final double refillPerSecond;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    public RateLimitRule(String name, long capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs capacity >= 1 and refill > 0");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+    }
+
+    // Time for an empty bucket to fill up again
+    public long refillNanos() {
+        return emissionIntervalNanos * capacity;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.smarttaskmanager.security;
+
+/**
+ * Token-bucket rate limiter.
+ */
+public interface RateLimiter {
+
+    /**
+     * Take one token from the bucket of {@code key}.
+     *
+     * @return 0 if the request may go, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(String key, RateLimitRule rule);
+
+    /**
+     * Give back a token taken by {@link #tryAcquire}, for a request another limit then
+     * rejected. Never fills the bucket beyond its capacity.
+     */
+    void release(String key, RateLimitRule rule);
+}
@@ -0,0 +1,83 @@
+package org.example.smarttaskmanager.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Token buckets shared by all nodes, kept in Redis.
+ *
+ * Same GCRA step as {@link LocalRateLimiter}, done atomically by a Lua script with the
+ * Redis server clock (so node clocks don't matter). One round trip per check.
+ * If Redis is unreachable the node falls back to its local buckets instead of
+ * failing or letting everything through.
+ */
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+
+    // KEYS[1] bucket, ARGV[1] emission interval (µs), ARGV[2] burst tolerance (µs)
+    // → 0 if allowed, else µs to wait
+    private static final RedisScript<Long> GCRA = new DefaultRedisScript<>("""
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then tat = now end
+            if tat - now > tolerance then return tat - now - tolerance end
+            local newTat = tat + interval
+            redis.call('SET', KEYS[1], newTat, 'PX', math.ceil((newTat - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    // KEYS[1] bucket, ARGV[1] emission interval (µs): one step back, not past now
+    private static final RedisScript<Long> GCRA_RELEASE = new DefaultRedisScript<>("""
+            local interval = tonumber(ARGV[1])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat <= now then return 0 end
+            tat = math.max(now, tat - interval)
+            redis.call('SET', KEYS[1], tat, 'PX', math.ceil((tat - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final String keyPrefix;
+    private final RateLimiter fallback;
+
+    public RedisRateLimiter(StringRedisTemplate redis, String keyPrefix, RateLimiter fallback) {
+        this.redis = redis;
+        this.keyPrefix = keyPrefix;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimitRule rule) {
+        try {
+            Long waitMicros = redis.execute(
+                    GCRA,
+                    List.of(keyPrefix + key),
+                    String.valueOf(rule.getEmissionIntervalNanos() / 1000),
+                    String.valueOf(rule.getBurstToleranceNanos() / 1000)
+            );
+            return waitMicros == null ? 0 : waitMicros * 1000;
+        } catch (RuntimeException e) {
+            log.debug("Redis rate limiter unavailable, using local buckets: {}", e.toString());
+            return fallback.tryAcquire(key, rule);
+        }
+    }
+
+    @Override
+    public void release(String key, RateLimitRule rule) {
+        try {
+            redis.execute(GCRA_RELEASE, List.of(keyPrefix + key), String.valueOf(rule.getEmissionIntervalNanos() / 1000));
+        } catch (RuntimeException e) {
+            log.debug("Redis rate limiter unavailable, using local buckets: {}", e.toString());
+            fallback.release(key, rule);
+        }
+    }
+}
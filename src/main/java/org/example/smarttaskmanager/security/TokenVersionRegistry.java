@@ -0,0 +1,48 @@
+package org.example.smarttaskmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-memory view of the latest token version per user, as read from (or written to)
+ * the database on this node.
+ *
+ * The registry is node-local, so its answers are only trusted for recheck: after that a
+ * user is unknown again and the next request loads them from the database. A revocation
+ * done on another node is seen here within recheck at the latest.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private final Cache<Long, Integer> versions;
+
+    @Autowired
+    public TokenVersionRegistry(@Value("${jwt.version-recheck:30s}") Duration recheck) {
+        this(recheck, Ticker.systemTicker());
+    }
+
+    TokenVersionRegistry(Duration recheck, Ticker ticker) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(recheck)
+                .ticker(ticker)
+                .build();
+    }
+
+    // Is a token carrying this version known to be current? False for users not checked lately
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer version = versions.getIfPresent(userId);
+        return version != null && version == tokenVersion;
+    }
+
+    // Remember the version read from (or written to) the database
+    public void record(Long userId, int tokenVersion) {
+        versions.asMap().merge(userId, tokenVersion, Math::max);
+    }
+}
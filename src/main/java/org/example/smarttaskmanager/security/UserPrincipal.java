@@ -0,0 +1,77 @@
+package org.example.smarttaskmanager.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.smarttaskmanager.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal stored in the SecurityContext.
+ * Carries the user id so request handlers never have to look the user up again.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final String password;      // null when built from a JWT
+    private final int tokenVersion;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public static UserPrincipal fromUser(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getTokenVersion(),
+                user.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority(role.name()))
+                        .toList()
+        );
+    }
+
+    public static UserPrincipal fromClaims(JwtClaims claims) {
+        List<SimpleGrantedAuthority> authorities = claims.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new UserPrincipal(
+                claims.getUserId(),
+                claims.getSubject(),
+                null,
+                claims.getTokenVersion(),
+                authorities
+        );
+    }
+
+    // Spring calls it username, we use the email
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
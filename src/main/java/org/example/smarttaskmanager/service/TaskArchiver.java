@@ -0,0 +1,154 @@
+package org.example.smarttaskmanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.event.TasksArchivedEvent;
+import org.example.smarttaskmanager.exception.ShardMovedException;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves CLOSED tasks untouched for app.tasks.archive.after to the cold side: tasks.archived,
+ * the tasks_cold partition in PostgreSQL (V11).
+ *
+ * Lists skip archived tasks unless they filter on CLOSED (see TaskService.getTasksByUser),
+ * so the hot partition, its indexes and the cached pages hold the active tasks however much
+ * history a user has. Reopening an archived task makes it hot again; other changes leave it
+ * cold, so an edit does not move the row between partitions.
+ *
+ * Archiving takes the next version of the user's list like a change does, so cached pages
+ * and list ETags that showed the tasks go stale. No task is stamped with that version:
+ * delta sync reports nothing, the tasks are still there and unchanged.
+ *
+ * Every node may run it, a task is archived once (conditional UPDATE). One transaction per
+ * user and batch: the version row first, then the task rows, the lock order of every task
+ * write. Task writes therefore wait for the move instead of racing it. Moving a row to the
+ * other partition makes PostgreSQL fail any concurrent lock of it: a user's batch that
+ * loses such a race anyway is skipped until the next run, and a task write that loses it
+ * is retried (see TaskController).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.tasks.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiver {
+
+    // Oldest change first (partial index idx_tasks_archivable, V11)
+    private static final String SELECT_ARCHIVABLE = """
+            select id, assigned_to_id, updated_at from tasks
+            where status = 'CLOSED' and archived = false and updated_at < ? and assigned_to_id is not null
+            """;
+    // Past the last task of the previous batch: tasks that stay hot (moved users) are not read again
+    private static final String AFTER = " and (updated_at > ? or (updated_at = ? and id > ?))";
+    private static final String ORDER = " order by updated_at, id limit ?";
+
+    private static final String ARCHIVE =
+            "update tasks set archived = true where id = ? and archived = false and status = 'CLOSED' and updated_at < ?";
+
+    private static final RowMapper<Archivable> ARCHIVABLE = (rs, rowNum) -> new Archivable(
+            rs.getLong("id"), rs.getLong("assigned_to_id"), rs.getObject("updated_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskListVersions taskListVersions;
+    private final TaskShards taskShards;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration after;
+    private final int batchSize;
+
+    public TaskArchiver(JdbcTemplate jdbcTemplate,
+                        TaskListVersions taskListVersions,
+                        TaskShards taskShards,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.tasks.archive.after:90d}") Duration after,
+                        @Value("${app.tasks.archive.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskListVersions = taskListVersions;
+        this.taskShards = taskShards;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.after = after;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.tasks.archive.interval-ms:3600000}",
+            initialDelayString = "${app.tasks.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(after);
+        for (int shard = 0; shard < taskShards.count(); shard++) {
+            int archived = taskShards.call(shard, () -> archiveShard(cutoff));
+            if (archived > 0) {
+                log.info("Archived {} closed tasks unchanged since {} on shard {}", archived, cutoff, shard);
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private int archiveShard(LocalDateTime cutoff) {
+        int archived = 0;
+        Archivable last = null;
+        while (true) {
+            List<Archivable> batch = last == null
+                    ? jdbcTemplate.query(SELECT_ARCHIVABLE + ORDER, ARCHIVABLE, cutoff, batchSize)
+                    : jdbcTemplate.query(SELECT_ARCHIVABLE + AFTER + ORDER, ARCHIVABLE,
+                            cutoff, last.updatedAt(), last.updatedAt(), last.id(), batchSize);
+
+            Map<Long, List<Long>> tasksByUser = new LinkedHashMap<>();
+            for (Archivable task : batch) {
+                tasksByUser.computeIfAbsent(task.userId(), userId -> new ArrayList<>()).add(task.id());
+            }
+            for (Map.Entry<Long, List<Long>> user : tasksByUser.entrySet()) {
+                archived += archiveUser(user.getKey(), user.getValue(), cutoff);
+            }
+
+            if (batch.size() < batchSize) {
+                return archived;
+            }
+            last = batch.get(batch.size() - 1);
+        }
+    }
+
+    private int archiveUser(Long userId, List<Long> taskIds, LocalDateTime cutoff) {
+        try {
+            return transactionTemplate.execute(status -> {
+                taskListVersions.next(userId);
+                List<Object[]> rows = taskIds.stream().map(id -> new Object[]{id, cutoff}).toList();
+                int archived = 0;
+                for (int count : jdbcTemplate.batchUpdate(ARCHIVE, rows)) {
+                    archived += Math.max(count, 0);
+                }
+                if (archived > 0) {
+                    eventPublisher.publishEvent(new TasksArchivedEvent(userId, archived));
+                } else {
+                    status.setRollbackOnly(); // nothing left to archive: keep the version
+                }
+                return archived;
+            });
+        } catch (ShardMovedException e) {
+            return 0; // the user's tasks are on another shard now, archived there
+        } catch (PessimisticLockingFailureException e) {
+            // Another node archived or the user reopened one of the tasks meanwhile: next run
+            log.debug("Archiving tasks of user {} lost a race, left for the next run: {}", userId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private record Archivable(long id, long userId, LocalDateTime updatedAt) {
+    }
+}
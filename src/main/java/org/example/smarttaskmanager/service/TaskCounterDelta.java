@@ -0,0 +1,65 @@
+package org.example.smarttaskmanager.service;
+
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.TaskCounter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Net change to one user's task counters over a transaction:
+ * a created task is added, a deleted one removed, an updated one removed as it was
+ * and added as it is. Counters that end up unchanged are dropped.
+ */
+class TaskCounterDelta {
+
+    // Sorted: counter rows are always updated in the same order
+    private final Map<String, Long> changes = new TreeMap<>();
+
+    void add(Task.Status status, Task.Priority priority, LocalDateTime dueDate) {
+        apply(status, priority, dueDate, 1);
+    }
+
+    void remove(Task.Status status, Task.Priority priority, LocalDateTime dueDate) {
+        apply(status, priority, dueDate, -1);
+    }
+
+    // Adds the other delta's changes to this one
+    TaskCounterDelta plus(TaskCounterDelta other) {
+        other.changes.forEach(this::merge);
+        return this;
+    }
+
+    long total() {
+        return changes.getOrDefault(TaskCounter.TOTAL, 0L);
+    }
+
+    // Every changed counter except the total
+    Map<String, Long> breakdown() {
+        Map<String, Long> breakdown = new TreeMap<>(changes);
+        breakdown.remove(TaskCounter.TOTAL);
+        return breakdown;
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    private void apply(Task.Status status, Task.Priority priority, LocalDateTime dueDate, long amount) {
+        merge(TaskCounter.TOTAL, amount);
+        if (status != null) {
+            merge(TaskCounter.status(status), amount);
+        }
+        if (priority != null) {
+            merge(TaskCounter.priority(priority), amount);
+        }
+        if (status != Task.Status.CLOSED && dueDate != null) {
+            merge(TaskCounter.due(dueDate.toLocalDate()), amount);
+        }
+    }
+
+    private void merge(String counter, long amount) {
+        changes.merge(counter, amount, (a, b) -> a + b == 0 ? null : a + b);
+    }
+}
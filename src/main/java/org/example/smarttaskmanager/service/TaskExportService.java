@@ -0,0 +1,203 @@
+package org.example.smarttaskmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.search.PostgresTaskSearchEngine;
+import org.example.smarttaskmanager.search.SearchTokenizer;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's tasks as NDJSON or CSV.
+ * Rows come from a forward-only cursor and are written and detached one at a time,
+ * so memory use does not depend on how many tasks the user has.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String[] CSV_HEADER = {
+            "id", "title", "description", "status", "priority", "dueDate", "createdAt", "updatedAt"
+    };
+
+    private final TaskRepository taskRepository;
+    private final TaskShards taskShards;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Same filters as TaskService.getTasksByUser: status ("ALL" or null for every status)
+     * and the search of the list on PostgreSQL: every word of it as a prefix of a word of
+     * the title or description, or the whole text as a substring. Unlike the lists, an
+     * export includes archived tasks whatever the status: it is the user's whole history.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long userId, String status, String search, Format format, OutputStream out) throws IOException {
+        taskShards.bind(userId);
+
+        Task.Status statusFilter = TaskService.parseStatus(status);
+        SearchFilter filter = (search != null && !search.isBlank()) ? new SearchFilter(search) : null;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        try (Stream<Task> tasks = taskRepository.streamForExport(
+                userId, statusFilter, filter != null ? filter.pattern() : null)) {
+            if (format == Format.CSV) {
+                writeCsvRow(writer, CSV_HEADER);
+            }
+
+            JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                    .setRootValueSeparator(null); // lines are separated by '\n' only
+            tasks.forEach(task -> {
+                if (filter != null && !filter.matches(task)) {
+                    entityManager.detach(task);
+                    return;
+                }
+                try {
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, csvValues(task));
+                    } else {
+                        writeJsonLine(json, writer, task);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away → stop reading the cursor
+                }
+                entityManager.detach(task); // keep the persistence context empty
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    // ================= SEARCH =================
+
+    /**
+     * The list search as a predicate. The database narrows the rows with a LIKE on the
+     * longest word (every match contains it), the exact check runs here.
+     */
+    private static final class SearchFilter {
+
+        private final String text;
+        private final List<String> words;
+
+        SearchFilter(String search) {
+            this.text = search.trim().toLowerCase(Locale.ROOT);
+            this.words = SearchTokenizer.tokenize(search);
+        }
+
+        // Escaped: % and _ in the search are plain characters
+        String pattern() {
+            String narrowest = words.stream()
+                    .max(Comparator.comparingInt(String::length))
+                    .orElse(text);
+            return "%" + PostgresTaskSearchEngine.escapeLike(narrowest) + "%";
+        }
+
+        boolean matches(Task task) {
+            return containsText(task.getTitle()) || containsText(task.getDescription()) || matchesWords(task);
+        }
+
+        private boolean containsText(String value) {
+            return value != null && value.toLowerCase(Locale.ROOT).contains(text);
+        }
+
+        private boolean matchesWords(Task task) {
+            if (words.isEmpty()) {
+                return false;
+            }
+            List<String> taskWords = new ArrayList<>(SearchTokenizer.tokenize(task.getTitle()));
+            taskWords.addAll(SearchTokenizer.tokenize(task.getDescription()));
+            return words.stream().allMatch(word -> taskWords.stream().anyMatch(taskWord -> taskWord.startsWith(word)));
+        }
+    }
+
+    // ================= NDJSON =================
+
+    private void writeJsonLine(JsonGenerator json, Writer writer, Task task) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", task.getId());
+        json.writeStringField("title", task.getTitle());
+        json.writeStringField("description", task.getDescription());
+        json.writeStringField("status", task.getStatus() != null ? task.getStatus().name() : null);
+        json.writeStringField("priority", task.getPriority() != null ? task.getPriority().name() : null);
+        json.writeStringField("dueDate", task.getDueDate() != null ? task.getDueDate().toString() : null);
+        json.writeStringField("createdAt", task.getCreatedAt() != null ? task.getCreatedAt().toString() : null);
+        json.writeStringField("updatedAt", task.getUpdatedAt() != null ? task.getUpdatedAt().toString() : null);
+        json.writeEndObject();
+        json.flush();
+        writer.write('\n');
+    }
+
+    // ================= CSV =================
+
+    private static String[] csvValues(Task task) {
+        return new String[]{
+                String.valueOf(task.getId()),
+                task.getTitle(),
+                task.getDescription(),
+                task.getStatus() != null ? task.getStatus().name() : null,
+                task.getPriority() != null ? task.getPriority().name() : null,
+                task.getDueDate() != null ? task.getDueDate().toString() : null,
+                task.getCreatedAt() != null ? task.getCreatedAt().toString() : null,
+                task.getUpdatedAt() != null ? task.getUpdatedAt().toString() : null
+        };
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote values containing separators, quotes or line breaks
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
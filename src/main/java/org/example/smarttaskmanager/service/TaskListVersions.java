@@ -0,0 +1,124 @@
+package org.example.smarttaskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Version of each user's task list, used in task cache keys, list ETags and delta sync.
+ *
+ * Versions are stored in task_versions. The first change of a transaction takes the
+ * user's next version and keeps the row locked until commit, so a user's versions
+ * commit in order: once version N is visible, every change up to N is. Writers take it
+ * before locking any of the user's tasks, so all task writes lock in one order. The tasks a
+ * transaction writes are stamped with its version (tasks.change_version), deleted
+ * ones leave a tombstone with it (see TaskSyncService).
+ *
+ * current() is answered from memory. This node's commits update it right away; a change
+ * committed on another node is seen once the entry expires (app.tasks.versions.ttl).
+ * A version is loaded read-only, so from the same replica as the reads it keys: never
+ * newer than the data behind it (a cached page or ETag can be older than its key, not newer).
+ *
+ * The row is also the fence of a user whose tasks moved to another shard (moved_at, see
+ * TaskRebalancer): a change routed to the old shard finds no version to take there.
+ */
+@Component
+public class TaskListVersions {
+
+    private static final String INCREMENT =
+            "update task_versions set version = version + 1 where user_id = ? and moved_at is null";
+    private static final String INSERT =
+            "insert into task_versions (user_id, version, pruned_version) values (?, 0, 0) on conflict do nothing";
+    private static final String SELECT = "select version from task_versions where user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskShards taskShards;
+    private final TransactionTemplate readOnly;
+    private final Cache<Long, Long> versions;
+
+    public TaskListVersions(JdbcTemplate jdbcTemplate,
+                            TaskShards taskShards,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.tasks.versions.ttl:5s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskShards = taskShards;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long current(Long userId) {
+        return versions.get(userId, this::load);
+    }
+
+    /**
+     * Version of the current transaction's changes to the user's tasks.
+     * The first call in a transaction increments the stored version and locks it until commit.
+     * The transaction must be bound to the user's shard.
+     */
+    public long next(Long userId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Task versions are only taken inside a transaction");
+        }
+        return takenVersions().computeIfAbsent(userId, this::increment);
+    }
+
+    // ================= HELPERS =================
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> takenVersions() {
+        Map<Long, Long> taken = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (taken != null) {
+            return taken;
+        }
+
+        Map<Long, Long> newTaken = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, newTaken);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Commits of one user can finish out of order here: never go back
+                newTaken.forEach((userId, version) -> versions.asMap().merge(userId, version, Math::max));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskListVersions.this);
+            }
+        });
+        return newTaken;
+    }
+
+    private long increment(Long userId) {
+        if (jdbcTemplate.update(INCREMENT, userId) == 0) {
+            // First change of this user: whoever inserts second waits for the first, then increments
+            jdbcTemplate.update(INSERT, userId);
+            if (jdbcTemplate.update(INCREMENT, userId) == 0) {
+                throw taskShards.moved(userId); // the row is there, fenced
+            }
+        }
+        return jdbcTemplate.queryForObject(SELECT, Long.class, userId);
+    }
+
+    // Joins the caller's transaction, if any
+    private long load(Long userId) {
+        return readOnly.execute(status -> {
+            taskShards.bind(userId);
+            return jdbcTemplate.query(SELECT, rs -> rs.next() ? rs.getLong(1) : 0L, userId);
+        });
+    }
+}
@@ -1,65 +1,298 @@
 package org.example.smarttaskmanager.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.dto.TaskSlice;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.exception.BadRequestException;
+import org.example.smarttaskmanager.exception.ForbiddenException;
 import org.example.smarttaskmanager.exception.ResourceNotFoundException;
 import org.example.smarttaskmanager.model.Task;
-import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.repository.TaskCursor;
 import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.repository.UserRepository;
+import org.example.smarttaskmanager.search.TaskSearchEngine;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
     private final TaskRepository taskRepository;
-//    private final RabbitTemplate rabbitTemplate;
+    private final UserRepository userRepository;
+    private final TaskSearchEngine taskSearchEngine;
+    private final TaskListVersions taskListVersions;
+    private final TaskShards taskShards;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public Task createTask(Task task) {
+    @Value("${app.tasks.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Transactional
+    public TaskResponse createTask(Task task, Long userId) {
+        taskShards.bind(userId);
+        task.setId(null); // always insert, never merge into an existing row
+        // Reference only → no SELECT on users, the id is all the insert needs
+        task.setAssignedTo(userRepository.getReferenceById(userId));
         task.setCreatedAt(LocalDateTime.now());
         task.setUpdatedAt(LocalDateTime.now());
+        task.setChangeVersion(taskListVersions.next(userId)); // before save: part of the INSERT
+        task.setDueNotified(0);
+        task.setArchived(false);
         Task saved = taskRepository.save(task);
-//        rabbitTemplate.convertAndSend("task_notifications", "New Task: " + task.getTitle());
-        return saved;
+        eventPublisher.publishEvent(TaskChangedEvent.created(saved, userId));
+        return TaskResponse.from(saved);
     }
 
-    public Task updateTask(Task task) {
-        task.setUpdatedAt(LocalDateTime.now());
-        Task updated = taskRepository.save(task);
-//        rabbitTemplate.convertAndSend("task_notifications", "Task Updated: " + task.getTitle());
-        return updated;
+    /**
+     * Apply the non-null fields of {@code changes} to a task owned by the user.
+     * One UPDATE ... WHERE id = ? AND assigned_to_id = ? RETURNING checks ownership, locks,
+     * writes and reads back the task, with the state before the change for the event.
+     */
+    @Transactional
+    public TaskResponse updateTask(Long id, Task changes, Long userId) {
+        taskShards.bind(userId);
+        long version = taskListVersions.next(userId);
+        TaskRepository.OwnedUpdate update = taskRepository.updateOwned(id, userId, changes, LocalDateTime.now(), version)
+                .orElseThrow(() -> notOwned(id, "update"));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(update.task(), update.previous(), userId));
+        return TaskResponse.from(update.task());
+    }
+
+    // One DELETE ... WHERE id = ? AND assigned_to_id = ? RETURNING: the event carries what it deleted
+    @Transactional
+    public void deleteTask(Long id, Long userId) {
+        taskShards.bind(userId);
+        long version = taskListVersions.next(userId);
+        TaskResponse deleted = taskRepository.deleteOwned(id, userId)
+                .orElseThrow(() -> notOwned(id, "delete"));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(deleted, userId, version));
+    }
+
+    // ================= BULK OPERATIONS =================
+
+    /**
+     * Insert all tasks for the user in one transaction.
+     * Ids made in memory (TaskIds) + hibernate.jdbc.batch_size turn this into a few batched INSERTs.
+     */
+    @Transactional
+    public List<TaskResponse> createTasks(List<Task> tasks, Long userId) {
+        taskShards.bind(userId);
+        checkBatchSize(tasks.size());
+        LocalDateTime now = LocalDateTime.now();
+        long version = taskListVersions.next(userId);
+        for (Task task : tasks) {
+            task.setId(null);
+            task.setAssignedTo(userRepository.getReferenceById(userId));
+            if (task.getStatus() == null) {
+                task.setStatus(Task.Status.OPEN);
+            }
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            task.setChangeVersion(version);
+            task.setDueNotified(0);
+            task.setArchived(false);
+        }
+        List<Task> saved = taskRepository.saveAll(tasks);
+        saved.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task, userId)));
+        return saved.stream().map(TaskResponse::from).toList();
+    }
+
+    /**
+     * Apply the non-null fields of each change to the task with the same id.
+     * All tasks are loaded and locked with one ownership-checked IN query; if any of them
+     * is missing or belongs to someone else nothing is changed.
+     */
+    @Transactional
+    public List<TaskResponse> updateTasks(List<Task> changes, Long userId) {
+        taskShards.bind(userId);
+        checkBatchSize(changes.size());
+        Map<Long, Task> changesById = new LinkedHashMap<>();
+        for (Task change : changes) {
+            if (change.getId() == null) {
+                throw new BadRequestException("Every task in a batch update needs an id");
+            }
+            changesById.put(change.getId(), change);
+        }
+
+        long version = taskListVersions.next(userId);
+        List<Task> owned = taskRepository.findAllOwnedForUpdate(changesById.keySet(), userId);
+        if (owned.size() != changesById.size()) {
+            throw new ForbiddenException("You are not allowed to update these tasks");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Task task : owned) {
+            TaskResponse previous = TaskResponse.from(task);
+            applyChanges(task, changesById.get(task.getId()), now, version);
+            eventPublisher.publishEvent(TaskChangedEvent.updated(task, previous, userId));
+        }
+        // Dirty checking flushes the changes as batched UPDATEs on commit
+        return owned.stream().map(TaskResponse::from).toList();
     }
 
-    public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+    /**
+     * Delete all given tasks with a single ownership-checked DELETE.
+     * If any of them is missing or belongs to someone else nothing is deleted.
+     */
+    @Transactional
+    public void deleteTasks(List<Long> ids, Long userId) {
+        taskShards.bind(userId);
+        checkBatchSize(ids.size());
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        long version = taskListVersions.next(userId);
+        // Locked and read first: the events carry what was deleted
+        List<TaskResponse> owned = taskRepository.findAllOwnedForUpdate(distinctIds, userId).stream()
+                .map(TaskResponse::from)
+                .toList();
+        if (owned.size() != distinctIds.size()) {
+            throw new ForbiddenException("You are not allowed to delete these tasks");
+        }
+        taskRepository.deleteAllOwned(distinctIds, userId);
+        owned.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.deleted(task, userId, version)));
     }
 
-    public Page<Task> getTasksByUser(User user, int page, int size, String search, String status) {
+    /**
+     * One page of the user's tasks.
+     * A non-blank search goes through the search engine (title + description, ranked);
+     * otherwise it is a plain listing.
+     * Cached per user and query; any change to the user's tasks invalidates them (see TaskListVersions).
+     * Archived tasks (the cold partition, see TaskArchiver) are only read for status CLOSED.
+     * Read-only, like the other reads here: may run on a replica (see ReplicaRoutingDataSource).
+     * Every method working on one user's tasks runs on that user's shard (see TaskShards).
+     */
+    @Cacheable(cacheNames = "taskPages", keyGenerator = "taskPageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Page<TaskResponse> getTasksByUser(Long userId, int page, int size, String search, String status) {
+        taskShards.bind(userId);
         Pageable pageable = PageRequest.of(page, size);
-        if (status != null && !status.equalsIgnoreCase("ALL")) {
-            return taskRepository.findByAssignedToAndStatusAndTitleContainingIgnoreCase(
-                    user, Task.Status.valueOf(status), search == null ? "" : search, pageable
-            );
-        } else {
-            return taskRepository.findByAssignedToAndTitleContainingIgnoreCase(
-                    user, search == null ? "" : search, pageable
-            );
+        Task.Status statusFilter = parseStatus(status);
+        boolean cold = withCold(statusFilter);
+
+        if (search != null && !search.isBlank()) {
+            return taskSearchEngine.search(userId, search, statusFilter, cold, pageable);
+        }
+
+        return statusFilter != null
+                ? taskRepository.findPageByUserAndStatus(userId, statusFilter, cold, pageable)
+                : taskRepository.findPageByUser(userId, pageable);
+    }
+
+    /**
+     * Keyset-paginated listing: the next slice after {@code cursor} (first slice when null).
+     * Costs one index range scan; the total is only counted when asked for.
+     */
+    @Transactional(readOnly = true)
+    public TaskSlice scrollTasks(Long userId, String cursor, int size, TaskCursor.Sort sort,
+                                 String status, boolean includeTotal) {
+        taskShards.bind(userId);
+        if (size < 1) {
+            throw new BadRequestException("size must be at least 1");
+        }
+        Task.Status statusFilter = parseStatus(status);
+        boolean cold = withCold(statusFilter);
+
+        TaskCursor after = cursor != null && !cursor.isBlank() ? TaskCursor.decode(cursor) : null;
+        if (after != null && after.getSort() != sort) {
+            throw new BadRequestException("Cursor was issued for sort " + after.getSort());
+        }
+
+        // Fetch one extra row to know whether another slice follows
+        List<TaskResponse> rows = taskRepository.scroll(userId, statusFilter, cold, sort, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<TaskResponse> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext
+                ? TaskCursor.after(content.get(content.size() - 1), sort).encode()
+                : null;
+
+        Long total = null;
+        if (includeTotal) {
+            total = statusFilter != null
+                    ? taskRepository.countByUserAndStatus(userId, statusFilter, cold)
+                    : taskRepository.countByUser(userId);
         }
+
+        return new TaskSlice(content, nextCursor, hasNext, total);
     }
 
+    // ================= ACROSS SHARDS =================
+    // No surrounding transaction: each repository call runs on the shard it is sent to
+
     public Task getTaskById(Long id) {
-        return taskRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + id));
+        for (int shard = 0; shard < taskShards.count(); shard++) {
+            Optional<Task> task = taskShards.call(shard, () -> taskRepository.findById(id));
+            if (task.isPresent()) {
+                return task.get();
+            }
+        }
+        throw new ResourceNotFoundException("Task not found with id: " + id);
     }
 
-    @Cacheable("tasks")
     public List<Task> getAllTasks() {
-        return taskRepository.findAll();
+        List<Task> tasks = new ArrayList<>();
+        for (int shard = 0; shard < taskShards.count(); shard++) {
+            tasks.addAll(taskShards.call(shard, taskRepository::findAll));
+        }
+        return tasks;
+    }
+
+    // Non-null fields of the change win; updatedAt and the version always move. An archived task
+    // stays cold while it is CLOSED: only reopening it moves its row back to the hot partition
+    private static void applyChanges(Task task, Task change, LocalDateTime now, long version) {
+        if (change.getTitle() != null) task.setTitle(change.getTitle());
+        if (change.getDescription() != null) task.setDescription(change.getDescription());
+        if (change.getPriority() != null) task.setPriority(change.getPriority());
+        if (change.getDueDate() != null && !change.getDueDate().equals(task.getDueDate())) {
+            task.setDueDate(change.getDueDate());
+            task.setDueNotified(0); // new due date, its notices are still to send
+        }
+        if (change.getStatus() != null) task.setStatus(change.getStatus());
+        task.setUpdatedAt(now);
+        task.setChangeVersion(version);
+        task.setArchived(task.isArchived() && task.getStatus() == Task.Status.CLOSED);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " tasks per batch");
+        }
+    }
+
+    // Only CLOSED tasks are ever archived: any other filter, or none, stays on the hot side
+    static boolean withCold(Task.Status status) {
+        return status == Task.Status.CLOSED;
+    }
+
+    // "ALL" or missing → no status filter
+    static Task.Status parseStatus(String status) {
+        return (status != null && !status.equalsIgnoreCase("ALL"))
+                ? Task.Status.valueOf(status)
+                : null;
+    }
+
+    // Only reached when the owned lookup found nothing: tell "missing" from "not yours"
+    private RuntimeException notOwned(Long id, String action) {
+        if (!taskRepository.existsById(id)) {
+            return new ResourceNotFoundException("Task not found with id: " + id);
+        }
+        return new ForbiddenException("You are not allowed to " + action + " this task");
     }
 }
@@ -0,0 +1,178 @@
+package org.example.smarttaskmanager.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.dto.TaskStats;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.TaskCounter;
+import org.example.smarttaskmanager.repository.TaskCounterRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dashboard numbers per user, kept as counters (task_counters) so a dashboard load is
+ * one primary-key range scan instead of paging through every task.
+ *
+ * Every TaskChangedEvent adds to a per-user {@link TaskCounterDelta}; right before commit
+ * the deltas are applied with relative UPDATEs. The first one touches the user's "total"
+ * row and so locks it: one user's counter writes run one at a time until commit, and
+ * missing counter rows can be inserted without racing anyone.
+ *
+ * Users without a "total" row (tasks written before V7 on H2, or by bulk loads) are
+ * counted once from the tasks table with GROUP BY. The "total" row goes in first with
+ * ON CONFLICT DO NOTHING: one transaction wins and counts, the others wait for it to
+ * commit and then add their own change on top.
+ */
+@Service
+public class TaskStatsService {
+
+    private static final String ADD =
+            "update task_counters set amount = amount + ? where user_id = ? and counter = ?";
+    private static final String INSERT =
+            "insert into task_counters (user_id, counter, amount) values (?, ?, ?)";
+    private static final String DELETE_EMPTY =
+            "delete from task_counters where user_id = ? and counter = ? and amount = 0";
+
+    private static final String COUNT_TOTAL = """
+            insert into task_counters (user_id, counter, amount)
+            select cast(? as bigint), 'total', count(*) from tasks where assigned_to_id = ?
+            on conflict do nothing
+            """;
+    private static final String COUNT_BREAKDOWN = """
+            insert into task_counters (user_id, counter, amount)
+            select assigned_to_id, concat('status:', status), count(*) from tasks
+            where assigned_to_id = ? and status is not null
+            group by assigned_to_id, status
+            union all
+            select assigned_to_id, concat('priority:', priority), count(*) from tasks
+            where assigned_to_id = ? and priority is not null
+            group by assigned_to_id, priority
+            union all
+            select assigned_to_id, concat('due:', due_day), count(*) from (
+                select assigned_to_id, to_char(due_date, 'YYYY-MM-DD') as due_day from tasks
+                where assigned_to_id = ? and (status is null or status <> 'CLOSED') and due_date is not null
+            ) open_tasks
+            group by assigned_to_id, due_day
+            """;
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskShards taskShards;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskStatsService(TaskCounterRepository taskCounterRepository, JdbcTemplate jdbcTemplate, TaskShards taskShards) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskShards = taskShards;
+    }
+
+    // Not read-only: a user's first read may count and store the counters
+    @Transactional
+    public TaskStats getStats(Long userId) {
+        taskShards.bind(userId);
+        List<TaskCounter> counters = taskCounterRepository.findByUserId(userId);
+        if (counters.isEmpty()) {
+            countFromTasks(userId);
+            counters = taskCounterRepository.findByUserId(userId);
+        }
+        return TaskStats.from(counters, LocalDate.now());
+    }
+
+    // Plain listener: runs inside the publishing transaction
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskCounterDelta delta = new TaskCounterDelta();
+        TaskResponse previous = event.getPrevious();
+        Task task = event.getTask();
+        if (previous != null) {
+            delta.remove(previous.getStatus(), previous.getPriority(), previous.getDueDate());
+        }
+        if (task != null) {
+            delta.add(task.getStatus(), task.getPriority(), task.getDueDate());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(event.getUserId(), delta);
+            return;
+        }
+        pendingDeltas().merge(event.getUserId(), delta, TaskCounterDelta::plus);
+    }
+
+    // ================= HELPERS =================
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, TaskCounterDelta> pendingDeltas() {
+        Map<Long, TaskCounterDelta> deltas = (Map<Long, TaskCounterDelta>) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null) {
+            return deltas;
+        }
+
+        // Sorted by user: transactions touching several users lock their rows in the same order
+        Map<Long, TaskCounterDelta> newDeltas = new TreeMap<>();
+        TransactionSynchronizationManager.bindResource(this, newDeltas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entityManager.flush(); // a recount must see this transaction's task changes
+                newDeltas.forEach(TaskStatsService.this::apply);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskStatsService.this);
+            }
+        });
+        return newDeltas;
+    }
+
+    private void apply(Long userId, TaskCounterDelta delta) {
+        if (delta.isEmpty()) {
+            return; // e.g. only the title changed
+        }
+
+        // Locks the user's counters until commit
+        if (jdbcTemplate.update(ADD, delta.total(), userId, TaskCounter.TOTAL) == 0) {
+            if (countFromTasks(userId)) {
+                return; // counted from the table, this transaction's changes included
+            }
+            // Someone else counted first and has committed: add on top
+            jdbcTemplate.update(ADD, delta.total(), userId, TaskCounter.TOTAL);
+        }
+
+        delta.breakdown().forEach((counter, amount) -> {
+            if (jdbcTemplate.update(ADD, amount, userId, counter) == 0) {
+                jdbcTemplate.update(INSERT, userId, counter, amount);
+            } else if (amount < 0 && counter.startsWith(TaskCounter.DUE)) {
+                // Due-day rows come and go with the tasks
+                jdbcTemplate.update(DELETE_EMPTY, userId, counter);
+            }
+        });
+    }
+
+    /**
+     * Count the user's tasks into fresh counters.
+     *
+     * @return false if another transaction had already stored them
+     */
+    private boolean countFromTasks(Long userId) {
+        if (jdbcTemplate.update(COUNT_TOTAL, userId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(COUNT_BREAKDOWN, userId, userId, userId);
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.smarttaskmanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.dto.TaskChanges;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.model.TaskVersion;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.repository.TaskTombstoneRepository;
+import org.example.smarttaskmanager.repository.TaskVersionRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync of a user's task list (GET /api/tasks/changes?since=).
+ *
+ * A delta covers the versions (since, current]: the tasks stamped with one of them and
+ * the tombstones of the tasks deleted in one of them (see TaskListVersions). It stops at
+ * the version committed when it is read, so a change committing meanwhile comes with the
+ * next delta, never half in this one.
+ *
+ * Tombstones are kept for app.tasks.sync.tombstone-retention; a client whose version is
+ * older than the pruned ones gets a reset and reloads.
+ */
+@Slf4j
+@Service
+public class TaskSyncService {
+
+    private static final String INSERT_TOMBSTONE =
+            "insert into task_tombstones (task_id, user_id, version, deleted_at) values (?, ?, ?, ?)";
+
+    // Remember per user up to which version tombstones are gone, then drop them
+    private static final String MARK_PRUNED = """
+            update task_versions v set pruned_version =
+                (select max(t.version) from task_tombstones t where t.user_id = v.user_id and t.deleted_at < ?)
+            where exists (select 1 from task_tombstones t where t.user_id = v.user_id and t.deleted_at < ?)
+            """;
+    private static final String DELETE_PRUNED = "delete from task_tombstones where deleted_at < ?";
+
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final TaskVersionRepository versionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskShards taskShards;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxChanges;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(TaskRepository taskRepository,
+                           TaskTombstoneRepository tombstoneRepository,
+                           TaskVersionRepository versionRepository,
+                           JdbcTemplate jdbcTemplate,
+                           TaskShards taskShards,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.tasks.sync.max-changes:1000}") int maxChanges,
+                           @Value("${app.tasks.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.taskRepository = taskRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.versionRepository = versionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskShards = taskShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxChanges = maxChanges;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Changes since the given version of the user's task list.
+     *
+     * @param since version returned by the previous call, null for none
+     */
+    @Transactional(readOnly = true)
+    public TaskChanges getChanges(Long userId, Long since) {
+        taskShards.bind(userId);
+        TaskVersion stored = versionRepository.findById(userId)
+                .orElseGet(() -> new TaskVersion(userId, 0, 0, null));
+        long version = stored.getVersion();
+
+        if (since == null || since < stored.getPrunedVersion() || since > version) {
+            return TaskChanges.reset(version);
+        }
+        if (since == version) {
+            return new TaskChanges(version, false, List.of(), List.of());
+        }
+
+        // One extra row tells "too many": past that a reload is cheaper than the delta
+        Limit limit = Limit.of(maxChanges + 1);
+        List<TaskResponse> changed = taskRepository.findChanged(userId, since, version, limit);
+        List<Long> deleted = tombstoneRepository.findDeletedIds(userId, since, version, limit);
+        if (changed.size() + deleted.size() > maxChanges) {
+            return TaskChanges.reset(version);
+        }
+        return new TaskChanges(version, false, changed, deleted);
+    }
+
+    // Deleted rows cannot carry their version: record a tombstone in the deleting transaction
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.getType() != TaskChangedEvent.Type.DELETED) {
+            return;
+        }
+        pendingTombstones().add(new Object[]{event.getTaskId(), event.getUserId(), event.getVersion(), LocalDateTime.now()});
+    }
+
+    // Every node may run it, the statements are idempotent; one transaction per shard
+    @Scheduled(fixedDelayString = "${app.tasks.sync.prune-interval-ms:3600000}")
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        for (int shard = 0; shard < taskShards.count(); shard++) {
+            int pruned = taskShards.call(shard, () -> transactionTemplate.execute(status -> {
+                jdbcTemplate.update(MARK_PRUNED, cutoff, cutoff);
+                return jdbcTemplate.update(DELETE_PRUNED, cutoff);
+            }));
+            if (pruned > 0) {
+                log.info("Pruned {} task tombstones older than {} on shard {}", pruned, cutoff, shard);
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    // Batched into one JDBC batch at commit (a bulk delete has one tombstone per task)
+    @SuppressWarnings("unchecked")
+    private List<Object[]> pendingTombstones() {
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        List<Object[]> newPending = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newPending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                jdbcTemplate.batchUpdate(INSERT_TOMBSTONE, newPending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskSyncService.this);
+            }
+        });
+        return newPending;
+    }
+}
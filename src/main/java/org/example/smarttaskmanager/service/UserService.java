@@ -1,15 +1,22 @@
 package org.example.smarttaskmanager.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.smarttaskmanager.exception.UserAlreadyExistsException;
 import org.example.smarttaskmanager.model.Role;
 import org.example.smarttaskmanager.model.User;
 import org.example.smarttaskmanager.repository.UserRepository;
 import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.security.TokenVersionRegistry;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.example.smarttaskmanager.shard.TaskShards;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
@@ -17,24 +24,58 @@ import java.util.Set;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TaskShards taskShards;
 
     // ================= REGISTER USER =================
-    public User registerUser(String username, String email, String password) {
+    // Password is already hashed (PasswordHasher), so this never runs bcrypt.
+    // Read-write transaction: the duplicate check reads the primary, not a replica
+    @Transactional
+    public User registerUser(String username, String email, String encodedPassword) {
 
         if (userRepository.findByEmail(email).isPresent()) {
-            throw new RuntimeException("User already exists");
+            throw new UserAlreadyExistsException();
         }
 
         User user = User.builder()
                 .username(username) // display name
                 .email(email)       // identity
-                .password(passwordEncoder.encode(password))
-                .roles(Set.of(Role.ROLE_USER))
+                .password(encodedPassword)
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER))) // mutable: Hibernate replaces it on merge
+                .lastLogin(LocalDateTime.now()) // registering logs the user in
                 .build();
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // The shard of the user's tasks hashes the id, known only now
+        saved.setShard(taskShards.place(saved.getId()));
+        return saved.getShard() != 0 ? userRepository.save(saved) : saved;
+    }
+
+    // ================= RE-HASH PASSWORD =================
+    // Only if the password did not change in the meantime
+    @Transactional
+    public void replacePasswordHash(Long userId, String oldHash, String newHash) {
+        userRepository.findById(userId)
+                .filter(user -> oldHash.equals(user.getPassword()))
+                .ifPresent(user -> user.setPassword(newHash));
+    }
+
+    // ================= REVOKE ISSUED TOKENS =================
+    // Every JWT issued before this call stops being accepted
+    public User revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.save(user);
+        tokenVersionRegistry.record(saved.getId(), saved.getTokenVersion());
+        return saved;
+    }
+
+    // ================= FIND USER FOR AUTHENTICATION =================
+    // Read-write transaction → always the primary: a user who registered or set a password a
+    // moment ago is found as they are now, whatever a replica has (see ReplicaRoutingDataSource)
+    @Transactional
+    public Optional<User> findByEmailOnPrimary(String email) {
+        return userRepository.findByEmail(email);
     }
 
     // ================= FIND USER BY EMAIL =================
@@ -57,19 +98,23 @@ public class UserService {
     }
 
     // ================= GET CURRENT AUTHENTICATED USER =================
-    public User getCurrentUser() {
+    // Resolved once per request by JwtAuthFilter
+    public UserPrincipal getCurrentPrincipal() {
 
         Authentication auth = SecurityContextHolder
                 .getContext()
                 .getAuthentication();
 
-        if (auth == null || !auth.isAuthenticated()) {
+        if (auth == null || !auth.isAuthenticated()
+                || !(auth.getPrincipal() instanceof UserPrincipal principal)) {
             throw new RuntimeException("No authenticated user found");
         }
 
-        // Spring stores EMAIL as principal name
-        String email = auth.getName();
+        return principal;
+    }
 
-        return getUserByEmail(email);
+    // Lazy reference: no query until a field other than the id is read
+    public User getCurrentUser() {
+        return userRepository.getReferenceById(getCurrentPrincipal().getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package org.example.smarttaskmanager.shard;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of user ids over shards.
+ *
+ * Every shard owns pointsPerShard points on the ring; a user belongs to the first point at
+ * or after its hash. Adding a shard takes about 1/N of the users from each of the others
+ * and moves nobody else.
+ */
+final class ShardRing {
+
+    private final TreeMap<Long, Integer> points = new TreeMap<>();
+
+    ShardRing(int shards, int pointsPerShard) {
+        for (int shard = 0; shard < shards; shard++) {
+            for (int i = 0; i < pointsPerShard; i++) {
+                // Top bit set: never the key of a user id (ids are positive), so no user sits on a point
+                points.put(mix(Long.MIN_VALUE | (long) shard << 32 | i), shard);
+            }
+        }
+    }
+
+    int shardOf(long userId) {
+        Map.Entry<Long, Integer> point = points.ceilingEntry(mix(userId));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    // SplitMix64 finalizer: consecutive ids land all over the ring
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.smarttaskmanager.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shard databases behind the application's DataSource, picked by the shard the current
+ * work is bound to (TaskShards). Unbound work goes to shard 0, the home database: users and
+ * everything that is not a user's tasks.
+ *
+ * Like ReplicaRoutingDataSource it sits behind a LazyConnectionDataSourceProxy: the shard is
+ * read when the transaction's first statement fetches a connection and kept until it ends.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    // Resource key of the bound shard (see TaskShards)
+    static final Object BOUND_SHARD = new Object() {
+        @Override
+        public String toString() {
+            return "bound task shard";
+        }
+    };
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    /**
+     * The shard's own DataSource, outside any routing and transaction binding.
+     */
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = (Integer) TransactionSynchronizationManager.getResource(BOUND_SHARD);
+        return shard != null ? shard : 0;
+    }
+
+    // Spring calls it on shutdown (inferred destroy method); the home DataSource is a bean of its own
+    public void close() {
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
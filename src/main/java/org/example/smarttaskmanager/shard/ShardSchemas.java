@@ -0,0 +1,88 @@
+package org.example.smarttaskmanager.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.model.Task;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Brings shards 1..N to the home database's schema before the application takes requests:
+ * the Flyway migrations when Flyway runs, otherwise Hibernate's ddl-auto (dev databases).
+ * Every shard gets every table; the ones a shard does not use stay empty.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.shards.enabled", havingValue = "true")
+public class ShardSchemas implements SmartInitializingSingleton {
+
+    private static final String DDL_AUTO = "hibernate.hbm2ddl.auto";
+
+    private final ShardRoutingDataSource router;
+    private final ObjectProvider<Flyway> flyway;
+    private final EntityManagerFactoryBuilder entityManagerFactoryBuilder;
+    private final JpaProperties jpaProperties;
+    private final HibernateProperties hibernateProperties;
+
+    public ShardSchemas(ShardRoutingDataSource router,
+                        ObjectProvider<Flyway> flyway,
+                        EntityManagerFactoryBuilder entityManagerFactoryBuilder,
+                        JpaProperties jpaProperties,
+                        HibernateProperties hibernateProperties) {
+        this.router = router;
+        this.flyway = flyway;
+        this.entityManagerFactoryBuilder = entityManagerFactoryBuilder;
+        this.jpaProperties = jpaProperties;
+        this.hibernateProperties = hibernateProperties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Flyway home = flyway.getIfAvailable();
+        for (int shard = 1; shard < router.count(); shard++) {
+            if (home != null) {
+                Flyway.configure()
+                        .configuration(home.getConfiguration())
+                        .dataSource(router.shard(shard))
+                        .load()
+                        .migrate();
+            } else {
+                generate(shard);
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    // A throwaway EntityManagerFactory on the shard, just for its schema export
+    private void generate(int shard) {
+        Map<String, Object> properties = hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(), new HibernateSettings());
+        Object ddlAuto = properties.get(DDL_AUTO);
+        if (ddlAuto == null || "none".equals(ddlAuto) || "validate".equals(ddlAuto)) {
+            log.warn("Neither Flyway nor ddl-auto manages the schema of shard {}: it must exist", shard);
+            return;
+        }
+        if ("create-drop".equals(ddlAuto)) {
+            properties.put(DDL_AUTO, "create"); // the factory is closed right away
+        }
+
+        LocalContainerEntityManagerFactoryBean factory = entityManagerFactoryBuilder
+                .dataSource(router.shard(shard))
+                .packages(Task.class)
+                .persistenceUnit("shard-" + shard)
+                .properties(properties)
+                .build();
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.smarttaskmanager.shard;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.internal.FallbackBeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+import org.hibernate.service.ServiceRegistry;
+
+import java.lang.reflect.Member;
+
+/**
+ * Hibernate's side of {@link TaskId}: hands out ids of the TaskIds bean, which Hibernate
+ * gets from Spring (Spring Boot registers the application context as its bean container).
+ * It must be the application's singleton, the one holding the node lease: Hibernate's
+ * default (JPA) bean lookup would have Spring create another instance.
+ */
+public class TaskIdGenerator implements IdentifierGenerator {
+
+    private static final BeanContainer.LifecycleOptions SINGLETON = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    private final ServiceRegistry serviceRegistry;
+    private volatile TaskIds taskIds;
+
+    public TaskIdGenerator(TaskId config, Member idMember, CustomIdGeneratorCreationContext context) {
+        this.serviceRegistry = context.getServiceRegistry();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return taskIds().next();
+    }
+
+    // On first use: the generator is built with the EntityManagerFactory, possibly before the bean
+    private TaskIds taskIds() {
+        TaskIds ids = taskIds;
+        if (ids == null) {
+            BeanContainer container = serviceRegistry.requireService(ManagedBeanRegistry.class).getBeanContainer();
+            if (container == null) {
+                throw new IllegalStateException("Task ids need Spring as Hibernate's bean container");
+            }
+            ids = container.getBean(TaskIds.class, SINGLETON, FallbackBeanInstanceProducer.INSTANCE).getBeanInstance();
+            taskIds = ids;
+        }
+        return ids;
+    }
+}
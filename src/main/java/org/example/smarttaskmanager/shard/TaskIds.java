@@ -0,0 +1,212 @@
+package org.example.smarttaskmanager.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Task ids: unique across nodes and shards without asking a database, increasing with
+ * creation time, and below 2^53 so JavaScript clients read them exactly.
+ *
+ *   41 bits  milliseconds since 2024-01-01 (until 2093)
+ *    5 bits  node: 0-31, leased from the home database (task_id_nodes, V13)
+ *    7 bits  sequence within the millisecond (128 ids per millisecond and node)
+ *
+ * Node numbers are not configured: on start a node takes the first one whose lease is
+ * free or expired, renews it every renew-interval for lease-ttl, and gives it back on
+ * shutdown. A node that could not renew in time (paused, cut off from the database) stops
+ * handing out ids until it has a lease again; by then another node may hold its number.
+ * More than 32 running nodes do not start.
+ *
+ * The clock never goes back: when the wall clock does, or a millisecond runs out of
+ * sequence numbers, ids go on in the next millisecond. A bulk insert runs ahead of the
+ * clock (100,000 tasks: about a second), so with a new lease ids go on past the highest
+ * task id on any shard, deleted ones included (tombstones), whatever the clock says.
+ */
+@Slf4j
+@Component
+public class TaskIds implements SmartLifecycle {
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+    static final int NODES = 1 << NODE_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String TAKE_EXPIRED = """
+            update task_id_nodes set owner = ?, expires_at = localtimestamp + cast(? as double precision) * interval '1' second
+            where node = ? and expires_at < localtimestamp
+            """;
+    private static final String TAKE_NEW = """
+            insert into task_id_nodes (node, owner, expires_at)
+            values (?, ?, localtimestamp + cast(? as double precision) * interval '1' second)
+            """;
+    private static final String RENEW = """
+            update task_id_nodes set expires_at = localtimestamp + cast(? as double precision) * interval '1' second
+            where node = ? and owner = ?
+            """;
+    private static final String RELEASE = "delete from task_id_nodes where node = ? and owner = ?";
+    private static final String SELECT_MAX_ID = """
+            select greatest((select max(id) from tasks), (select max(task_id) from task_tombstones))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskShards taskShards;
+    private final long leaseTtlMillis;
+    private final String owner;
+
+    private long node = -1;          // -1: no lease
+    private long leaseDeadline;      // System.nanoTime() past which the lease may be someone else's
+    private long lastMillis = -1;
+    private long sequence;
+
+    public TaskIds(JdbcTemplate jdbcTemplate,
+                   TaskShards taskShards,
+                   @Value("${app.tasks.ids.lease-ttl:30s}") Duration leaseTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskShards = taskShards;
+        this.leaseTtlMillis = leaseTtl.toMillis();
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    public synchronized long next() {
+        if (node < 0 || System.nanoTime() - leaseDeadline > 0) {
+            throw new IllegalStateException("No task id node leased (see app.tasks.ids.lease-ttl)");
+        }
+        long now = System.currentTimeMillis() - EPOCH;
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            lastMillis++;
+            sequence = 0;
+        }
+        return lastMillis << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | sequence;
+    }
+
+    /**
+     * The leased node number, -1 without a lease.
+     */
+    public synchronized int node() {
+        return (int) node;
+    }
+
+    // ================= LEASE =================
+
+    // The round trip runs outside the lock: next() keeps going meanwhile
+    @Scheduled(fixedDelayString = "${app.tasks.ids.renew-interval-ms:10000}",
+            initialDelayString = "${app.tasks.ids.renew-interval-ms:10000}")
+    public void renew() {
+        long leased;
+        synchronized (this) {
+            leased = node;
+        }
+        if (leased < 0) {
+            return; // not started, or stopped
+        }
+        long start = System.nanoTime();
+        boolean renewed = jdbcTemplate.update(RENEW, leaseTtlSeconds(), leased, owner) == 1;
+        synchronized (this) {
+            if (node != leased) {
+                return; // stopped meanwhile
+            }
+            if (renewed) {
+                leaseDeadline = start + leaseTtlMillis * 1_000_000;
+                return;
+            }
+            log.warn("Lease of task id node {} expired and was taken over, leasing another one", leased);
+            node = -1;
+            lease();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        lease();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (node < 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(RELEASE, node, owner);
+        } catch (DataAccessException e) {
+            log.warn("Could not give back task id node {}, free once its lease expires: {}", node, e.getMessage());
+        }
+        node = -1;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return node >= 0;
+    }
+
+    // Before the web server and the listeners start, after them on shutdown
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // ================= HELPERS =================
+
+    private void lease() {
+        long start = System.nanoTime();
+        int leased = take();
+        if (leased < 0) {
+            throw new IllegalStateException("All " + NODES + " task id nodes are leased: at most "
+                    + NODES + " nodes run at once");
+        }
+        // Past every id already issued, also by an earlier holder of this number running ahead of the clock
+        long maxMillis = maxIssuedId() >> (NODE_BITS + SEQUENCE_BITS);
+        if (maxMillis >= lastMillis) {
+            lastMillis = maxMillis;
+            sequence = MAX_SEQUENCE;
+        }
+        node = leased;
+        leaseDeadline = start + leaseTtlMillis * 1_000_000;
+        log.info("Leased task id node {} for {} ms", leased, leaseTtlMillis);
+    }
+
+    private int take() {
+        for (int candidate = 0; candidate < NODES; candidate++) {
+            if (jdbcTemplate.update(TAKE_EXPIRED, owner, leaseTtlSeconds(), candidate) == 1) {
+                return candidate;
+            }
+            try {
+                jdbcTemplate.update(TAKE_NEW, candidate, owner, leaseTtlSeconds());
+                return candidate;
+            } catch (DuplicateKeyException e) {
+                // held by a running node
+            }
+        }
+        return -1;
+    }
+
+    private long maxIssuedId() {
+        long max = 0;
+        for (int shard = 0; shard < taskShards.count(); shard++) {
+            Long shardMax = taskShards.call(shard, () -> jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class));
+            if (shardMax != null) {
+                max = Math.max(max, shardMax);
+            }
+        }
+        return max;
+    }
+
+    // Expiry on the database clock, shared by every node; interval syntax that H2 reads too
+    private double leaseTtlSeconds() {
+        return leaseTtlMillis / 1000.0;
+    }
+}
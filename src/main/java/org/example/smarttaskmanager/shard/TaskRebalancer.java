@@ -0,0 +1,294 @@
+package org.example.smarttaskmanager.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.smarttaskmanager.dto.ShardMove;
+import org.example.smarttaskmanager.exception.BadRequestException;
+import org.example.smarttaskmanager.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves users' tasks between shards while the application serves them.
+ *
+ * A move copies all of the user's task data with the source's task_versions row locked,
+ * so the user's writes wait for it (reads go on):
+ *   1. source: lock the version row (SELECT ... FOR UPDATE), keep the transaction open
+ *   2. target: replace any earlier copy with the user's rows, fenced (moved_at set), commit
+ *   3. source: fence the version row, commit: the waiting writes fail with
+ *      ShardMovedException (503) and go to the target when retried
+ *   4. home: users.shard = target
+ *   5. target: lift the fence
+ * A node routing by a directory entry older than the move hits the source's fence too.
+ * When a move stops between 3 and 5 the user is fenced on the source: moving them again
+ * (to any shard) finishes it. The source copy stays readable for requests already on their way and is
+ * dropped after app.shards.purge-after. Outbox messages written before the move are relayed
+ * from the source.
+ *
+ * rebalance() moves the users the hash ring places elsewhere than they are, e.g. after a
+ * shard was added to app.shards.urls.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.shards.enabled", havingValue = "true")
+public class TaskRebalancer {
+
+    private static final int COPY_BATCH = 500;
+
+    private static final String SELECT_SHARD = "select shard from users where id = ?";
+    private static final String FLIP = "update users set shard = ? where id = ? and shard = ?";
+    private static final String USERS_AFTER = "select id, shard from users where id > ? order by id limit 1000";
+    private static final String USERS_PER_SHARD = "select shard, count(*) from users group by shard";
+
+    private static final String ENSURE_VERSION =
+            "insert into task_versions (user_id, version, pruned_version) values (?, 0, 0) on conflict do nothing";
+    private static final String LOCK_VERSION = "select version from task_versions where user_id = ? for update";
+    private static final String FENCE = "update task_versions set moved_at = ? where user_id = ?";
+    private static final String UNFENCE = "update task_versions set moved_at = null where user_id = ?";
+    private static final String FENCED_BEFORE = "select user_id from task_versions where moved_at < ?";
+
+    // Table → its user column: everything of a user that lives on their shard, except the outbox
+    private static final Map<String, String> USER_TABLES = new TreeMap<>(Map.of(
+            "tasks", "assigned_to_id",
+            "task_counters", "user_id",
+            "task_tombstones", "user_id",
+            "task_versions", "user_id"
+    ));
+
+    private final ShardRoutingDataSource router;
+    private final TaskShards taskShards;
+    private final JdbcTemplate home;
+    private final Duration purgeAfter;
+
+    public TaskRebalancer(ShardRoutingDataSource router,
+                          TaskShards taskShards,
+                          @Value("${app.shards.purge-after:1m}") Duration purgeAfter) {
+        this.router = router;
+        this.taskShards = taskShards;
+        this.home = new JdbcTemplate(router.shard(0));
+        this.purgeAfter = purgeAfter;
+    }
+
+    /**
+     * Move the user's tasks to the target shard; nothing to do when they are there already.
+     */
+    public synchronized ShardMove move(Long userId, int target) {
+        if (target < 0 || target >= router.count()) {
+            throw new BadRequestException("No shard " + target + " (there are " + router.count() + ")");
+        }
+        Integer source = home.query(SELECT_SHARD, rs -> rs.next() ? rs.getInt(1) : null, userId);
+        if (source == null) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        if (source == target) {
+            return new ShardMove(userId, source, target, 0);
+        }
+
+        try (Connection from = router.shard(source).getConnection();
+             Connection to = router.shard(target).getConnection()) {
+            from.setAutoCommit(false);
+            to.setAutoCommit(false);
+            JdbcTemplate sourceDb = new JdbcTemplate(new SingleConnectionDataSource(from, true));
+            JdbcTemplate targetDb = new JdbcTemplate(new SingleConnectionDataSource(to, true));
+            try {
+                // 1. The user's writes on the source wait from here
+                sourceDb.update(ENSURE_VERSION, userId);
+                sourceDb.queryForObject(LOCK_VERSION, Long.class, userId);
+
+                // 2. Copy, fenced on the target until the directory points there. The source is
+                // complete even when an unfinished move fenced it already: nobody wrote since.
+                int tasks = 0;
+                for (Map.Entry<String, String> table : USER_TABLES.entrySet()) {
+                    targetDb.update("delete from " + table.getKey() + " where " + table.getValue() + " = ?", userId);
+                    int copied = copy(sourceDb, targetDb, table.getKey(), table.getValue(), userId);
+                    if (table.getKey().equals("tasks")) {
+                        tasks = copied;
+                    }
+                }
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                targetDb.update(FENCE, now, userId);
+                to.commit();
+
+                // 3. Writers on the source fail from here
+                sourceDb.update(FENCE, now, userId);
+                from.commit();
+
+                // 4. Directory
+                if (home.update(FLIP, target, userId, source) == 0) {
+                    throw new IllegalStateException("User " + userId + " changed shards during the move");
+                }
+
+                // 5. Writable on the target
+                targetDb.update(UNFENCE, userId);
+                to.commit();
+                taskShards.forget(userId);
+
+                log.info("Moved user {} from shard {} to shard {} ({} tasks)", userId, source, target, tasks);
+                return new ShardMove(userId, source, target, tasks);
+            } catch (RuntimeException e) {
+                from.rollback();
+                to.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Moving user " + userId + " to shard " + target + " failed", e);
+        }
+    }
+
+    /**
+     * Move up to limit users the hash ring places on another shard than theirs.
+     */
+    public List<ShardMove> rebalance(int limit) {
+        List<ShardMove> moves = new ArrayList<>();
+        long afterId = 0;
+        while (moves.size() < limit) {
+            List<long[]> users = home.query(USERS_AFTER, (rs, row) -> new long[]{rs.getLong(1), rs.getInt(2)}, afterId);
+            if (users.isEmpty()) {
+                break;
+            }
+            for (long[] user : users) {
+                int placed = taskShards.place(user[0]);
+                if (placed != user[1] && moves.size() < limit) {
+                    moves.add(move(user[0], placed));
+                }
+            }
+            afterId = users.get(users.size() - 1)[0];
+        }
+        return moves;
+    }
+
+    public Map<Integer, Long> usersPerShard() {
+        Map<Integer, Long> users = new TreeMap<>();
+        for (int shard = 0; shard < router.count(); shard++) {
+            users.put(shard, 0L);
+        }
+        home.query(USERS_PER_SHARD, rs -> {
+            users.put(rs.getInt(1), rs.getLong(2));
+        });
+        return Collections.unmodifiableMap(users);
+    }
+
+    // Every node may run it; a user is dropped only from a shard the directory says they left
+    @Scheduled(fixedDelayString = "${app.shards.purge-interval-ms:60000}")
+    public void purgeMoved() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(purgeAfter));
+        for (int shard = 0; shard < router.count(); shard++) {
+            JdbcTemplate shardDb = new JdbcTemplate(router.shard(shard));
+            for (Long userId : shardDb.queryForList(FENCED_BEFORE, Long.class, cutoff)) {
+                Integer current = home.query(SELECT_SHARD, rs -> rs.next() ? rs.getInt(1) : null, userId);
+                if (current != null && current == shard) {
+                    continue; // a move to this shard is under way
+                }
+                for (Map.Entry<String, String> table : USER_TABLES.entrySet()) {
+                    shardDb.update("delete from " + table.getKey() + " where " + table.getValue() + " = ?", userId);
+                }
+                log.info("Dropped the old copy of user {} on shard {}", userId, shard);
+            }
+        }
+    }
+
+    // ================= HELPERS =================
+
+    // The user's rows of a table, column for column, in JDBC batches
+    private static int copy(JdbcTemplate sourceDb, JdbcTemplate targetDb, String table, String userColumn, Long userId) {
+        RowCopier copier = new RowCopier(targetDb, table);
+        String columns = String.join(", ", writableColumns(targetDb, table));
+        sourceDb.query("select " + columns + " from " + table + " where " + userColumn + " = ?", copier, userId);
+        return copier.finish();
+    }
+
+    // Generated columns (tasks.search_vector in PostgreSQL) take no values: the target computes them
+    private static List<String> writableColumns(JdbcTemplate db, String table) {
+        List<String> columns = db.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData meta = connection.getMetaData();
+            String name = meta.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            List<String> found = new ArrayList<>();
+            try (ResultSet rs = meta.getColumns(connection.getCatalog(), connection.getSchema(), name, null)) {
+                while (rs.next()) {
+                    if (!"YES".equals(rs.getString("IS_GENERATEDCOLUMN"))) {
+                        found.add(rs.getString("COLUMN_NAME"));
+                    }
+                }
+            }
+            return found;
+        });
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalStateException("No columns found for table " + table);
+        }
+        return columns;
+    }
+
+    /**
+     * Inserts the rows it is handed into the same table of another database.
+     */
+    private static final class RowCopier implements RowCallbackHandler {
+
+        private final JdbcTemplate targetDb;
+        private final String table;
+        private final List<Object[]> batch = new ArrayList<>(COPY_BATCH);
+        private String insert;
+        private int[] types;
+        private int copied;
+
+        private RowCopier(JdbcTemplate targetDb, String table) {
+            this.targetDb = targetDb;
+            this.table = table;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (insert == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> names = new ArrayList<>();
+                types = new int[meta.getColumnCount()];
+                for (int i = 1; i <= types.length; i++) {
+                    names.add(meta.getColumnName(i));
+                    types[i - 1] = meta.getColumnType(i);
+                }
+                insert = "insert into " + table + " (" + String.join(", ", names) + ") values ("
+                        + String.join(", ", Collections.nCopies(types.length, "?")) + ")";
+            }
+            Object[] row = new Object[types.length];
+            for (int i = 1; i <= types.length; i++) {
+                row[i - 1] = rs.getObject(i);
+            }
+            batch.add(row);
+            copied++;
+            if (batch.size() == COPY_BATCH) {
+                flush();
+            }
+        }
+
+        int finish() {
+            flush();
+            return copied;
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                targetDb.batchUpdate(insert, batch, types);
+                batch.clear();
+            }
+        }
+    }
+}
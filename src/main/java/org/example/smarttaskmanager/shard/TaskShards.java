@@ -0,0 +1,170 @@
+package org.example.smarttaskmanager.shard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.smarttaskmanager.exception.ShardMovedException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Which database (shard) holds a user's tasks, and the routing of work to it.
+ *
+ * All of a user's task data lives on one shard: tasks, counters, list versions, tombstones
+ * and the outbox messages of their changes, so every task transaction stays on one
+ * database. Users, and everything else, stay on the home database (shard 0), where
+ * users.shard is the directory. New users are placed by a consistent hash of their id
+ * (see ShardRing); TaskRebalancer moves existing ones.
+ *
+ * Work is routed by binding it to a shard before its first statement: bind() inside a
+ * transaction, call()/run() around code that opens its own. Directory entries are cached
+ * for app.shards.directory-ttl; a write routed by an entry that went stale meanwhile hits
+ * the moved user's fence (see TaskListVersions) and fails with ShardMovedException.
+ *
+ * Without app.shards.enabled there is one shard and all of this costs nothing.
+ */
+@Component
+public class TaskShards {
+
+    private static final String SELECT_SHARD = "select shard from users where id = ?";
+    private static final int SHARD_BITS = 8;
+
+    private final ShardRoutingDataSource router; // null: one database, nothing to route
+    private final ShardRing ring;
+    private final JdbcTemplate home;
+    private final Cache<Long, Integer> directory;
+
+    public TaskShards(ObjectProvider<ShardRoutingDataSource> router,
+                      @Value("${app.shards.virtual-nodes:128}") int virtualNodes,
+                      @Value("${app.shards.directory-ttl:5s}") Duration directoryTtl) {
+        this.router = router.getIfAvailable();
+        if (count() > 1 << SHARD_BITS) {
+            throw new IllegalStateException("At most " + (1 << SHARD_BITS) + " shards");
+        }
+        this.ring = new ShardRing(count(), virtualNodes);
+        // Straight to the home database: a lookup never joins the caller's shard transaction
+        this.home = this.router != null ? new JdbcTemplate(this.router.shard(0)) : null;
+        this.directory = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(directoryTtl)
+                .build();
+    }
+
+    public int count() {
+        return router != null ? router.count() : 1;
+    }
+
+    public int shardOf(Long userId) {
+        return router != null ? directory.get(userId, this::lookUp) : 0;
+    }
+
+    /**
+     * Shard for the tasks of a new user, by the hash ring. Stored as users.shard by the caller.
+     */
+    public int place(Long userId) {
+        return ring.shardOf(userId);
+    }
+
+    // The user moved: the next lookup reads the directory again
+    public void forget(Long userId) {
+        directory.invalidate(userId);
+    }
+
+    public ShardMovedException moved(Long userId) {
+        forget(userId);
+        return new ShardMovedException(userId);
+    }
+
+    /**
+     * Id of an outbox message for consumers. Outbox ids are per shard, so with shards the
+     * shard goes into the low bits: unique across shards, still increasing on each.
+     */
+    public long eventId(long outboxId, int shard) {
+        return router != null ? outboxId << SHARD_BITS | shard : outboxId;
+    }
+
+    /**
+     * Route the current transaction to the user's shard. Call it before the transaction's
+     * first statement; a transaction never spans two shards.
+     */
+    public void bind(Long userId) {
+        bindShard(shardOf(userId));
+    }
+
+    public void bindShard(int shard) {
+        if (router == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shards are bound inside a transaction");
+        }
+        Integer bound = (Integer) TransactionSynchronizationManager.getResource(ShardRoutingDataSource.BOUND_SHARD);
+        if (bound != null) {
+            checkSame(bound, shard);
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(ShardRoutingDataSource.BOUND_SHARD, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRoutingDataSource.BOUND_SHARD);
+            }
+        });
+    }
+
+    /**
+     * Run work on a shard: the transactions it opens (or repository calls it makes) go there.
+     */
+    public <T> T call(int shard, Supplier<T> work) {
+        if (router == null) {
+            return work.get();
+        }
+        Integer bound = (Integer) TransactionSynchronizationManager.getResource(ShardRoutingDataSource.BOUND_SHARD);
+        if (bound != null) {
+            checkSame(bound, shard);
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Shard work opens its own transactions, not inside one");
+        }
+        TransactionSynchronizationManager.bindResource(ShardRoutingDataSource.BOUND_SHARD, shard);
+        try {
+            return work.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(ShardRoutingDataSource.BOUND_SHARD);
+        }
+    }
+
+    public void run(int shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // ================= HELPERS =================
+
+    private int lookUp(Long userId) {
+        Integer shard = home.query(SELECT_SHARD, rs -> rs.next() ? rs.getInt(1) : null, userId);
+        if (shard == null) {
+            return 0; // no such user, no tasks anywhere
+        }
+        if (shard >= count()) {
+            throw new IllegalStateException("User " + userId + " is on shard " + shard
+                    + " but only " + count() + " are configured (app.shards.urls)");
+        }
+        return shard;
+    }
+
+    private static void checkSame(int bound, int shard) {
+        if (bound != shard) {
+            throw new IllegalStateException("Work bound to shard " + bound + " cannot use shard " + shard);
+        }
+    }
+}
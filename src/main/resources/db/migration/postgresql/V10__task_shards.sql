@@ -0,0 +1,29 @@
+-- Task sharding by owner (see TaskShards / TaskRebalancer).
+-- users.shard is the directory: the database holding the user's tasks, counters,
+-- versions, tombstones and outbox messages. 0 is this database, where users live.
+-- Every shard runs the same migrations; the tables a shard does not use stay empty.
+
+ALTER TABLE users ADD COLUMN shard INTEGER DEFAULT 0 NOT NULL;
+
+-- Set on the shard a user moved away from: that copy takes no more changes
+ALTER TABLE task_versions ADD COLUMN moved_at TIMESTAMP(6);
+
+-- A user's task rows may live on another database than the user: no foreign keys to users.
+-- Baselined schemas have Hibernate's generated constraint names, so look them up.
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT c.conrelid::regclass AS table_name, c.conname
+        FROM pg_constraint c
+        WHERE c.contype = 'f'
+          AND c.confrelid = 'users'::regclass
+          AND c.conrelid IN ('tasks'::regclass, 'task_counters'::regclass, 'task_versions'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+-- Task ids are made by the application now (TaskIds), above every id the sequence gave out
+DROP SEQUENCE IF EXISTS task_id_seq;
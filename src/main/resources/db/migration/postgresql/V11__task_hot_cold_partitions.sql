@@ -0,0 +1,62 @@
+-- Hot/cold split of tasks (see TaskArchiver).
+-- tasks becomes a table partitioned on archived: tasks_hot holds the open, in-progress and
+-- recently closed tasks, tasks_cold the CLOSED ones untouched for app.tasks.archive.after.
+-- Lists without a CLOSED filter read tasks_hot only, so its indexes and cached pages stay
+-- the size of the active tasks however much history piles up. Archiving is an UPDATE of
+-- archived, which moves the row to tasks_cold. An edit of an archived task keeps it there;
+-- only reopening it (a status other than CLOSED) moves it back to tasks_hot.
+--
+-- Rewrites the whole table under an exclusive lock: on a large table plan the downtime.
+
+ALTER TABLE tasks RENAME TO tasks_unpartitioned;
+
+CREATE TABLE tasks (
+    id              BIGINT NOT NULL,
+    title           VARCHAR(255),
+    description     VARCHAR(255),
+    status          VARCHAR(255) CHECK (status IN ('OPEN', 'IN_PROGRESS', 'CLOSED')),
+    priority        VARCHAR(255) CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    due_date        TIMESTAMP(6),
+    assigned_to_id  BIGINT,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    search_vector   tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+        ) STORED,
+    change_version  BIGINT DEFAULT 0 NOT NULL,
+    due_notified    INTEGER DEFAULT 0 NOT NULL,
+    archived        BOOLEAN DEFAULT FALSE NOT NULL
+) PARTITION BY LIST (archived);
+
+CREATE TABLE tasks_hot PARTITION OF tasks FOR VALUES IN (FALSE);
+CREATE TABLE tasks_cold PARTITION OF tasks FOR VALUES IN (TRUE);
+
+-- Everything starts hot; the archiver's first runs move the old closed tasks
+INSERT INTO tasks (id, title, description, status, priority, due_date, assigned_to_id,
+                   created_at, updated_at, change_version, due_notified)
+SELECT id, title, description, status, priority, due_date, assigned_to_id,
+       created_at, updated_at, change_version, due_notified
+FROM tasks_unpartitioned;
+
+DROP TABLE tasks_unpartitioned;
+
+-- The primary key of a partitioned table must contain the partition key; ids stay unique (TaskIds)
+ALTER TABLE tasks ADD PRIMARY KEY (id, archived);
+
+-- Same indexes as before (V2, V3, V4, V8, V9), now one per partition
+CREATE INDEX idx_tasks_search_vector ON tasks USING GIN (search_vector);
+CREATE INDEX idx_tasks_title_trgm ON tasks USING GIN (title gin_trgm_ops);
+CREATE INDEX idx_tasks_description_trgm ON tasks USING GIN (description gin_trgm_ops);
+CREATE INDEX idx_tasks_user_updated ON tasks (assigned_to_id, updated_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_due ON tasks (assigned_to_id, due_date ASC NULLS LAST, id ASC);
+CREATE INDEX idx_tasks_user_status_updated ON tasks (assigned_to_id, status, updated_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_status_due ON tasks (assigned_to_id, status, due_date ASC NULLS LAST, id ASC);
+CREATE INDEX idx_tasks_user_change_version ON tasks (assigned_to_id, change_version);
+CREATE INDEX idx_tasks_due_pending ON tasks (due_date, id)
+    WHERE due_notified < 2 AND due_date IS NOT NULL AND (status IS NULL OR status <> 'CLOSED');
+
+-- The archiver walks the closed hot tasks, oldest change first
+CREATE INDEX idx_tasks_archivable ON tasks (updated_at, id)
+    WHERE status = 'CLOSED' AND NOT archived;
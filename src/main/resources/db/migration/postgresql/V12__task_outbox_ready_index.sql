@@ -0,0 +1,5 @@
+-- Outbox relay (TaskOutboxRelay): an event is ready when its time came and no earlier event
+-- of the same task is waiting for a retry. This index answers the "earlier event of the
+-- same task" lookup, so the relay's query stays cheap while a task's events pile up.
+
+CREATE INDEX idx_task_outbox_task ON task_outbox (task_id, id);
@@ -0,0 +1,9 @@
+-- Node slots of the task ids (see TaskIds): a running node leases one of the 32 node
+-- numbers here, on the home database, and renews it while it runs. A slot whose lease
+-- expired is free again. Times are the database's, so node clocks do not matter.
+
+CREATE TABLE task_id_nodes (
+    node        INTEGER      NOT NULL PRIMARY KEY,
+    owner       VARCHAR(255) NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Version of a user's tokens (see JwtTokenProvider): raising it revokes every token issued
+-- before. Existing users start at 0, the version their tokens carry.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER DEFAULT 0 NOT NULL;
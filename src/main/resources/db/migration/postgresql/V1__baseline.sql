@@ -0,0 +1,27 @@
+-- Schema as previously created by hibernate ddl-auto.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE users (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username       VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL UNIQUE,
+    password       VARCHAR(255) NOT NULL,
+    last_login     TIMESTAMP(6)
+);
+
+CREATE TABLE user_roles (
+    user_id  BIGINT NOT NULL REFERENCES users (id),
+    role     VARCHAR(255) CHECK (role IN ('ROLE_USER', 'ROLE_ADMIN'))
+);
+
+CREATE TABLE tasks (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           VARCHAR(255),
+    description     VARCHAR(255),
+    status          VARCHAR(255) CHECK (status IN ('OPEN', 'IN_PROGRESS', 'CLOSED')),
+    priority        VARCHAR(255) CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    due_date        TIMESTAMP(6),
+    assigned_to_id  BIGINT REFERENCES users (id),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
@@ -0,0 +1,18 @@
+-- Indexed task search (PostgresTaskSearchEngine).
+-- Replaces upper(title) LIKE upper('%x%'), which no B-tree index can serve.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Ranked word/prefix search: title words weigh more than description words
+ALTER TABLE tasks
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX idx_tasks_search_vector ON tasks USING GIN (search_vector);
+
+-- Substring matches (ILIKE '%x%') stay indexed through trigrams
+CREATE INDEX idx_tasks_title_trgm ON tasks USING GIN (title gin_trgm_ops);
+CREATE INDEX idx_tasks_description_trgm ON tasks USING GIN (description gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Keyset pagination (GET /api/tasks/scroll): one index per sort order,
+-- so each slice is a range scan starting at the cursor.
+
+CREATE INDEX idx_tasks_user_updated ON tasks (assigned_to_id, updated_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_due ON tasks (assigned_to_id, due_date ASC NULLS LAST, id ASC);
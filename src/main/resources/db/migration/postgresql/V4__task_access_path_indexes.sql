@@ -0,0 +1,12 @@
+-- Indexes for every TaskRepository access path (declared on the entities as well).
+--   findByAssignedToId / countByAssignedToId / scroll(UPDATED_AT)  → idx_tasks_user_updated (V3)
+--   scroll(DUE_DATE)                                               → idx_tasks_user_due (V3)
+--   findByAssignedToIdAndStatus / countBy... / scroll + status     → the two below
+--   updateOwned / deleteOwned                                      → primary key
+--   searchFullText                                                 → GIN indexes (V2) + the above
+
+CREATE INDEX idx_tasks_user_status_updated ON tasks (assigned_to_id, status, updated_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_status_due ON tasks (assigned_to_id, status, due_date ASC NULLS LAST, id ASC);
+
+-- Eager loading of User.roles filters user_roles by user_id on every user lookup
+CREATE INDEX idx_user_roles_user_id ON user_roles (user_id);
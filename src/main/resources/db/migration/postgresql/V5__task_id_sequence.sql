@@ -0,0 +1,9 @@
+-- tasks.id: IDENTITY → sequence with a pooled optimizer (allocationSize = 500),
+-- so Hibernate can batch inserts and fetch ids 500 at a time.
+
+ALTER TABLE tasks ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE task_id_seq INCREMENT BY 500;
+
+-- Pooled optimizer hands out (value - 499 .. value): start above every existing id
+SELECT setval('task_id_seq', COALESCE((SELECT max(id) FROM tasks), 0) + 500, false);
@@ -0,0 +1,15 @@
+-- Transactional outbox for task change events (see TaskOutboxWriter / TaskOutboxRelay).
+-- IDENTITY on purpose: the id is taken when the row is inserted, after the task row
+-- is locked, so for any one task the id order is the commit order.
+
+CREATE TABLE task_outbox (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id          BIGINT NOT NULL,
+    user_id          BIGINT NOT NULL,
+    type             VARCHAR(255) NOT NULL CHECK (type IN ('CREATED', 'UPDATED', 'DELETED')),
+    payload          VARCHAR(4000),
+    created_at       TIMESTAMP(6) NOT NULL,
+    attempts         INTEGER DEFAULT 0 NOT NULL,
+    next_attempt_at  TIMESTAMP(6) NOT NULL,
+    last_error       VARCHAR(255)
+);
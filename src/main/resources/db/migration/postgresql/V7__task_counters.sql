@@ -0,0 +1,28 @@
+-- Per-user task counters behind GET /api/tasks/stats (see TaskStatsService).
+-- counter: 'total', 'status:<STATUS>', 'priority:<PRIORITY>', and 'due:<YYYY-MM-DD>'
+-- for tasks that are not CLOSED. A missing row means zero.
+
+CREATE TABLE task_counters (
+    user_id  BIGINT      NOT NULL REFERENCES users (id),
+    counter  VARCHAR(32) NOT NULL,
+    amount   BIGINT      NOT NULL,
+    PRIMARY KEY (user_id, counter)
+);
+
+-- Count the existing tasks (users without tasks get their counters on first use)
+INSERT INTO task_counters (user_id, counter, amount)
+SELECT assigned_to_id, 'total', count(*)
+FROM tasks WHERE assigned_to_id IS NOT NULL
+GROUP BY assigned_to_id
+UNION ALL
+SELECT assigned_to_id, 'status:' || status, count(*)
+FROM tasks WHERE assigned_to_id IS NOT NULL AND status IS NOT NULL
+GROUP BY assigned_to_id, status
+UNION ALL
+SELECT assigned_to_id, 'priority:' || priority, count(*)
+FROM tasks WHERE assigned_to_id IS NOT NULL AND priority IS NOT NULL
+GROUP BY assigned_to_id, priority
+UNION ALL
+SELECT assigned_to_id, 'due:' || to_char(due_date, 'YYYY-MM-DD'), count(*)
+FROM tasks WHERE assigned_to_id IS NOT NULL AND (status IS NULL OR status <> 'CLOSED') AND due_date IS NOT NULL
+GROUP BY assigned_to_id, to_char(due_date, 'YYYY-MM-DD');
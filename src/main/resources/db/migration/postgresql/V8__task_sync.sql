@@ -0,0 +1,23 @@
+-- Per-user task list versions behind the list ETags and GET /api/tasks/changes
+-- (see TaskListVersions and TaskSyncService).
+-- Every transaction that changes a user's tasks takes the next version: written tasks
+-- carry it in change_version, deleted ones leave a tombstone with it.
+
+-- Existing tasks start at 0: they are part of any full load, never of a delta
+ALTER TABLE tasks ADD COLUMN change_version BIGINT DEFAULT 0 NOT NULL;
+CREATE INDEX idx_tasks_user_change_version ON tasks (assigned_to_id, change_version);
+
+CREATE TABLE task_versions (
+    user_id         BIGINT NOT NULL PRIMARY KEY REFERENCES users (id),
+    version         BIGINT NOT NULL,
+    pruned_version  BIGINT NOT NULL
+);
+
+CREATE TABLE task_tombstones (
+    task_id     BIGINT       NOT NULL PRIMARY KEY,
+    user_id     BIGINT       NOT NULL,
+    version     BIGINT       NOT NULL,
+    deleted_at  TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX idx_task_tombstones_user_version ON task_tombstones (user_id, version);
+CREATE INDEX idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
@@ -0,0 +1,20 @@
+-- Due-date notices (see TaskDueScheduler / TaskDueNotifier).
+-- due_notified is the last notice sent for the current due_date: 0 none, 1 due soon,
+-- 2 overdue. A node claims a notice by moving it up with a conditional UPDATE, so
+-- each one is sent once whatever the number of nodes; a new due_date resets it.
+
+ALTER TABLE tasks ADD COLUMN due_notified INTEGER DEFAULT 0 NOT NULL;
+
+-- Past due dates count as notified: no burst of overdue notices for old tasks on deploy.
+-- Rewrites those rows once; on a large table run it in id ranges before deploying.
+UPDATE tasks SET due_notified = 2 WHERE due_date < now();
+
+-- The scheduler walks pending notices in due order. Partial: sent and closed tasks leave
+-- the index, so it holds the pending notices only, however many tasks there are.
+CREATE INDEX idx_tasks_due_pending ON tasks (due_date, id)
+    WHERE due_notified < 2 AND due_date IS NOT NULL AND (status IS NULL OR status <> 'CLOSED');
+
+-- New outbox message types
+ALTER TABLE task_outbox DROP CONSTRAINT IF EXISTS task_outbox_type_check;
+ALTER TABLE task_outbox ADD CONSTRAINT task_outbox_type_check
+    CHECK (type IN ('CREATED', 'UPDATED', 'DELETED', 'DUE_SOON', 'OVERDUE'));
@@ -0,0 +1,31 @@
+package org.example.smarttaskmanager;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * The application against PostgreSQL, migrated by Flyway like in production.
+ * Each application context gets a database of its own (TestDatabase); skipped without Docker
+ * or TEST_POSTGRES_URL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class PostgresIntegrationTest {
+
+    @BeforeAll
+    static void requirePostgres() {
+        Assumptions.assumeTrue(TestDatabase.available(), "needs Docker or TEST_POSTGRES_URL");
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        String url = TestDatabase.create();
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", TestDatabase::username);
+        registry.add("spring.datasource.password", TestDatabase::password);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.smarttaskmanager;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The application started on a database of before the migrations: the schema Hibernate's
+ * ddl-auto made, with data and without Flyway's history. Flyway baselines it at V1 and runs
+ * the rest; the start fails when they do not bring it to what the entities expect. Not a
+ * PostgresIntegrationTest: that one starts on an empty database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaUpgradeTest {
+
+    @BeforeAll
+    static void requirePostgres() {
+        Assumptions.assumeTrue(TestDatabase.available(), "needs Docker or TEST_POSTGRES_URL");
+    }
+
+    @DynamicPropertySource
+    static void oldDatabase(DynamicPropertyRegistry registry) {
+        String url = TestDatabase.create();
+        DataSource old = new DriverManagerDataSource(url, TestDatabase.username(), TestDatabase.password());
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/postgresql/V1__baseline.sql")).execute(old);
+        JdbcTemplate db = new JdbcTemplate(old);
+        db.update("insert into users (username, email, password) values ('old', 'old@example.com', '{noop}secret')");
+        db.update("""
+                insert into tasks (title, status, assigned_to_id, created_at, updated_at)
+                select 'old task', 'OPEN', id, localtimestamp, localtimestamp from users
+                """);
+
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", TestDatabase::username);
+        registry.add("spring.datasource.password", TestDatabase::password);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existingSchemaIsBaselinedAndMigrated() {
+        assertThat(jdbcTemplate.queryForList("""
+                select version from flyway_schema_history where success order by installed_rank
+                """, String.class)).startsWith("1").contains("14");
+        assertThat(jdbcTemplate.queryForObject("select type from flyway_schema_history where version = '1'",
+                String.class)).isEqualTo("BASELINE"); // V1 itself did not run
+        assertThat(jdbcTemplate.queryForObject("select token_version from users where email = 'old@example.com'",
+                Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tasks where title = 'old task'", Integer.class))
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.smarttaskmanager;
+
+import org.springframework.boot.SpringApplication;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The PostgreSQL server of the integration tests: a Testcontainers container, or the server
+ * at TEST_POSTGRES_URL (TEST_POSTGRES_USERNAME / TEST_POSTGRES_PASSWORD) when there is no
+ * Docker. Every test run gets fresh databases on it, dropped when the JVM exits (after the application contexts closed).
+ */
+public final class TestDatabase {
+
+    private static final String URL = System.getenv("TEST_POSTGRES_URL");
+    private static final String USERNAME = envOr("TEST_POSTGRES_USERNAME", "postgres");
+    private static final String PASSWORD = envOr("TEST_POSTGRES_PASSWORD", "");
+
+    private static final String RUN = "stm_test_" + Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicInteger databases = new AtomicInteger();
+    private static final List<String> created = new ArrayList<>();
+
+    private static PostgreSQLContainer<?> container;
+
+    private TestDatabase() {
+    }
+
+    public static boolean available() {
+        return URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public static String username() {
+        return URL != null ? USERNAME : server().getUsername();
+    }
+
+    public static String password() {
+        return URL != null ? PASSWORD : server().getPassword();
+    }
+
+    /**
+     * A new empty database on the test server.
+     *
+     * @return its JDBC url
+     */
+    public static synchronized String create() {
+        String name = RUN + "_" + databases.incrementAndGet();
+        String adminUrl = adminUrl();
+        execute(adminUrl, "create database " + name);
+        if (created.isEmpty()) {
+            // After the application contexts closed: they still use the databases while closing
+            SpringApplication.getShutdownHandlers().add(TestDatabase::dropAll);
+        }
+        created.add(name);
+        return withDatabase(adminUrl, name);
+    }
+
+    // ================= HELPERS =================
+
+    private static synchronized PostgreSQLContainer<?> server() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    private static String adminUrl() {
+        return URL != null ? URL : server().getJdbcUrl();
+    }
+
+    private static synchronized void dropAll() {
+        if (container != null) {
+            return; // goes away with the container
+        }
+        for (String name : created) {
+            try {
+                execute(URL, "drop database if exists " + name + " with (force)");
+            } catch (RuntimeException e) {
+                System.err.println("Could not drop test database " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void execute(String url, String sql) {
+        try (Connection connection = DriverManager.getConnection(url, username(), password());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(sql + " failed on " + url, e);
+        }
+    }
+
+    // jdbc:postgresql://host:port/db?params → same server, database name
+    private static String withDatabase(String url, String name) {
+        int params = url.indexOf('?');
+        String base = params < 0 ? url : url.substring(0, params);
+        String query = params < 0 ? "" : url.substring(params);
+        return base.substring(0, base.lastIndexOf('/') + 1) + name + query;
+    }
+
+    private static String envOr(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.smarttaskmanager.config;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The actuator on its own port, with real servers: what an anonymous caller gets on the API
+ * port and on the management port. Metrics export is on, as in production (tests turn it off).
+ */
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ManagementPortTest extends PostgresIntegrationTest {
+
+    private static final HttpClient client = HttpClient.newHttpClient(); // follows no redirects
+
+    @LocalServerPort
+    private int apiPort;
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsAnonymousOnTheManagementPortOnly() throws Exception {
+        assertThat(managementPort).isNotEqualTo(apiPort);
+
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertThat(scrape.statusCode()).isEqualTo(200);
+        assertThat(scrape.body()).contains("jvm_memory_used_bytes");
+
+        assertThat(get(apiPort, "/actuator/prometheus").statusCode()).isNotEqualTo(200);
+    }
+
+    @Test
+    void otherEndpointsStillNeedAnAdmin() throws Exception {
+        assertThat(get(managementPort, "/actuator/health").statusCode()).isEqualTo(200);
+        assertThat(get(managementPort, "/actuator/metrics").statusCode()).isNotEqualTo(200);
+    }
+
+    // ================= HELPERS =================
+
+    private static HttpResponse<String> get(int port, String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.smarttaskmanager.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.smarttaskmanager.security.LocalRateLimiter;
+import org.example.smarttaskmanager.security.RateLimitRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The filter over local buckets, for anonymous callers (one bucket per IP).
+ * Callers: 2 requests at once, one more per second. Auth: 1 at once. Global: as given.
+ */
+class RateLimitFilterTest {
+
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter(1_000, Duration.ofMinutes(10));
+
+    @Test
+    void callerOverItsLimitGets429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(1_000);
+
+        assertThat(call(filter, "10.0.0.1", "/api/tasks").getStatus()).isEqualTo(200);
+        assertThat(call(filter, "10.0.0.1", "/api/tasks").getStatus()).isEqualTo(200);
+
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse rejected = call(filter, "10.0.0.1", "/api/tasks", chain);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        verify(chain, never()).doFilter(any(), any());
+
+        // Another caller has a bucket of its own
+        assertThat(call(filter, "10.0.0.2", "/api/tasks").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void authEndpointsHaveTheirOwnLimit() throws Exception {
+        RateLimitFilter filter = filter(1_000);
+
+        assertThat(call(filter, "10.0.0.1", "/api/auth/login").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = call(filter, "10.0.0.1", "/api/auth/login");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+
+        assertThat(call(filter, "10.0.0.1", "/api/tasks").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void requestRejectedByTheGlobalLimitCostsTheCallerNothing() throws Exception {
+        RateLimitFilter filter = filter(1);
+
+        assertThat(call(filter, "10.0.0.1", "/api/tasks").getStatus()).isEqualTo(200); // the global token
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse rejected = call(filter, "10.0.0.2", "/api/tasks");
+            assertThat(rejected.getStatus()).isEqualTo(429);
+            assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("100");
+        }
+
+        // Both of the caller's tokens are still there
+        RateLimitRule callers = new RateLimitRule("user", 2, 1);
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", callers)).isZero();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", callers)).isZero();
+        assertThat(rateLimiter.tryAcquire("ip:10.0.0.2", callers)).isPositive();
+    }
+
+    // ================= HELPERS =================
+
+    // Global bucket of globalCapacity, refilled at one per 100 s
+    private RateLimitFilter filter(long globalCapacity) {
+        return new RateLimitFilter(rateLimiter, new SimpleMeterRegistry(), true,
+                2, 1, 1, 0.1, globalCapacity, 0.01);
+    }
+
+    private MockHttpServletResponse call(RateLimitFilter filter, String ip, String path) throws Exception {
+        return call(filter, ip, path, mock(FilterChain.class));
+    }
+
+    private MockHttpServletResponse call(RateLimitFilter filter, String ip, String path, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.smarttaskmanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.TestDatabase;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.repository.UserRepository;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.example.smarttaskmanager.service.TaskService;
+import org.example.smarttaskmanager.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Read routing with one "replica": a database of its own with the same schema that never
+ * receives the primary's writes, i.e. a replica infinitely behind. Whether a read sees a
+ * fresh write tells which database answered it. Its lag is whatever replica_lag says.
+ */
+@AutoConfigureMockMvc
+class ReplicaRoutingDataSourceTest extends PostgresIntegrationTest {
+
+    private static final AtomicInteger users = new AtomicInteger();
+    private static DataSource replica;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        String url = TestDatabase.create();
+        replica = new DriverManagerDataSource(url, TestDatabase.username(), TestDatabase.password());
+        Flyway.configure().dataSource(replica).locations("classpath:db/migration/postgresql").load().migrate();
+        new JdbcTemplate(replica).execute("create table replica_lag as select 0.0 as seconds");
+
+        registry.add("app.datasource.replicas.enabled", () -> "true");
+        registry.add("app.datasource.replicas.urls", () -> url);
+        registry.add("app.datasource.replicas.lag-query", () -> "select seconds from replica_lag");
+        registry.add("app.datasource.replicas.max-lag", () -> "2s");
+        registry.add("app.datasource.replicas.sticky-window", () -> "1s");
+        registry.add("app.datasource.replicas.check-interval-ms", () -> "3600000"); // checked by the tests
+    }
+
+    @Autowired
+    private ReplicaRoutingDataSource router;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String email;
+
+    @BeforeEach
+    void healthyReplica() {
+        setLag(0);
+        email = "reader" + users.incrementAndGet() + "@example.com";
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaTheRestToThePrimary() {
+        userService.registerUser("reader", email, "{noop}secret");
+
+        assertThat(readOnly(() -> userRepository.findByEmail(email))).isEmpty();
+        Optional<User> readWrite = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.findByEmail(email));
+        assertThat(readWrite).isPresent();
+    }
+
+    @Test
+    void authenticationFindsAUserTheReplicaDoesNotHaveYet() throws Exception {
+        assertThat(call("/api/auth/register", Map.of("username", "reader", "email", email, "password", "secret")))
+                .isEqualTo(200);
+        assertThat(readOnly(() -> userRepository.findByEmail(email))).isEmpty();
+
+        assertThat(userService.findByEmailOnPrimary(email)).isPresent();
+        assertThat(call("/api/auth/login", Map.of("email", email, "password", "secret"))).isEqualTo(200);
+        assertThat(call("/api/auth/register", Map.of("username", "again", "email", email, "password", "other")))
+                .isEqualTo(409);
+    }
+
+    @Test
+    void laggingReplicaGetsNoReadsUntilItCatchesUp() {
+        userService.registerUser("reader", email, "{noop}secret");
+
+        setLag(10);
+        assertThat(readOnly(() -> userRepository.findByEmail(email))).isPresent();
+
+        setLag(1);
+        assertThat(readOnly(() -> userRepository.findByEmail(email))).isEmpty();
+    }
+
+    @Test
+    void userReadsThePrimaryForTheStickyWindowAfterTheirChange() throws InterruptedException {
+        User writer = userService.registerUser("writer", email, "{noop}secret");
+        User other = userService.registerUser("other", "other-" + email, "{noop}secret");
+
+        signIn(writer);
+        Task task = new Task();
+        task.setTitle("fresh");
+        taskService.createTask(task, writer.getId());
+
+        assertThat(tasksSeenOf(writer)).isEqualTo(1); // pinned: the primary
+        signIn(other);
+        assertThat(tasksSeenOf(writer)).isZero();     // not pinned: the replica
+
+        Thread.sleep(1500); // past the sticky window
+        signIn(writer);
+        assertThat(tasksSeenOf(writer)).isZero();
+    }
+
+    // ================= HELPERS =================
+
+    private void setLag(double seconds) {
+        new JdbcTemplate(replica).update("update replica_lag set seconds = ?", seconds);
+        router.checkReplicas();
+    }
+
+    private void signIn(User user) {
+        UserPrincipal principal = UserPrincipal.fromUser(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    // The user's tasks as a read-only transaction of the signed-in user sees them
+    private int tasksSeenOf(User user) {
+        return readOnly(() -> jdbcTemplate.queryForObject(
+                "select count(*) from tasks where assigned_to_id = ?", Integer.class, user.getId()));
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> read.get());
+    }
+
+    // Status of an auth endpoint, which answers asynchronously
+    private int call(String path, Map<String, String> body) throws Exception {
+        MvcResult started = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.smarttaskmanager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.security.PasswordHasher;
+import org.example.smarttaskmanager.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * How the auth endpoints answer when hashing or the work after it fails: each cause gets its
+ * own status, bad credentials stay 401.
+ */
+@AutoConfigureMockMvc
+class AuthControllerTest extends PostgresIntegrationTest {
+
+    private static final AtomicInteger users = new AtomicInteger();
+    // What the next hash runs instead of bcrypt (null: bcrypt)
+    private static final AtomicReference<Runnable> nextHash = new AtomicReference<>();
+
+    @TestConfiguration
+    static class Hashing {
+
+        @Bean
+        @Primary
+        PasswordHasher interceptedPasswordHasher(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+            return new PasswordHasher(passwordEncoder, meterRegistry, 4, 1, 4) {
+                @Override
+                public CompletableFuture<String> encode(String rawPassword) {
+                    return intercepted(() -> super.encode(rawPassword));
+                }
+
+                @Override
+                public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+                    return intercepted(() -> super.matches(rawPassword, encodedPassword));
+                }
+            };
+        }
+
+        private static <T> CompletableFuture<T> intercepted(Supplier<CompletableFuture<T>> hash) {
+            Runnable instead = nextHash.getAndSet(null);
+            if (instead == null) {
+                return hash.get();
+            }
+            try {
+                instead.run();
+                return hash.get();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    void bcrypt() {
+        nextHash.set(null);
+    }
+
+    @Test
+    void hashingPoolFullIs503WithRetryAfter() throws Exception {
+        nextHash.set(() -> {
+            throw new PasswordHasher.OverloadedException();
+        });
+
+        MockHttpServletResponse response = register(email());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void taskExecutorFullIs503WithRetryAfter() throws Exception {
+        String email = email();
+        assertThat(register(email).getStatus()).isEqualTo(200);
+        nextHash.set(() -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        MockHttpServletResponse response = login(email, "secret");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void badCredentialsStay401() throws Exception {
+        String email = email();
+        assertThat(register(email).getStatus()).isEqualTo(200);
+
+        assertThat(login(email, "wrong").getStatus()).isEqualTo(401);
+        assertThat(login(email, "secret").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void registrationLosingTheRaceForItsEmailIs409() throws Exception {
+        String email = email();
+        // Registered by another request after the cheap check, while this one hashed
+        nextHash.set(() -> userService.registerUser("first", email, "{noop}secret"));
+
+        assertThat(register(email).getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void unexpectedFailureIs500NotTheEndpointsUsualError() throws Exception {
+        String email = email();
+        assertThat(register(email).getStatus()).isEqualTo(200);
+        nextHash.set(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(login(email, "secret").getStatus()).isEqualTo(500);
+    }
+
+    // ================= HELPERS =================
+
+    private static String email() {
+        return "auth" + users.incrementAndGet() + "@example.com";
+    }
+
+    private MockHttpServletResponse register(String email) throws Exception {
+        return call("/api/auth/register", Map.of("username", "auth", "email", email, "password", "secret"));
+    }
+
+    private MockHttpServletResponse login(String email, String password) throws Exception {
+        return call("/api/auth/login", Map.of("email", email, "password", password));
+    }
+
+    // Response of an auth endpoint, which answers asynchronously
+    private MockHttpServletResponse call(String path, Map<String, String> body) throws Exception {
+        MvcResult started = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+    }
+}
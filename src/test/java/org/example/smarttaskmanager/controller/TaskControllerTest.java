@@ -0,0 +1,168 @@
+package org.example.smarttaskmanager.controller;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.repository.QueryPlans;
+import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.service.TaskService;
+import org.example.smarttaskmanager.service.TaskStatsService;
+import org.example.smarttaskmanager.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Task requests through the whole stack (JWT filter to database): how many statements a
+ * page or a change costs, and what a page shows of its owner.
+ */
+@AutoConfigureMockMvc
+class TaskControllerTest extends PostgresIntegrationTest {
+
+    private static final AtomicInteger users = new AtomicInteger();
+    // The tasks table itself, not task_versions, task_outbox, ...
+    private static final Pattern TASKS = Pattern.compile("\\btasks\\b");
+
+    @TestConfiguration
+    static class Statements {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? new QueryPlans(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private QueryPlans queryPlans;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private User user;
+    private String authorization;
+
+    @BeforeEach
+    void user() {
+        int n = users.incrementAndGet();
+        user = userService.registerUser("lister" + n, "lister" + n + "@example.com", "{noop}secret");
+        authorization = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void pageOfTasksCostsTheSameStatementsWhateverItsContent() throws Exception {
+        createTasks(100);
+        List<QueryPlans.Plan> one = listStatements();
+
+        createTasks(400);
+        List<QueryPlans.Plan> five = listStatements();
+
+        assertThat(five).extracting(QueryPlans.Plan::sql)
+                .containsExactlyElementsOf(one.stream().map(QueryPlans.Plan::sql).toList());
+        // The JWT filter's lookup of the caller; the page itself reads no user rows
+        assertThat(five).extracting(QueryPlans.Plan::sql)
+                .filteredOn(sql -> sql.contains("from users"))
+                .hasSize(1);
+        assertThat(five).extracting(QueryPlans.Plan::sql)
+                .filteredOn(sql -> sql.contains("from tasks"))
+                .hasSize(2) // the page and its count
+                .noneMatch(sql -> sql.contains("users"));
+    }
+
+    @Test
+    void pageShowsTheOwnersIdOnly() throws Exception {
+        createTasks(3);
+
+        mockMvc.perform(get("/api/tasks").param("size", "100").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].assignedToId").value(user.getId()))
+                .andExpect(jsonPath("$.content[0].assignedTo").doesNotExist())
+                .andExpect(jsonPath("$..password").isEmpty())
+                .andExpect(jsonPath("$..email").isEmpty())
+                .andExpect(jsonPath("$..roles").isEmpty());
+    }
+
+    @Test
+    void updateAndDeleteAreOneStatementOnTheTaskEach() throws Exception {
+        createTasks(2);
+        List<Long> ids = taskService.getTasksByUser(user.getId(), 0, 10, null, null)
+                .map(TaskResponse::getId).getContent();
+
+        queryPlans.start();
+        mockMvc.perform(put("/api/tasks/{id}", ids.get(0))
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"renamed\", \"status\": \"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("renamed"))
+                .andExpect(jsonPath("$.description").value("about task 0"));
+        mockMvc.perform(delete("/api/tasks/{id}", ids.get(1)).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        List<QueryPlans.Plan> statements = queryPlans.stop();
+
+        assertThat(statements).extracting(QueryPlans.Plan::sql)
+                .filteredOn(sql -> TASKS.matcher(sql).find())
+                .hasSize(2)
+                .allMatch(sql -> sql.contains("returning"));
+        // The counters moved from the state each statement replaced
+        assertThat(taskStatsService.getStats(user.getId()).getByStatus())
+                .containsEntry(Task.Status.IN_PROGRESS, 1L)
+                .containsEntry(Task.Status.OPEN, 0L);
+    }
+
+    // ================= HELPERS =================
+
+    private void createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTitle("task " + i);
+            task.setDescription("about task " + i);
+            tasks.add(task);
+        }
+        taskService.createTasks(tasks, user.getId());
+    }
+
+    // Statements of one uncached GET /api/tasks?size=100 (the tasks just changed: a new list version)
+    private List<QueryPlans.Plan> listStatements() throws Exception {
+        queryPlans.start();
+        mockMvc.perform(get("/api/tasks").param("size", "100").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        return queryPlans.stop();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.smarttaskmanager.event;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.TaskOutboxEvent;
+import org.example.smarttaskmanager.repository.TaskOutboxRepository;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The relay against the outbox table, delivering to an InMemoryTaskEventSink whose
+ * listener fails for the tasks in {@code failing}.
+ */
+class TaskOutboxRelayTest extends PostgresIntegrationTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+    @Autowired
+    private TaskShards taskShards;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<TaskEventMessage> delivered = new CopyOnWriteArrayList<>();
+    private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+    private TaskOutboxRelay relay;
+
+    @BeforeEach
+    void relay() {
+        jdbcTemplate.update("delete from task_outbox");
+        TaskEventSink sink = new InMemoryTaskEventSink(event -> {
+            TaskEventMessage message = (TaskEventMessage) event;
+            if (failing.contains(message.getTaskId())) {
+                throw new IllegalStateException("listener failed for task " + message.getTaskId());
+            }
+            delivered.add(message);
+        });
+        relay = new TaskOutboxRelay(outboxRepository, sink, taskShards, BATCH_SIZE);
+    }
+
+    @Test
+    void deliversInIdOrderAndDeletesDelivered() {
+        long a1 = append(1L);
+        long b1 = append(2L);
+        long a2 = append(1L);
+        long c1 = append(3L);
+        long b2 = append(2L);
+
+        relay.relay();
+
+        assertThat(delivered).extracting(TaskEventMessage::getEventId).containsExactly(a1, b1, a2, c1, b2);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void failedEventIsRetriedLaterAndHoldsBackItsTask() {
+        long a1 = append(1L);
+        long b1 = append(2L);
+        long a2 = append(1L);
+        failing.add(1L);
+
+        relay.relay(); // a1 fails: nothing of task 1 goes, b1 does on the next pass
+        relay.relay();
+
+        assertThat(delivered).extracting(TaskEventMessage::getEventId).containsExactly(b1);
+        TaskOutboxEvent retried = outboxRepository.findById(a1).orElseThrow();
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(retried.getLastError()).contains("listener failed for task 1");
+        assertThat(outboxRepository.findById(a2)).get()
+                .extracting(TaskOutboxEvent::getAttempts).isEqualTo(0);
+
+        // Backoff over, listener fixed: the task's events go in order
+        failing.clear();
+        jdbcTemplate.update("update task_outbox set next_attempt_at = ? where id = ?", LocalDateTime.now().minusSeconds(1), a1);
+        relay.relay();
+
+        assertThat(delivered).extracting(TaskEventMessage::getEventId).containsExactly(b1, a1, a2);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void poisonedTaskDoesNotStallOthers() {
+        // More events of the poisoned task than a batch holds, all before everyone else's
+        for (int i = 0; i < BATCH_SIZE * 2; i++) {
+            append(9L);
+        }
+        long b1 = append(2L);
+        long c1 = append(3L);
+        long b2 = append(2L);
+        long c2 = append(3L);
+        long b3 = append(2L);
+        failing.add(9L);
+
+        relay.relay();
+        relay.relay();
+
+        assertThat(delivered).extracting(TaskEventMessage::getEventId).containsExactly(b1, c1, b2, c2, b3);
+        assertThat(outboxRepository.findAll()).hasSize(BATCH_SIZE * 2)
+                .allMatch(event -> event.getTaskId() == 9L);
+
+        relay.relay(); // still waiting: no new attempt before the backoff is over
+        assertThat(outboxRepository.findAll()).extracting(TaskOutboxEvent::getAttempts)
+                .containsOnly(0, 1)
+                .filteredOn(attempts -> attempts == 1).hasSize(1);
+    }
+
+    // ================= HELPERS =================
+
+    private long append(Long taskId) {
+        LocalDateTime now = LocalDateTime.now().minusSeconds(1);
+        return jdbcTemplate.queryForObject("""
+                insert into task_outbox (task_id, user_id, type, payload, created_at, attempts, next_attempt_at)
+                values (?, 1, 'UPDATED', '{}', ?, 0, ?) returning id
+                """, Long.class, taskId, now, now);
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.smarttaskmanager.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.security.JwtTokenProvider;
+import org.example.smarttaskmanager.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Streams opened through GET /api/tasks/stream on a hub whose sender runs only when the test
+ * says so: changes that arrive before it runs are queued together. At most 3 streams per node,
+ * 2 per user and 3 pending changes per stream.
+ */
+@AutoConfigureMockMvc
+class TaskStreamHubTest extends PostgresIntegrationTest {
+
+    private static final ManualExecutor sender = new ManualExecutor();
+    private static final AtomicInteger users = new AtomicInteger();
+    private static final AtomicLong tasks = new AtomicLong(5_000_000);
+    private static final Pattern VERSION = Pattern.compile("\"version\":(\\d+)");
+
+    @TestConfiguration
+    static class Hub {
+
+        @Bean
+        @Primary
+        TaskStreamHub manualTaskStreamHub() {
+            return new TaskStreamHub(new SimpleMeterRegistry(), 3, 2, 3, Duration.ofMinutes(30), sender);
+        }
+    }
+
+    @Autowired
+    private TaskStreamHub hub;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @AfterEach
+    void closeStreams() {
+        hub.shutdown();
+    }
+
+    @Test
+    void queuedChangesOfOneTaskGoOutAsTheLatestOnly() throws Exception {
+        User user = user();
+        MvcResult stream = open(user);
+        long task = tasks.incrementAndGet();
+        long other = tasks.incrementAndGet();
+
+        change(user, task, 1);
+        change(user, other, 2);
+        change(user, task, 3);
+        sender.runAll();
+
+        assertThat(versionsSent(stream)).containsExactly(2L, 3L); // the coalesced change moved to the end
+    }
+
+    @Test
+    void olderVersionArrivingLateIsSkipped() throws Exception {
+        User user = user();
+        MvcResult stream = open(user);
+        long task = tasks.incrementAndGet();
+
+        change(user, task, 5);
+        sender.runAll();
+        change(user, task, 4); // committed before 5, after-commit ran later
+        sender.runAll();
+
+        assertThat(versionsSent(stream)).containsExactly(5L);
+    }
+
+    @Test
+    void streamFallingBehindIsClosedWithResync() throws Exception {
+        User user = user();
+        MvcResult stream = open(user);
+
+        for (int i = 1; i <= 4; i++) {
+            change(user, tasks.incrementAndGet(), i); // one more than max-pending
+        }
+        sender.runAll();
+
+        String sent = stream.getResponse().getContentAsString();
+        assertThat(sent).contains("event:resync").doesNotContain("event:task");
+
+        // Its place is free: the user can reconnect right away
+        open(user);
+        open(user);
+    }
+
+    @Test
+    void streamsBeyondTheCapsAreRejected() throws Exception {
+        User first = user();
+        open(first);
+        open(first);
+        assertRejected(first, 429);
+
+        User second = user();
+        open(second); // the node's third
+        assertRejected(user(), 503);
+    }
+
+    // ================= HELPERS =================
+
+    private User user() {
+        int n = users.incrementAndGet();
+        return userService.registerUser("streamer" + n, "streamer" + n + "@example.com", "{noop}secret");
+    }
+
+    private MvcResult open(User user) throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/tasks/stream").header(HttpHeaders.AUTHORIZATION, bearer(user)))
+                .andReturn();
+        assertThat(stream.getResponse().getStatus()).isEqualTo(200);
+        assertThat(stream.getResponse().getContentAsString()).startsWith("event:sync");
+        return stream;
+    }
+
+    private void assertRejected(User user, int status) throws Exception {
+        MvcResult rejected = mockMvc.perform(get("/api/tasks/stream").header(HttpHeaders.AUTHORIZATION, bearer(user)))
+                .andReturn();
+        assertThat(rejected.getResponse().getStatus()).isEqualTo(status);
+        assertThat(rejected.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    // A committed change of the task as the hub gets it after commit
+    private void change(User user, long taskId, long version) {
+        Task task = new Task();
+        task.setId(taskId);
+        task.setTitle("v" + version);
+        hub.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, taskId, user.getId(), task, null, version));
+    }
+
+    // Versions of the "task" events on the stream so far ("sync" carries one too, first)
+    private List<Long> versionsSent(MvcResult stream) throws Exception {
+        Matcher matcher = VERSION.matcher(stream.getResponse().getContentAsString());
+        return matcher.results().skip(1).map(match -> Long.parseLong(match.group(1))).toList();
+    }
+
+    /**
+     * Runs what it was given only on {@link #runAll()}, on the caller's thread.
+     */
+    private static final class ManualExecutor extends AbstractExecutorService {
+
+        private final Queue<Runnable> queued = new ArrayDeque<>();
+
+        synchronized void runAll() {
+            Runnable next;
+            while ((next = queued.poll()) != null) {
+                next.run();
+            }
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            queued.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
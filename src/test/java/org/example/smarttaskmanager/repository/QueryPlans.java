@@ -0,0 +1,110 @@
+package org.example.smarttaskmanager.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DataSource that, while recording, runs EXPLAIN for every statement the application
+ * prepares, with the same bound values, right before running the statement itself.
+ * The plans are PostgreSQL's custom plans for the actual parameters.
+ */
+public class QueryPlans extends DelegatingDataSource {
+
+    public record Plan(String sql, String text) {
+    }
+
+    private final List<Plan> plans = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    public QueryPlans(DataSource target) {
+        super(target);
+    }
+
+    public void start() {
+        plans.clear();
+        recording = true;
+    }
+
+    public List<Plan> stop() {
+        recording = false;
+        return List.copyOf(plans);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return explaining(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return explaining(super.getConnection(username, password));
+    }
+
+    // ================= HELPERS =================
+
+    private Connection explaining(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (recording && method.getName().equals("prepareStatement") && explainable((String) args[0])) {
+                        return explaining((PreparedStatement) result, connection.prepareStatement("explain " + args[0]),
+                                (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    // Bound values go to both statements; executing runs the EXPLAIN first
+    private PreparedStatement explaining(PreparedStatement statement, PreparedStatement explain, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        invoke(explain, method, args);
+                    } else if (name.equals("clearParameters")) {
+                        explain.clearParameters();
+                    } else if (name.startsWith("execute") && args == null) {
+                        plans.add(new Plan(sql, plan(explain)));
+                    } else if (name.equals("close")) {
+                        explain.close();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static String plan(PreparedStatement explain) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (ResultSet rows = explain.executeQuery()) {
+            while (rows.next()) {
+                lines.add(rows.getString(1));
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    private static boolean explainable(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with")
+                || start.startsWith("update") || start.startsWith("delete");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every TaskRepository query on a realistic amount of data must be an index scan.
+ * Runs each query for real and fails on any Seq Scan in PostgreSQL's plan for it.
+ */
+class TaskRepositoryPlanTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 200;
+    private static final int TASKS_PER_USER = 1000;
+    private static final long USER = 42;
+
+    // Many users with many tasks; a third CLOSED, half of those archived; few notices pending
+    private static final String SEED = """
+            insert into tasks (id, title, description, status, priority, due_date, assigned_to_id,
+                               created_at, updated_at, change_version, due_notified, archived)
+            select u * 1000000 + g,
+                   (array['report', 'meeting', 'invoice', 'review', 'deploy', 'budget'])[g % 6 + 1] || ' ' || g,
+                   'notes ' || md5(g::text),
+                   (array['OPEN', 'IN_PROGRESS', 'CLOSED'])[g % 3 + 1],
+                   (array['LOW', 'MEDIUM', 'HIGH'])[g % 3 + 1],
+                   case when g % 5 = 0 then null else now() + (g % 400 - 200) * interval '1 hour' end,
+                   u,
+                   now() - g * interval '1 hour',
+                   now() - g * interval '1 minute',
+                   g,
+                   case when g % 50 = 0 then 0 else 2 end,
+                   g % 3 = 2 and g % 2 = 0
+            from generate_series(1, ?) u, generate_series(1, ?) g
+            """;
+
+    @TestConfiguration
+    static class Explain {
+
+        @Bean
+        static BeanPostProcessor explainingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? new QueryPlans(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    private static boolean seeded;
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private QueryPlans queryPlans;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        if (!seeded) {
+            jdbcTemplate.update(SEED, USERS, TASKS_PER_USER);
+            jdbcTemplate.execute("analyze tasks");
+            seeded = true;
+        }
+    }
+
+    @Test
+    void everyQueryUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> run = new HashSet<>();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        queryPlans.start();
+
+        run.add("findByAssignedToId");
+        taskRepository.findByAssignedToId(USER);
+
+        run.add("findPageByUser");
+        taskRepository.findPageByUser(USER, PageRequest.of(3, 20));
+
+        run.add("findPageByUserAndStatus");
+        taskRepository.findPageByUserAndStatus(USER, Task.Status.OPEN, false, PageRequest.of(0, 20));
+        taskRepository.findPageByUserAndStatus(USER, Task.Status.CLOSED, true, PageRequest.of(2, 20));
+
+        run.add("findChanged");
+        taskRepository.findChanged(USER, 500, 600, Limit.of(100));
+
+        run.add("findPendingDue");
+        taskRepository.findPendingDue(now.minusDays(1), 0, now.plusHours(2), Limit.of(500));
+
+        run.add("countByUser");
+        taskRepository.countByUser(USER);
+
+        run.add("countByUserAndStatus");
+        taskRepository.countByUserAndStatus(USER, Task.Status.IN_PROGRESS, false);
+        taskRepository.countByUserAndStatus(USER, Task.Status.CLOSED, true);
+
+        run.add("searchFullText");
+        taskRepository.searchFullText(USER, null, false, "rep:*", "%rep%", PageRequest.of(0, 20));
+        taskRepository.searchFullText(USER, "CLOSED", true, "rev:* & 9:*", "%rev 9%", PageRequest.of(0, 20));
+
+        run.add("scroll");
+        for (TaskCursor.Sort sort : TaskCursor.Sort.values()) {
+            List<?> first = taskRepository.scroll(USER, null, false, sort, null, 50);
+            assertThat(first).isNotEmpty();
+            taskRepository.scroll(USER, Task.Status.CLOSED, true, sort,
+                    new TaskCursor(sort, now.minusHours(5), USER * 1000000 + 500), 50);
+            taskRepository.scroll(USER, null, false, sort, new TaskCursor(sort, null, USER * 1000000 + 500), 50);
+        }
+
+        run.add("updateOwned");
+        run.add("deleteOwned");
+        run.add("findAllOwnedForUpdate");
+        run.add("deleteAllOwned");
+        tx.executeWithoutResult(status -> {
+            Task change = new Task();
+            change.setTitle("renamed");
+            taskRepository.updateOwned(USER * 1000000 + 6, USER, change, now, 1);
+            taskRepository.deleteOwned(USER * 1000000 + 5, USER);
+            taskRepository.findAllOwnedForUpdate(List.of(USER * 1000000 + 7, USER * 1000000 + 8), USER);
+            taskRepository.deleteAllOwned(List.of(USER * 1000000 + 7, USER * 1000000 + 8), USER);
+            status.setRollbackOnly();
+        });
+
+        run.add("streamForExport");
+        tx.executeWithoutResult(status -> {
+            try (Stream<Task> tasks = taskRepository.streamForExport(USER, null, null)) {
+                tasks.limit(10).forEach(task -> { });
+            }
+            try (Stream<Task> tasks = taskRepository.streamForExport(USER, Task.Status.OPEN, "%rep%")) {
+                tasks.limit(10).forEach(task -> { });
+            }
+        });
+
+        // Inherited lookups by id (search results, sharded lookups, ownership errors)
+        taskRepository.findById(USER * 1000000 + 9);
+        taskRepository.findAllById(List.of(USER * 1000000 + 9, USER * 1000000 + 10));
+        taskRepository.existsById(USER * 1000000 + 9);
+
+        List<QueryPlans.Plan> plans = queryPlans.stop();
+
+        assertThat(run)
+                .as("a query was added to TaskRepository: run it here too")
+                .containsAll(declaredQueries());
+        assertThat(plans).hasSizeGreaterThan(run.size());
+        for (QueryPlans.Plan plan : plans) {
+            assertThat(plan.text())
+                    .as("plan of %s", plan.sql())
+                    .doesNotContain("Seq Scan");
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private static Set<String> declaredQueries() {
+        List<Method> methods = new ArrayList<>(Arrays.asList(TaskRepository.class.getDeclaredMethods()));
+        methods.addAll(Arrays.asList(TaskScrollRepository.class.getDeclaredMethods()));
+        methods.addAll(Arrays.asList(TaskWriteRepository.class.getDeclaredMethods()));
+        return methods.stream()
+                .filter(method -> !method.isSynthetic() && !method.isDefault())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+    }
+}
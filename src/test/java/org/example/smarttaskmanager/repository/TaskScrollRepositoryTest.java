@@ -0,0 +1,108 @@
+package org.example.smarttaskmanager.repository;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.dto.TaskSlice;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset slices through TaskService.scrollTasks over rows without a sort key: tasks whose
+ * updated_at or due_date is null, with slice boundaries on them.
+ */
+class TaskScrollRepositoryTest extends PostgresIntegrationTest {
+
+    private static final AtomicLong users = new AtomicLong(7_000_000);
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void user() {
+        userId = users.incrementAndGet();
+    }
+
+    @Test
+    void tasksWithoutUpdateTimeComeFirstAndEveryTaskOnce() {
+        long older = task(2);
+        long never = task(null);
+        long newer = task(1);
+        long neverEither = task(null);
+        long oldest = task(3);
+        // Nulls first (PostgreSQL's DESC), then newest first; ties by id descending
+        List<Long> expected = List.of(neverEither, never, newer, older, oldest);
+
+        for (int size = 1; size <= 3; size++) {
+            assertThat(scroll(TaskCursor.Sort.UPDATED_AT, size)).as("slices of %d", size).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void cursorWithoutValueContinuesInTheNullSegment() {
+        long never = task(null);
+        long neverEither = task(null);
+        long updated = task(1);
+
+        String cursor = new TaskCursor(TaskCursor.Sort.UPDATED_AT, null, neverEither).encode();
+        TaskSlice slice = taskService.scrollTasks(userId, cursor, 10, TaskCursor.Sort.UPDATED_AT, null, false);
+
+        assertThat(slice.getContent()).extracting(TaskResponse::getId).containsExactly(never, updated);
+    }
+
+    @Test
+    void tasksWithoutDueDateComeLast() {
+        long none = task(null);
+        long later = task(1);
+        long noneEither = task(null);
+        long sooner = task(1);
+        jdbcTemplate.update("update tasks set due_date = localtimestamp + interval '1 day' where id = ?", later);
+        jdbcTemplate.update("update tasks set due_date = localtimestamp + interval '1 hour' where id = ?", sooner);
+
+        for (int size = 1; size <= 3; size++) {
+            assertThat(scroll(TaskCursor.Sort.DUE_DATE, size)).as("slices of %d", size)
+                    .containsExactly(sooner, later, none, noneEither);
+        }
+    }
+
+    // ================= HELPERS =================
+
+    // A task of the user last updated hoursAgo hours ago, or never (null)
+    private long task(Integer hoursAgo) {
+        Task task = new Task();
+        task.setTitle("task");
+        long id = taskService.createTask(task, userId).getId();
+        if (hoursAgo == null) {
+            jdbcTemplate.update("update tasks set updated_at = null where id = ?", id);
+        } else {
+            jdbcTemplate.update("update tasks set updated_at = localtimestamp - ? * interval '1 hour' where id = ?",
+                    hoursAgo, id);
+        }
+        return id;
+    }
+
+    // Ids of the user's tasks, following the cursors slice by slice
+    private List<Long> scroll(TaskCursor.Sort sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            TaskSlice slice = taskService.scrollTasks(userId, cursor, size, sort, null, false);
+            slice.getContent().forEach(task -> ids.add(task.getId()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
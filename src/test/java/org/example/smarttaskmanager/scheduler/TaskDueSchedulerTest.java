@@ -0,0 +1,133 @@
+package org.example.smarttaskmanager.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.example.smarttaskmanager.service.TaskService;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The scheduler against the real claims of TaskDueNotifier, on a clock the test moves.
+ * Lead 1h: DUE_SOON an hour before the due date, OVERDUE at it.
+ */
+class TaskDueSchedulerTest extends PostgresIntegrationTest {
+
+    private static final AtomicLong users = new AtomicLong(6_000_000);
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private TaskDueNotifier notifier;
+    @Autowired
+    private TaskShards taskShards;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestClock clock;
+    private TaskDueScheduler scheduler;
+    private LocalDateTime start;
+    private Long userId;
+
+    @BeforeEach
+    void scheduler() {
+        clock = new TestClock(Instant.now());
+        scheduler = new TaskDueScheduler(taskRepository, notifier, taskShards, new SimpleMeterRegistry(),
+                Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofSeconds(30),
+                1_000, 100, 1_000, clock);
+        start = LocalDateTime.now(clock);
+        userId = users.incrementAndGet();
+    }
+
+    @Test
+    void sentDueSoonArmsOverdue() {
+        long id = task(start.plusMinutes(30));
+        scheduler.scan();
+
+        scheduler.tick(); // within the lead already: DUE_SOON right away
+        assertThat(dueNotified(id)).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(29));
+        scheduler.tick();
+        assertThat(dueNotified(id)).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+        scheduler.tick(); // no scan in between: armed by the DUE_SOON claim
+        assertThat(dueNotified(id)).isEqualTo(2);
+    }
+
+    @Test
+    void staleNoticeIsDroppedNotRetried() {
+        long moved = task(start.plusMinutes(30));
+        long kept = task(start.plusMinutes(40));
+        scheduler.scan();
+
+        // Another node moves the due date: this node's armed notice is stale
+        jdbcTemplate.update("update tasks set due_date = ? where id = ?", start.plusMinutes(50), moved);
+
+        scheduler.tick();
+        assertThat(dueNotified(moved)).isZero();
+        assertThat(dueNotified(kept)).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(45));
+        scheduler.tick(); // past the retry delay and the old due date: still nothing for it
+        assertThat(dueNotified(moved)).isZero();
+        assertThat(dueNotified(kept)).isEqualTo(2);
+    }
+
+    // ================= HELPERS =================
+
+    private long task(LocalDateTime dueDate) {
+        Task task = new Task();
+        task.setTitle("due " + dueDate);
+        task.setDueDate(dueDate);
+        return taskService.createTask(task, userId).getId();
+    }
+
+    private int dueNotified(long id) {
+        return jdbcTemplate.queryForObject("select due_notified from tasks where id = ?", Integer.class, id);
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now;
+
+        private TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.smarttaskmanager.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The wheel on a 1 ms tick starting at 0, so times are ticks. Level k slots span 256^k ticks.
+ */
+class TimingWheelTest {
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    void timersFireAtTheirTickInOrderAcrossLevelBoundaries() {
+        // Either side of the level 1, 2 and 3 boundaries, added out of order
+        long[] times = {70_000, 256, 3, 16_777_216, 65_535, 255, 65_536, 257, 16_777_215, 16_777_300};
+        for (long time : times) {
+            wheel.add(time, time);
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (long time : List.of(3L, 255L, 256L, 257L, 65_535L, 65_536L, 70_000L, 16_777_215L, 16_777_216L, 16_777_300L)) {
+            advance(time - 1);
+            assertThat(fired).as("before %d", time).isEqualTo(expected);
+            advance(time);
+            expected.add(time);
+            assertThat(fired).as("at %d", time).isEqualTo(expected);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timerCancelledAfterItsCascadeNeverFires() {
+        TimingWheel.Timer<Long> cancelled = wheel.add(300, 300L);
+        wheel.add(301, 301L);
+        wheel.add(70_000, 70_000L);
+
+        advance(299); // 256 cascaded level 1 slot 1 (ticks 256-511) into level 0
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled); // twice is harmless
+        assertThat(wheel.size()).isEqualTo(2);
+
+        advance(100_000);
+        assertThat(fired).containsExactly(301L, 70_000L);
+    }
+
+    @Test
+    void oneLargeAdvanceFiresEverythingDueInOrder() {
+        wheel.add(20_000_000, 20_000_000L);
+        wheel.add(5, 5L);
+        wheel.add(100_000, 100_000L);
+        wheel.add(30_000_000, 30_000_000L);
+
+        advance(25_000_000);
+        assertThat(fired).containsExactly(5L, 100_000L, 20_000_000L);
+
+        // Empty stretches are skipped, not walked
+        advance(29_999_999);
+        assertThat(fired).hasSize(3);
+        advance(4_000_000_000L);
+        assertThat(fired).containsExactly(5L, 100_000L, 20_000_000L, 30_000_000L);
+    }
+
+    @Test
+    void timerAddedForAPastTimeFiresOnTheNextTick() {
+        advance(1_000);
+
+        wheel.add(500, 500L);
+        wheel.add(1_000, 1_000L);
+        advance(1_000); // that tick was processed already
+        assertThat(fired).isEmpty();
+
+        advance(1_001);
+        assertThat(fired).containsExactly(500L, 1_000L);
+    }
+
+    @Test
+    void timersRoundUpToATickAndStayWithinRange() {
+        TimingWheel<Long> seconds = new TimingWheel<>(1_000, 0);
+        seconds.add(1_500, 1_500L);
+
+        seconds.advance(1_999, fired::add);
+        assertThat(fired).isEmpty(); // never before its time
+        seconds.advance(2_000, fired::add);
+        assertThat(fired).containsExactly(1_500L);
+
+        assertThatThrownBy(() -> wheel.add(1L << 32, 0L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ================= HELPERS =================
+
+    private void advance(long nowMs) {
+        wheel.advance(nowMs, fired::add);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.smarttaskmanager.search;
+
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.event.TaskChangedEvent;
+import org.example.smarttaskmanager.event.TasksArchivedEvent;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The per-user inverted index, over a TaskRepository that holds one user's tasks in a list.
+ */
+class InMemoryTaskSearchEngineTest {
+
+    private static final Long USER = 7L;
+
+    private final AtomicLong ids = new AtomicLong();
+    private final List<Task> stored = new ArrayList<>();
+    private TaskRepository taskRepository;
+    private InMemoryTaskSearchEngine engine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void engine() {
+        taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findByAssignedToId(USER)).thenAnswer(invocation -> List.copyOf(stored));
+        when(taskRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Long> wanted = invocation.getArgument(0);
+            return stored.stream().filter(task -> wanted.contains(task.getId())).toList();
+        });
+        engine = new InMemoryTaskSearchEngine(taskRepository, 10);
+    }
+
+    @Test
+    void everyWordMustMatchAsAWordOrAPrefix() {
+        Task both = store("Quarterly report", null);
+        Task reportOnly = store("Report", "for the board");
+        store("Quarterly review", null);
+
+        assertThat(search("quarterly report")).containsExactly(both.getId());
+        assertThat(search("quart rep")).containsExactly(both.getId());
+        assertThat(search("rep")).containsExactlyInAnyOrder(both.getId(), reportOnly.getId());
+        assertThat(search("report board")).containsExactly(reportOnly.getId());
+        assertThat(search("port")).isEmpty(); // prefixes only, no substrings
+    }
+
+    @Test
+    void titleRanksAboveDescriptionAndExactWordAbovePrefix() {
+        Task inDescription = store("Notes", "report");
+        Task inTitle = store("Report", null);
+        Task prefixInTitle = store("Reporting", null);
+
+        assertThat(search("report")).containsExactly(inTitle.getId(), prefixInTitle.getId(), inDescription.getId());
+    }
+
+    @Test
+    void statusAndArchivedTasksAreFiltered() {
+        Task open = store("Report", null);
+        Task closed = store("Report", null);
+        closed.setStatus(Task.Status.CLOSED);
+        Task archived = store("Report", null);
+        archived.setStatus(Task.Status.CLOSED);
+        archived.setArchived(true);
+
+        assertThat(search("report", null, false)).containsExactlyInAnyOrder(open.getId(), closed.getId());
+        assertThat(search("report", Task.Status.CLOSED, true)).containsExactlyInAnyOrder(closed.getId(), archived.getId());
+    }
+
+    @Test
+    void changesReachTheBuiltIndex() {
+        Task task = store("Report", null);
+        search("report");
+
+        task.setTitle("Budget");
+        engine.onTaskChanged(TaskChangedEvent.updated(task, null, USER));
+        Task added = store("Report", null);
+        engine.onTaskChanged(TaskChangedEvent.created(added, USER));
+
+        assertThat(search("report")).containsExactly(added.getId());
+        assertThat(search("budget")).containsExactly(task.getId());
+
+        engine.onTaskChanged(TaskChangedEvent.deleted(TaskResponse.from(added), USER, 0));
+        stored.remove(added);
+        assertThat(search("report")).isEmpty();
+        verify(taskRepository, times(1)).findByAssignedToId(USER);
+    }
+
+    @Test
+    void buildRacingAChangeIsUsedOnceButNotCached() {
+        Task first = store("Report", null);
+        Task[] raced = new Task[1];
+        // The change commits while the build reads the tasks: the build may have missed it
+        when(taskRepository.findByAssignedToId(USER)).thenAnswer(invocation -> {
+            List<Task> snapshot = List.copyOf(stored);
+            raced[0] = store("Report again", null);
+            engine.onTaskChanged(TaskChangedEvent.created(raced[0], USER));
+            return snapshot;
+        }).thenAnswer(invocation -> List.copyOf(stored));
+
+        assertThat(search("report")).containsExactly(first.getId());
+        assertThat(search("report")).containsExactlyInAnyOrder(first.getId(), raced[0].getId());
+        search("report");
+
+        verify(taskRepository, times(2)).findByAssignedToId(USER);
+    }
+
+    @Test
+    void archivingDropsTheIndex() {
+        Task task = store("Report", null);
+        search("report");
+
+        task.setStatus(Task.Status.CLOSED);
+        task.setArchived(true);
+        engine.onTasksArchived(new TasksArchivedEvent(USER, 1));
+
+        assertThat(search("report")).isEmpty();
+        assertThat(search("report", null, true)).containsExactly(task.getId());
+        verify(taskRepository, times(2)).findByAssignedToId(USER);
+    }
+
+    // ================= HELPERS =================
+
+    private Task store(String title, String description) {
+        Task task = new Task();
+        task.setId(ids.incrementAndGet());
+        task.setTitle(title);
+        task.setDescription(description);
+        stored.add(task);
+        return task;
+    }
+
+    private List<Long> search(String query) {
+        return search(query, null, false);
+    }
+
+    private List<Long> search(String query, Task.Status status, boolean cold) {
+        return engine.search(USER, query, status, cold, PageRequest.of(0, 50))
+                .map(TaskResponse::getId)
+                .getContent();
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.smarttaskmanager.search;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TaskRepository.searchFullText through PostgresTaskSearchEngine: the engine the application
+ * picks on PostgreSQL.
+ */
+class PostgresTaskSearchEngineTest extends PostgresIntegrationTest {
+
+    private static final AtomicLong users = new AtomicLong(9_000_000);
+
+    @Autowired
+    private TaskSearchEngine taskSearchEngine;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void user() {
+        userId = users.incrementAndGet();
+    }
+
+    @Test
+    void applicationSearchesWithPostgres() {
+        assertThat(taskSearchEngine).isInstanceOf(PostgresTaskSearchEngine.class);
+    }
+
+    @Test
+    void everyWordMustMatchAsAWordOrAPrefix() {
+        long both = task("Quarterly report", null);
+        long reportOnly = task("Report", "for the board");
+        task("Quarterly review", null);
+
+        assertThat(search("quarterly report")).containsExactly(both);
+        assertThat(search("quart rep")).containsExactly(both);
+        assertThat(search("rep")).containsExactlyInAnyOrder(both, reportOnly);
+        assertThat(search("report board")).containsExactly(reportOnly);
+    }
+
+    @Test
+    void substringsMatchToo() {
+        long report = task("Report", null);
+        long export = task("Notes", "export the sheet");
+
+        assertThat(search("port")).containsExactlyInAnyOrder(report, export);
+    }
+
+    @Test
+    void titleRanksAboveDescription() {
+        long inDescription = task("Notes", "report");
+        long inTitle = task("Report", null);
+
+        assertThat(search("report")).containsExactly(inTitle, inDescription);
+    }
+
+    @Test
+    void likeWildcardsInTheQueryMatchLiterally() {
+        long percent = task("50% done", null);
+        task("Half done", null);
+
+        // No words, so only the ILIKE part can match; unescaped, % would match everything
+        assertThat(search("%")).containsExactly(percent);
+    }
+
+    @Test
+    void statusAndArchivedTasksAreFiltered() {
+        long open = task("Report", null);
+        long closed = task("Report", null, Task.Status.CLOSED);
+        long archived = task("Report", null, Task.Status.CLOSED);
+        jdbcTemplate.update("update tasks set archived = true where id = ?", archived);
+
+        assertThat(search("report", null, false)).containsExactlyInAnyOrder(open, closed);
+        assertThat(search("report", Task.Status.CLOSED, true)).containsExactlyInAnyOrder(closed, archived);
+    }
+
+    @Test
+    void pagesCountEveryMatch() {
+        for (int i = 0; i < 5; i++) {
+            task("Report " + i, null);
+        }
+
+        Page<TaskResponse> page = taskSearchEngine.search(userId, "report", null, false, PageRequest.of(1, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).hasSize(2);
+    }
+
+    // ================= HELPERS =================
+
+    private long task(String title, String description) {
+        return task(title, description, Task.Status.OPEN);
+    }
+
+    private long task(String title, String description, Task.Status status) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription(description);
+        task.setStatus(status);
+        return taskService.createTask(task, userId).getId();
+    }
+
+    private List<Long> search(String query) {
+        return search(query, null, false);
+    }
+
+    private List<Long> search(String query, Task.Status status, boolean cold) {
+        return taskSearchEngine.search(userId, query, status, cold, PageRequest.of(0, 50))
+                .map(TaskResponse::getId)
+                .getContent();
+    }
+}
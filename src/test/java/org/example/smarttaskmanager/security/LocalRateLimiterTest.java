@@ -0,0 +1,70 @@
+package org.example.smarttaskmanager.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The GCRA step on a clock of the test's: 5 requests at once, one more every 100 ms.
+ */
+class LocalRateLimiterTest {
+
+    private static final long MS = 1_000_000;
+    private static final long START = 1_000_000 * MS;
+
+    private final RateLimitRule rule = new RateLimitRule("test", 5, 10);
+    private final AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+
+    @Test
+    void fullBucketTakesABurstThenOneRequestPerInterval() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire(START)).as("request %d of the burst", i + 1).isZero();
+        }
+        assertThat(acquire(START)).isEqualTo(100 * MS); // the wait for the next token
+        assertThat(acquire(START + 40 * MS)).isEqualTo(60 * MS);
+
+        assertThat(acquire(START + 100 * MS)).isZero();
+        assertThat(acquire(START + 100 * MS)).isEqualTo(100 * MS);
+        assertThat(acquire(START + 199 * MS)).isEqualTo(MS);
+        assertThat(acquire(START + 200 * MS)).isZero();
+    }
+
+    @Test
+    void idleBucketRefillsUpToItsCapacityOnly() {
+        for (int i = 0; i < 5; i++) {
+            acquire(START);
+        }
+
+        long later = START + 10_000 * MS; // long enough for 100 tokens
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire(later)).isZero();
+        }
+        assertThat(acquire(later)).isPositive();
+    }
+
+    @Test
+    void releasedTokenCanBeTakenAgainButNotBeyondCapacity() {
+        for (int i = 0; i < 5; i++) {
+            acquire(START);
+        }
+        LocalRateLimiter.release(bucket, rule, START);
+        assertThat(acquire(START)).isZero();
+        assertThat(acquire(START)).isPositive();
+
+        AtomicLong full = new AtomicLong(Long.MIN_VALUE);
+        LocalRateLimiter.release(full, rule, START);
+        assertThat(full.get()).isEqualTo(Long.MIN_VALUE);
+        for (int i = 0; i < 5; i++) {
+            assertThat(LocalRateLimiter.tryAcquire(full, rule, START)).isZero();
+        }
+        assertThat(LocalRateLimiter.tryAcquire(full, rule, START)).isPositive();
+    }
+
+    // ================= HELPERS =================
+
+    private long acquire(long now) {
+        return LocalRateLimiter.tryAcquire(bucket, rule, now);
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.smarttaskmanager.security;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.service.UserService;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revocation with stateless authentication: at once on the node that revoked, within
+ * jwt.version-recheck on the others. The registry's clock is the test's.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "jwt.stateless-auth=true")
+class TokenVersionRegistryTest extends PostgresIntegrationTest {
+
+    private static final Duration RECHECK = Duration.ofSeconds(30);
+    private static final AtomicInteger users = new AtomicInteger();
+    private static final AtomicLong nanos = new AtomicLong();
+
+    @TestConfiguration
+    static class Clock {
+
+        @Bean
+        @Primary
+        TokenVersionRegistry tickedTokenVersionRegistry() {
+            Ticker ticker = nanos::get;
+            return new TokenVersionRegistry(RECHECK, ticker);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private String authorization;
+
+    @BeforeEach
+    void user() {
+        int n = users.incrementAndGet();
+        user = userService.registerUser("holder" + n, "holder" + n + "@example.com", "{noop}secret");
+        authorization = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void revocationOnThisNodeTakesEffectAtOnce() throws Exception {
+        listTasks().andExpect(status().isOk());
+
+        userService.revokeTokens(user);
+
+        listTasks().andExpect(status().is3xxRedirection()); // unauthenticated: off to the login page
+    }
+
+    @Test
+    void revocationOnAnotherNodeTakesEffectWithinTheRecheck() throws Exception {
+        listTasks().andExpect(status().isOk());
+
+        // Another node revokes: only the database changes
+        jdbcTemplate.update("update users set token_version = token_version + 1 where id = ?", user.getId());
+        listTasks().andExpect(status().isOk()); // trusted from the claims until rechecked
+
+        nanos.addAndGet(RECHECK.plusSeconds(1).toNanos());
+        listTasks().andExpect(status().is3xxRedirection()); // unauthenticated: off to the login page
+    }
+
+    // ================= HELPERS =================
+
+    private ResultActions listTasks() throws Exception {
+        return mockMvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.smarttaskmanager.service;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.TestDatabase;
+import org.example.smarttaskmanager.controller.TaskController;
+import org.example.smarttaskmanager.dto.TaskResponse;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.security.UserPrincipal;
+import org.example.smarttaskmanager.shard.TaskShards;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hot/cold partitions of V11 on PostgreSQL: the migration, archiving, writes to archived
+ * tasks and a write racing the archiver.
+ */
+class TaskArchiverTest extends PostgresIntegrationTest {
+
+    private static final AtomicLong users = new AtomicLong(8_000_000);
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskController taskController;
+    @Autowired
+    private TaskListVersions taskListVersions;
+    @Autowired
+    private TaskShards taskShards;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private TaskArchiver archiver;
+    private Long userId;
+
+    @BeforeEach
+    void archiver() {
+        archiver = new TaskArchiver(jdbcTemplate, taskListVersions, taskShards, eventPublisher, transactionManager,
+                Duration.ofDays(1), 2);
+        userId = users.incrementAndGet();
+    }
+
+    @Test
+    void migrationMovesExistingTasksIntoTheHotPartition() {
+        String url = TestDatabase.create();
+        DataSource database = new DriverManagerDataSource(url, TestDatabase.username(), TestDatabase.password());
+        migrate(database, "10");
+        JdbcTemplate db = new JdbcTemplate(database);
+        db.update("insert into users (id, username, email, password) values (1, 'old', 'old@example.com', 'x')");
+        db.update("""
+                insert into tasks (id, title, status, assigned_to_id, created_at, updated_at)
+                values (41, 'open', 'OPEN', 1, localtimestamp, localtimestamp),
+                       (42, 'closed', 'CLOSED', 1, localtimestamp, localtimestamp)
+                """);
+
+        migrate(database, "latest");
+
+        assertThat(db.queryForList("select id from tasks_hot order by id", Long.class)).containsExactly(41L, 42L);
+        assertThat(db.queryForObject("select count(*) from tasks_cold", Integer.class)).isZero();
+        assertThat(db.queryForList("""
+                select a.attname from pg_index i
+                join pg_attribute a on a.attrelid = i.indrelid and a.attnum = any(i.indkey)
+                where i.indrelid = 'tasks'::regclass and i.indisprimary order by a.attname
+                """, String.class)).containsExactly("archived", "id");
+        // Archiving moves a row across
+        db.update("update tasks set archived = true where id = 42");
+        assertThat(db.queryForList("select id from tasks_cold", Long.class)).containsExactly(42L);
+    }
+
+    @Test
+    void oldClosedTasksGoCold() {
+        long old = task("old", Task.Status.CLOSED, 2);
+        long recent = task("recent", Task.Status.CLOSED, 0);
+        long open = task("open", Task.Status.OPEN, 2);
+        task("old too", Task.Status.CLOSED, 3);
+        task("older", Task.Status.CLOSED, 4); // more than a batch of them
+
+        archiver.archive();
+
+        assertThat(partitionOf(old)).isEqualTo("tasks_cold");
+        assertThat(partitionOf(recent)).isEqualTo("tasks_hot");
+        assertThat(partitionOf(open)).isEqualTo("tasks_hot");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tasks_cold where assigned_to_id = ?",
+                Integer.class, userId)).isEqualTo(3);
+        assertThat(titles(null)).containsExactlyInAnyOrder("recent", "open");
+        assertThat(titles("CLOSED")).containsExactlyInAnyOrder("old", "recent", "old too", "older");
+    }
+
+    @Test
+    void editingAnArchivedTaskKeepsItColdAndReopeningBringsItBack() {
+        long id = task("old", Task.Status.CLOSED, 2);
+        archiver.archive();
+
+        Task rename = new Task();
+        rename.setTitle("renamed");
+        rename.setStatus(Task.Status.CLOSED); // a new Task is OPEN
+        taskController.updateTask(principal(), id, rename);
+        assertThat(partitionOf(id)).isEqualTo("tasks_cold");
+
+        Task reopen = new Task();
+        reopen.setStatus(Task.Status.OPEN);
+        taskController.updateTask(principal(), id, reopen);
+        assertThat(partitionOf(id)).isEqualTo("tasks_hot");
+        assertThat(titles(null)).containsExactly("renamed");
+    }
+
+    @Test
+    void writeLosingTheRaceWithTheArchiverIsRetried() throws Exception {
+        long id = task("old", Task.Status.CLOSED, 2);
+
+        try (Connection otherNode = dataSource.getConnection()) {
+            otherNode.setAutoCommit(false);
+            try (PreparedStatement archive = otherNode.prepareStatement("update tasks set archived = true where id = ?")) {
+                archive.setLong(1, id);
+                archive.executeUpdate();
+            }
+
+            // Waits for the row lock, which then fails: the row moved to tasks_cold
+            Task rename = new Task();
+            rename.setTitle("renamed");
+        rename.setStatus(Task.Status.CLOSED); // a new Task is OPEN
+            CompletableFuture<TaskResponse> update =
+                    CompletableFuture.supplyAsync(() -> taskController.updateTask(principal(), id, rename));
+            awaitLockWait();
+            otherNode.commit();
+
+            assertThat(update.get(10, TimeUnit.SECONDS).getTitle()).isEqualTo("renamed");
+        }
+        assertThat(partitionOf(id)).isEqualTo("tasks_cold");
+    }
+
+    // ================= HELPERS =================
+
+    // A task of the user, last changed daysAgo days ago
+    private long task(String title, Task.Status status, int daysAgo) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setStatus(status);
+        long id = taskService.createTask(task, userId).getId();
+        jdbcTemplate.update("update tasks set updated_at = localtimestamp - ? * interval '1 day' where id = ?", daysAgo, id);
+        return id;
+    }
+
+    private static void migrate(DataSource database, String target) {
+        Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration/postgresql")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private String partitionOf(long id) {
+        return jdbcTemplate.queryForObject("select tableoid::regclass::text from tasks where id = ?", String.class, id);
+    }
+
+    private List<String> titles(String status) {
+        return taskService.getTasksByUser(userId, 0, 100, null, status).map(TaskResponse::getTitle).getContent();
+    }
+
+    private UserPrincipal principal() {
+        return new UserPrincipal(userId, "user" + userId + "@example.com", null, 0, List.of());
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Integer waiting = jdbcTemplate.queryForObject("""
+                    select count(*) from pg_stat_activity
+                    where datname = current_database() and wait_event_type = 'Lock'
+                    """, Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("The update never waited for the archiver's lock");
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.smarttaskmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An export's search matches like the list search on PostgreSQL.
+ */
+class TaskExportServiceTest extends PostgresIntegrationTest {
+
+    private static final AtomicLong users = new AtomicLong(7_000_000);
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskExportService taskExportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+
+    @BeforeEach
+    void tasks() {
+        userId = users.incrementAndGet();
+        create("Quarterly report", "numbers for the board");
+        create("Report", "weekly");
+        create("Invoice 500 items", "supplier");
+        create("Invoice 50% paid", "supplier");
+        create("snake_case names", "refactor");
+        create("snakeXcase names", "refactor");
+        create("Clean C:\\temp", "disk");
+    }
+
+    @Test
+    void everyWordMatchesAsAPrefix() throws IOException {
+        assertThat(exportTitles("rep qua")).containsExactly("Quarterly report");
+        assertThat(exportTitles("QUART board")).containsExactly("Quarterly report");
+        assertThat(exportTitles("report weekly")).containsExactly("Report");
+    }
+
+    @Test
+    void theWholeTextMatchesAsASubstring() throws IOException {
+        assertThat(exportTitles("port")).containsExactly("Quarterly report", "Report");
+    }
+
+    @Test
+    void likeWildcardsAreLiteral() throws IOException {
+        assertThat(exportTitles("snake_case")).containsExactly("snake_case names");
+        assertThat(exportTitles("%")).containsExactly("Invoice 50% paid");
+        assertThat(exportTitles("_")).containsExactly("snake_case names");
+        assertThat(exportTitles("\\")).containsExactly("Clean C:\\temp");
+        // "50" is a prefix of "500" as well, like in the list
+        assertThat(exportTitles("50%")).containsExactly("Invoice 500 items", "Invoice 50% paid");
+    }
+
+    // ================= HELPERS =================
+
+    private void create(String title, String description) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription(description);
+        taskService.createTask(task, userId);
+    }
+
+    private List<String> exportTitles(String search) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        taskExportService.export(userId, null, search, TaskExportService.Format.NDJSON, out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line).get("title").asText();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
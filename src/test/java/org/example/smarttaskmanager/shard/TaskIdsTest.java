@@ -0,0 +1,116 @@
+package org.example.smarttaskmanager.shard;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Node number leases of TaskIds on PostgreSQL. The application's own TaskIds holds node 0;
+ * the tests start more instances next to it, as other nodes would.
+ */
+class TaskIdsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TaskIds taskIds;
+    @Autowired
+    private TaskShards taskShards;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<TaskIds> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(TaskIds::stop);
+        jdbcTemplate.update("delete from task_id_nodes where node <> ?", taskIds.node());
+        jdbcTemplate.update("delete from task_tombstones");
+    }
+
+    @Test
+    void runningNodesLeaseDifferentNumbers() {
+        TaskIds second = start(Duration.ofSeconds(30));
+        TaskIds third = start(Duration.ofSeconds(30));
+
+        assertThat(List.of(taskIds.node(), second.node(), third.node())).containsExactly(0, 1, 2);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(taskIds.next());
+            ids.add(second.next());
+            ids.add(third.next());
+        }
+        assertThat(ids).hasSize(3000);
+
+        second.stop(); // its number is free again
+        assertThat(start(Duration.ofSeconds(30)).node()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndTheOldHolderLeasesAnother() {
+        TaskIds paused = start(Duration.ofSeconds(30));
+        jdbcTemplate.update("update task_id_nodes set expires_at = localtimestamp - interval '1 second' where node = ?",
+                paused.node());
+
+        TaskIds taker = start(Duration.ofSeconds(30));
+        assertThat(taker.node()).isEqualTo(1);
+
+        paused.renew();
+        assertThat(paused.node()).isEqualTo(2);
+    }
+
+    @Test
+    void noIdsOnceTheLeaseRanOutUntilRenewed() throws InterruptedException {
+        TaskIds node = start(Duration.ofMillis(200));
+        node.next();
+
+        Thread.sleep(300);
+        assertThatThrownBy(node::next).isInstanceOf(IllegalStateException.class);
+
+        node.renew(); // nobody took it meanwhile
+        assertThat(node.next() >> TaskIds.SEQUENCE_BITS & (TaskIds.NODES - 1)).isEqualTo(node.node());
+    }
+
+    @Test
+    void newLeaseGoesOnPastTheHighestIssuedId() {
+        // A deleted task whose id ran ten seconds ahead of the clock (bulk insert, clock set back)
+        long ahead = (System.currentTimeMillis() - TaskIds.EPOCH + 10_000) << (TaskIds.NODE_BITS + TaskIds.SEQUENCE_BITS)
+                | 5L << TaskIds.SEQUENCE_BITS | 3;
+        jdbcTemplate.update("insert into task_tombstones (task_id, user_id, version, deleted_at) values (?, 1, 1, localtimestamp)",
+                ahead);
+
+        assertThat(start(Duration.ofSeconds(30)).next()).isGreaterThan(ahead);
+    }
+
+    @Test
+    void startFailsWhenEveryNumberIsLeased() {
+        for (int node = 1; node < TaskIds.NODES; node++) {
+            jdbcTemplate.update("insert into task_id_nodes (node, owner, expires_at) values (?, 'other', localtimestamp + interval '1 hour')",
+                    node);
+        }
+
+        TaskIds extra = new TaskIds(jdbcTemplate, taskShards, Duration.ofSeconds(30));
+        assertThatThrownBy(extra::start)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("leased");
+        assertThatThrownBy(extra::next).isInstanceOf(IllegalStateException.class);
+    }
+
+    // ================= HELPERS =================
+
+    private TaskIds start(Duration leaseTtl) {
+        TaskIds node = new TaskIds(jdbcTemplate, taskShards, leaseTtl);
+        node.start();
+        nodes.add(node);
+        return node;
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.smarttaskmanager.shard;
+
+import org.example.smarttaskmanager.PostgresIntegrationTest;
+import org.example.smarttaskmanager.TestDatabase;
+import org.example.smarttaskmanager.dto.ShardMove;
+import org.example.smarttaskmanager.exception.ShardMovedException;
+import org.example.smarttaskmanager.model.Task;
+import org.example.smarttaskmanager.model.User;
+import org.example.smarttaskmanager.service.TaskListVersions;
+import org.example.smarttaskmanager.service.TaskService;
+import org.example.smarttaskmanager.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Moves between three shard databases: the home database and two more.
+ */
+class TaskRebalancerTest extends PostgresIntegrationTest {
+
+    private static final int TASKS = 3;
+    private static final AtomicInteger users = new AtomicInteger();
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        String urls = TestDatabase.create() + "," + TestDatabase.create();
+        registry.add("app.shards.enabled", () -> "true");
+        registry.add("app.shards.urls", () -> urls);
+        registry.add("app.shards.purge-interval-ms", () -> "3600000"); // only when a test calls it
+    }
+
+    @Autowired
+    private TaskRebalancer taskRebalancer;
+    @Autowired
+    private ShardRoutingDataSource router;
+    @Autowired
+    private TaskShards taskShards;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskListVersions taskListVersions;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+    private int source;
+    private int target;
+
+    @BeforeEach
+    void userWithTasks() {
+        int n = users.incrementAndGet();
+        User user = userService.registerUser("mover" + n, "mover" + n + "@example.com", "{noop}secret");
+        userId = user.getId();
+        source = user.getShard();
+        target = (source + 1) % router.count();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("task " + i);
+            taskService.createTask(task, userId);
+        }
+    }
+
+    @Test
+    void moveCopiesFencesTheSourceFlipsAndUnfencesTheTarget() {
+        ShardMove move = taskRebalancer.move(userId, target);
+
+        assertThat(move.getTasks()).isEqualTo(TASKS);
+        assertThat(directory()).isEqualTo(target);
+        assertThat(tasksOn(target)).isEqualTo(TASKS);
+        assertThat(movedAt(target)).isNull();
+        assertThat(movedAt(source)).isNotNull();
+        assertThat(tasksOn(source)).isEqualTo(TASKS); // kept for requests under way until purged
+
+        // A node still routing by the old directory entry hits the fence
+        assertThatThrownBy(() -> writeOn(source)).isInstanceOf(ShardMovedException.class);
+
+        // Routed by the new entry, writes and reads go to the target
+        Task task = new Task();
+        task.setTitle("after the move");
+        taskService.createTask(task, userId);
+        assertThat(tasksOn(target)).isEqualTo(TASKS + 1);
+        assertThat(taskService.getTasksByUser(userId, 0, 10, null, null).getTotalElements()).isEqualTo(TASKS + 1);
+    }
+
+    @Test
+    void moveToTheCurrentShardDoesNothing() {
+        ShardMove move = taskRebalancer.move(userId, source);
+
+        assertThat(move.getTasks()).isZero();
+        assertThat(movedAt(source)).isNull();
+    }
+
+    @Test
+    void moveStoppedBetweenFenceAndFlipIsFinishedByMovingAgain() {
+        JdbcTemplate home = shard(0);
+        home.execute("""
+                create or replace function fail_shard_flip() returns trigger as $$
+                begin raise exception 'node died'; end $$ language plpgsql
+                """);
+        home.execute("create trigger fail_shard_flip before update of shard on users for each row execute function fail_shard_flip()");
+        try {
+            assertThatThrownBy(() -> taskRebalancer.move(userId, target)).hasMessageContaining("node died");
+        } finally {
+            home.execute("drop trigger fail_shard_flip on users");
+        }
+
+        // Steps 1-3 done: fenced on both sides, the directory still says source
+        assertThat(directory()).isEqualTo(source);
+        assertThat(movedAt(source)).isNotNull();
+        assertThat(movedAt(target)).isNotNull();
+        taskShards.forget(userId);
+        assertThatThrownBy(() -> writeOn(source)).isInstanceOf(ShardMovedException.class);
+
+        // The purge leaves the copy the directory points to
+        backdateFences();
+        taskRebalancer.purgeMoved();
+        assertThat(tasksOn(source)).isEqualTo(TASKS);
+
+        taskRebalancer.move(userId, target);
+
+        assertThat(directory()).isEqualTo(target);
+        assertThat(tasksOn(target)).isEqualTo(TASKS);
+        assertThat(movedAt(target)).isNull();
+        Task task = new Task();
+        task.setTitle("after the retried move");
+        taskService.createTask(task, userId);
+        assertThat(tasksOn(target)).isEqualTo(TASKS + 1);
+    }
+
+    @Test
+    void purgeDropsTheOldCopyOnceItIsOldEnough() {
+        taskRebalancer.move(userId, target);
+
+        taskRebalancer.purgeMoved(); // moved just now: kept
+        assertThat(tasksOn(source)).isEqualTo(TASKS);
+
+        backdateFences();
+        taskRebalancer.purgeMoved();
+
+        assertThat(tasksOn(source)).isZero();
+        assertThat(shard(source).queryForObject("select count(*) from task_versions where user_id = ?",
+                Integer.class, userId)).isZero();
+        assertThat(tasksOn(target)).isEqualTo(TASKS);
+    }
+
+    @Test
+    void rebalanceMovesUsersBackToWhereTheRingPlacesThem() {
+        taskRebalancer.move(userId, target);
+
+        List<ShardMove> moves = taskRebalancer.rebalance(100);
+
+        assertThat(moves).anySatisfy(move -> {
+            assertThat(move.getUserId()).isEqualTo(userId);
+            assertThat(move.getTo()).isEqualTo(source);
+        });
+        assertThat(directory()).isEqualTo(source);
+        assertThat(tasksOn(source)).isEqualTo(TASKS);
+        assertThat(movedAt(source)).isNull();
+    }
+
+    // ================= HELPERS =================
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(router.shard(shard));
+    }
+
+    private int directory() {
+        return shard(0).queryForObject("select shard from users where id = ?", Integer.class, userId);
+    }
+
+    private int tasksOn(int shard) {
+        return shard(shard).queryForObject("select count(*) from tasks where assigned_to_id = ?", Integer.class, userId);
+    }
+
+    private LocalDateTime movedAt(int shard) {
+        return shard(shard).queryForObject("select moved_at from task_versions where user_id = ?",
+                LocalDateTime.class, userId);
+    }
+
+    // A task change routed to the shard, whatever the directory says
+    private void writeOn(int shard) {
+        taskShards.run(shard, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> taskListVersions.next(userId)));
+    }
+
+    private void backdateFences() {
+        for (int shard = 0; shard < router.count(); shard++) {
+            shard(shard).update("update task_versions set moved_at = moved_at - interval '1 hour' where user_id = ?", userId);
+        }
+    }
+}